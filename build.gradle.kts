@@ -19,6 +19,15 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks of the simulation hot paths, run with `gradle jmh`
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     api("com.fasterxml.jackson.core:jackson-databind:2.15.3")
     api("org.apache.commons:commons-lang3:3.12.0")
@@ -32,6 +41,8 @@ dependencies {
     testImplementation("org.hamcrest:hamcrest:2.2")
     compileOnly("org.projectlombok:lombok:1.18.30")
     annotationProcessor("org.projectlombok:lombok:1.18.30")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -114,4 +125,22 @@ tasks.jacocoTestCoverageVerification {
             }
         }
     }
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks of the simulation hot paths and writes the results as JSON."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // Experiments designed by the benchmarks write their reports under the working directory
+    val benchmarkDirectory = layout.buildDirectory.dir("jmh").get().asFile
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    workingDir = benchmarkDirectory
+    // JMH options, such as a benchmark pattern and -p parameter=values, e.g. -PjmhArgs="PatronBenchmark -p memoryLength=5"
+    val jmhArgs = (project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: listOf()
+    args(jmhArgs + listOf("-rf", "json", "-rff", results.path))
+    doFirst {
+        benchmarkDirectory.mkdirs()
+        results.parentFile.mkdirs()
+    }
+}
@@ -0,0 +1,54 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.actors.bars.Bar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading the recent crowdedness of a bar that has run for a whole simulation, as crowdedness strategies do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarBenchmark {
+    @Param({"100", "10000"})
+    private int simulationLength;
+    @Param({"5", "20"})
+    private int memoryLength;
+
+    private Bar bar;
+
+    @Setup
+    public void setUp() {
+        this.bar = BenchmarkStrategies.bar(this.simulationLength);
+    }
+
+    /**
+     * Counts the overcrowded steps among the last {@link #memoryLength}.
+     */
+    @Benchmark
+    public int crowdedHistory() {
+        final List<Boolean> crowdedHistory = this.bar.crowdedHistory();
+        int overcrowdedSteps = 0;
+        for (int step = Math.max(crowdedHistory.size() - this.memoryLength, 0); step < crowdedHistory.size(); step++) {
+            if (crowdedHistory.get(step)) {
+                overcrowdedSteps++;
+            }
+        }
+        return overcrowdedSteps;
+    }
+}
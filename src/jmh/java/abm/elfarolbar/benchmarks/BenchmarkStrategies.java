@@ -0,0 +1,93 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.simulations.PatronSetupDetails;
+import abm.elfarolbar.strategies.decision.AlwaysDecisionStrategy;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
+import abm.elfarolbar.strategies.decision.LastIncorrectDecisionStrategy;
+import abm.elfarolbar.strategies.decision.MaxAttendanceDecisionStrategy;
+import abm.elfarolbar.strategies.decision.MaxAverageAttendanceDecisionStrategy;
+import abm.elfarolbar.strategies.decision.MinAttendanceDecisionStrategy;
+import abm.elfarolbar.strategies.decision.MinAverageAttendanceDecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.decision.PluralityThresholdAttendanceDecisionStrategy;
+import abm.elfarolbar.strategies.decision.PureRandomDecisionStrategy;
+import abm.elfarolbar.strategies.decision.RandomDecisionStrategy;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The strategies and bar state the benchmarks share, so every benchmark of a given strategy count runs the
+ * same strategies.
+ */
+final class BenchmarkStrategies {
+    /**
+     * Every decision strategy, patron-dependent ones first so small strategy counts still cover them.
+     */
+    static final List<DecisionStrategy> DECISION_STRATEGIES = ImmutableList.of(
+            LastCorrectDecisionStrategy.builder().build(),
+            LastIncorrectDecisionStrategy.builder().build(),
+            PureRandomDecisionStrategy.builder().build(),
+            RandomDecisionStrategy.builder().build(),
+            MaxAttendanceDecisionStrategy.builder().build(),
+            MaxAverageAttendanceDecisionStrategy.builder().build(),
+            MinAttendanceDecisionStrategy.builder().build(),
+            MinAverageAttendanceDecisionStrategy.builder().build(),
+            PluralityThresholdAttendanceDecisionStrategy.builder().build(),
+            AlwaysDecisionStrategy.builder().build(),
+            NeverDecisionStrategy.builder().build());
+    static final ReplacementStrategy REPLACEMENT_STRATEGY = FlatToleranceReplacementStrategy.builder().build();
+
+    private static final long SEED = 42L;
+
+    private BenchmarkStrategies() {
+    }
+
+    static Set<DecisionStrategy> decisionStrategies(final int strategyCount) {
+        return ImmutableSet.copyOf(DECISION_STRATEGIES.subList(0, strategyCount));
+    }
+
+    static DecisionStrategy decisionStrategy(final String strategyName) {
+        return DECISION_STRATEGIES.stream()
+                .filter(strategy -> strategy.getName().equals(strategyName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown decision strategy %s", strategyName)));
+    }
+
+    /**
+     * Patrons spread evenly over the strategies, the first strategies taking the remainder.
+     */
+    static List<PatronSetupDetails> patronSetupDetails(final Set<DecisionStrategy> decisionStrategies, final int populationSize) {
+        final List<DecisionStrategy> strategies = ImmutableList.copyOf(decisionStrategies);
+        return IntStream.range(0, strategies.size())
+                .mapToObj(idx -> PatronSetupDetails.builder()
+                        .decisionStrategyName(strategies.get(idx).getName())
+                        .replacementStrategyName(REPLACEMENT_STRATEGY.getName())
+                        .count(populationSize / strategies.size() + (idx < populationSize % strategies.size() ? 1 : 0))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * A bar of capacity 60 out of 100 patrons that has recorded {@code historyLength} steps of attendance
+     * around its capacity.
+     */
+    static Bar bar(final int historyLength) {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        return Bar.builder()
+                .totalPopulation(100)
+                .maxCapacity(60)
+                .attendanceHistory(IntStream.range(0, historyLength)
+                        .map(step -> random.nextInt(40, 80))
+                        .boxed()
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A single decision of every decision strategy over a bar history as long as the patron's memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionStrategyBenchmark {
+    @Param({"LastCorrect", "LastIncorrect", "PureRandom", "Random", "Max-60", "MaxAverage-80", "Min-40", "MinAverage-30",
+            "PluralityThreshold-30-false", "Always", "Never"})
+    private String strategyName;
+    @Param({"5", "20"})
+    private int memoryLength;
+
+    private DecisionStrategy strategy;
+    private Bar bar;
+    private PatronMemoryProps memoryProps;
+    private RandomStream random;
+
+    @Setup
+    public void setUp() {
+        this.strategy = BenchmarkStrategies.decisionStrategy(this.strategyName);
+        this.bar = BenchmarkStrategies.bar(this.memoryLength);
+        this.memoryProps = PatronMemoryProps.builder().memoryLength(this.memoryLength).build();
+        this.random = RandomStream.unseeded();
+    }
+
+    @Benchmark
+    public boolean decide() {
+        return this.strategy.decide(this.bar, this.memoryProps, this.random);
+    }
+}
@@ -0,0 +1,67 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.experiments.Experiment;
+import abm.elfarolbar.experiments.ExperimentDesigner;
+import abm.elfarolbar.simulations.Simulation;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Designing an experiment and generating its simulations without running them. The experiment writes its
+ * parameters under {@code ./reports} of the working directory once, then reuses them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExperimentDesignerBenchmark {
+    @Param({"100", "1000"})
+    private int populationSize;
+    @Param({"2", "3"})
+    private int strategyCount;
+    @Param({"100", "500"})
+    private int simulationLength;
+
+    private ExperimentDesigner experimentDesigner;
+
+    /**
+     * Distributions step by a tenth of the population, so the number of simulations only depends on the
+     * strategy count.
+     */
+    @Setup
+    public void setUp() {
+        this.experimentDesigner = ExperimentDesigner.builder()
+                .decisionStrategies(BenchmarkStrategies.decisionStrategies(this.strategyCount))
+                .replacementStrategy(BenchmarkStrategies.REPLACEMENT_STRATEGY)
+                .distributionSize(this.populationSize / 10)
+                .totalPatrons(this.populationSize)
+                .barCapacity(this.populationSize * 6 / 10)
+                .simulationLength(this.simulationLength)
+                .experimentId(String.format("benchmark-%d-%d-%d", this.populationSize, this.strategyCount, this.simulationLength))
+                .seed(42L)
+                .build();
+    }
+
+    @Benchmark
+    public long design() throws IOException {
+        final Experiment experiment = this.experimentDesigner.design();
+        long patrons = 0;
+        for (final Simulation simulation : experiment.getSimulations()) {
+            patrons += simulation.getPopulation().size();
+        }
+        return patrons;
+    }
+}
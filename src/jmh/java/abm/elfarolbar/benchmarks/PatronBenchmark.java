@@ -0,0 +1,82 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-patron work of a step: deciding whether to attend, and replacing the decision strategy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatronBenchmark {
+    @Param({"5", "20"})
+    private int memoryLength;
+    @Param({"3", "11"})
+    private int strategyCount;
+
+    private Bar bar;
+    private Patron patron;
+
+    /**
+     * A patron that has lived through a full memory of steps, so every strategy has a record to decide from.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final Map<String, DecisionStrategy> decisionStrategies = BenchmarkStrategies.decisionStrategies(this.strategyCount).stream()
+                .collect(Collectors.toMap(DecisionStrategy::getName, Function.identity()));
+        this.bar = BenchmarkStrategies.bar(this.memoryLength);
+        this.patron = Patron.builder()
+                .id("benchmark")
+                .decisionStrategies(decisionStrategies)
+                .decisionStrategyName(BenchmarkStrategies.DECISION_STRATEGIES.get(0).getName())
+                .replacementStrategy(BenchmarkStrategies.REPLACEMENT_STRATEGY)
+                .memoryProps(PatronMemoryProps.builder().memoryLength(this.memoryLength).build())
+                .patience(0)
+                .build();
+        IntStream.range(0, this.memoryLength).forEach(step -> {
+            this.patron.decide(this.bar);
+            this.patron.record(this.bar);
+            this.bar.reset();
+        });
+    }
+
+    @Benchmark
+    public boolean decide() {
+        final boolean decision = this.patron.decide(this.bar);
+        this.bar.reset();
+        return decision;
+    }
+
+    @Benchmark
+    public boolean selectNewStrategy() {
+        return this.patron.selectNewStrategy();
+    }
+
+    @Benchmark
+    public boolean shouldReplaceStrategy() {
+        return this.patron.shouldReplaceStrategy();
+    }
+}
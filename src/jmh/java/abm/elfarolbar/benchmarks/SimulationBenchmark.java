@@ -0,0 +1,82 @@
+package abm.elfarolbar.benchmarks;
+
+import abm.elfarolbar.agents.population.PopulationLayout;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.SimulationGenerator;
+import abm.elfarolbar.simulations.StepMode;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full simulation run, in either {@link StepMode} and population layout. Simulations are generated outside
+ * the measurement, as each can only run once. The default sizes fit the default heap; a large population,
+ * such as the 300000 patrons the step modes were first compared at, is an explicit opt-in, e.g.
+ * {@code gradle jmh -PjmhArgs="SimulationBenchmark -p populationSize=300000 -jvmArgsAppend -Xmx4G"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    @Param({"1000", "100000"})
+    private int populationSize;
+    @Param({"5", "20"})
+    private int memoryLength;
+    @Param({"3", "11"})
+    private int strategyCount;
+    @Param({"100", "500"})
+    private int simulationLength;
+    @Param({"OBJECTS", "ARRAYS"})
+    private PopulationLayout populationLayout;
+    @Param({"PHASED", "FUSED"})
+    private StepMode stepMode;
+
+    private SimulationGenerator simulationGenerator;
+    private Simulation simulation;
+
+    @Setup
+    public void setUp() {
+        final Set<DecisionStrategy> decisionStrategies = BenchmarkStrategies.decisionStrategies(this.strategyCount);
+        this.simulationGenerator = SimulationGenerator.builder()
+                .barCapacity(this.populationSize * 6 / 10)
+                .simulationLength(this.simulationLength)
+                .barPreviousHistory(List.of(0))
+                .patronSetupDetailsList(BenchmarkStrategies.patronSetupDetails(decisionStrategies, this.populationSize))
+                .decisionStrategies(decisionStrategies)
+                .replacementStrategies(Set.of(BenchmarkStrategies.REPLACEMENT_STRATEGY))
+                .memoryLength(this.memoryLength)
+                .populationLayout(this.populationLayout)
+                .stepMode(this.stepMode)
+                .reportDetail(ReportDetail.SUMMARY)
+                .seed(42L)
+                .build();
+    }
+
+    @Setup(Level.Invocation)
+    public void generate() {
+        this.simulation = this.simulationGenerator.generate("benchmark");
+    }
+
+    @Benchmark
+    public Simulation execute() {
+        this.simulation.execute();
+        return this.simulation;
+    }
+}
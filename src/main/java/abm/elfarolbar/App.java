@@ -3,6 +3,13 @@ package abm.elfarolbar;
 import abm.elfarolbar.experiments.ExperimentDesigner;
 import abm.elfarolbar.experiments.ExperimentExecutor;
 import abm.elfarolbar.experiments.ExperimentResults;
+import abm.elfarolbar.experiments.ExperimentScheduler;
+import abm.elfarolbar.experiments.ExperimentShard;
+import abm.elfarolbar.experiments.ExperimentSummary;
+import abm.elfarolbar.experiments.ShardMerger;
+import abm.elfarolbar.experiments.SummaryIndex;
+import abm.elfarolbar.experiments.SummaryIndexEntry;
+import abm.elfarolbar.simulations.reporting.ColumnarResultReader;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
 import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
 import abm.elfarolbar.strategies.decision.LastIncorrectDecisionStrategy;
@@ -15,19 +22,58 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.ImmutableSet;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.Set;
 
 /**
  * Initializes and executes simulations.
+ *
+ * <p>Run without arguments to execute the whole experiment in this process. Run with
+ * {@code <shardIndex> <shardCount> <experimentId> <seed>} to execute one shard of an experiment split across
+ * processes, and with {@code merge <experimentId>} to merge the manifests of its completed shards. Run with
+ * {@code resume <experimentId>}, or append {@code resume} to the shard arguments, to pick up an experiment
+ * where it stopped. Run with {@code export <experimentId>} to export the columnar results of an experiment to
+ * columnar JSON files, and with {@code query <experimentId>} to list the distributions whose mean attendance was
+ * within 5% of the bar capacity from its summary index.
  */
 @Log4j2
 public class App {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
     private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer(new MinimalPrettyPrinter());
+    private static final String USAGE = "usage: [resume <experimentId>] | <shardIndex> <shardCount> <experimentId> <seed> [resume]"
+            + " | merge <experimentId> | export <experimentId> | query <experimentId>";
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("merge")) {
+            final ExperimentSummary summary = new ShardMerger(OBJECT_MAPPER).merge(Paths.get("./reports", args[1]));
+            log.info("Experiment {} completed {} of {} simulations", summary.getExperimentId(),
+                    summary.getCompletedSimulations(), summary.getSimulationCount());
+            return;
+        }
+        if (args.length == 2 && args[0].equals("export")) {
+            exportColumnarResults(Paths.get("./reports", args[1]));
+            return;
+        }
+        if (args.length == 2 && args[0].equals("query")) {
+            querySummaryIndex(Paths.get("./reports", args[1]));
+            return;
+        }
+        final boolean resume = args.length == 2 && args[0].equals("resume") || args.length == 5 && args[4].equals("resume");
+        final boolean sharded = args.length == 4 || args.length == 5 && resume;
+        if (args.length > 0 && !resume && !sharded) {
+            throw new IllegalArgumentException(String.format("Unexpected arguments %s, %s", String.join(" ", args), USAGE));
+        }
+        final ExperimentShard shard = sharded
+                ? ExperimentShard.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]))
+                : ExperimentShard.whole();
 
-    public static void main(final String[] args) {
         final LastCorrectDecisionStrategy lastCorrectStrategy = LastCorrectDecisionStrategy.builder().build();
         final LastIncorrectDecisionStrategy lastIncorrectStrategy = LastIncorrectDecisionStrategy.builder().build();
         final NeverDecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
@@ -49,11 +95,40 @@ public class App {
                 .initialBarAttendance(0)
                 .simulationLength(500)
                 .totalPatrons(100)
+                .shard(shard)
+                .experimentId(sharded ? args[2] : resume ? args[1] : null)
+                .seed(sharded ? Long.parseLong(args[3]) : null)
+                .resume(resume)
                 .build();
-        final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, OBJECT_WRITER);
+        try (final ExperimentScheduler experimentScheduler = ExperimentScheduler.forAvailableProcessors()) {
+            final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, OBJECT_WRITER, experimentScheduler);
+
+            final ExperimentResults results = experimentExecutor.execute();
+            final Instant end = Instant.now();
+            log.info("Total Execution Time: {} ms", end.minusMillis(start.toEpochMilli()).toEpochMilli());
+            log.info("Scheduler {}", experimentScheduler.getStats());
+        }
+    }
+
+    private static void querySummaryIndex(final Path outputPath) throws IOException {
+        final SummaryIndex nearCapacity = SummaryIndex.read(outputPath)
+                .filter(entry -> entry.isMeanAttendanceNearCapacity(0.05))
+                .sorted(Comparator.comparingDouble(entry -> entry.getSummary().getOvercrowdingFrequency()));
+        for (final SummaryIndexEntry entry : nearCapacity.getEntries()) {
+            log.info("{} mean attendance {} overcrowded {}", entry.getDistribution(),
+                    entry.getSummary().getMeanAttendance(), entry.getSummary().getOvercrowdingFrequency());
+        }
+        log.info("{} distributions with mean attendance within 5% of capacity", nearCapacity.size());
+    }
 
-        final ExperimentResults results = experimentExecutor.execute();
-        final Instant end = Instant.now();
-        log.info("Total Execution Time: {} ms", end.minusMillis(start.toEpochMilli()).toEpochMilli());
+    private static void exportColumnarResults(final Path outputPath) throws IOException {
+        try (final DirectoryStream<Path> dataFiles = Files.newDirectoryStream(outputPath, "*.columns")) {
+            for (final Path dataFile : dataFiles) {
+                try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+                    reader.exportColumnarJson(OBJECT_WRITER, outputPath);
+                    log.info("Exported {} simulations from {}", reader.getSimulationIds().size(), dataFile);
+                }
+            }
+        }
     }
 }
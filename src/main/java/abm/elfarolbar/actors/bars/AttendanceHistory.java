@@ -0,0 +1,135 @@
+package abm.elfarolbar.actors.bars;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only attendance record of a bar, kept as a primitive int sequence alongside a bit-packed
+ * crowdedness sequence (one bit per step, set when attendance exceeded the bar capacity).
+ *
+ * <p>Exposed as an append-only {@link List} of attendances so it can be reported and compared like the
+ * boxed history it replaces, while strategies read windows through the primitive accessors without
+ * allocating. Window statistics are registered lazily on first use and then kept up to date as each step
+ * is added.
+ */
+public class AttendanceHistory extends AbstractList<Integer> implements RandomAccess {
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    private final int maxCapacity;
+    private final Map<Integer, AttendanceWindowStatistics> windowStatistics = new ConcurrentHashMap<>();
+    private int[] attendances;
+    private long[] crowdedBits;
+    private int size;
+
+    public AttendanceHistory(final int maxCapacity) {
+        this(maxCapacity, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public AttendanceHistory(final int maxCapacity, final int initialCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.attendances = new int[Math.max(initialCapacity, 1)];
+        this.crowdedBits = new long[wordsFor(this.attendances.length)];
+    }
+
+    public static AttendanceHistory of(final int maxCapacity, final List<Integer> attendances) {
+        final AttendanceHistory history = new AttendanceHistory(maxCapacity, attendances.size());
+        for (final int attendance : attendances) {
+            history.add(attendance);
+        }
+        return history;
+    }
+
+    public int getMaxCapacity() {
+        return this.maxCapacity;
+    }
+
+    public void add(final int attendance) {
+        if (this.size == this.attendances.length) {
+            this.grow();
+        }
+        this.attendances[this.size] = attendance;
+        if (attendance > this.maxCapacity) {
+            this.crowdedBits[this.size >>> 6] |= 1L << this.size;
+        }
+        final int index = this.size++;
+        this.modCount++;
+        this.windowStatistics.values().forEach(statistics -> statistics.onAdd(index));
+    }
+
+    public int getAttendance(final int index) {
+        Objects.checkIndex(index, this.size);
+        return this.attendances[index];
+    }
+
+    public boolean isCrowded(final int index) {
+        Objects.checkIndex(index, this.size);
+        return (this.crowdedBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Index of the first step remembered by a patron with the given memory length; the window is
+     * {@code [windowStart(memoryLength), size())}.
+     */
+    public int windowStart(final int memoryLength) {
+        return Math.max(0, this.size - Math.max(memoryLength, 0));
+    }
+
+    /**
+     * Statistics over the most recent {@code memoryLength} attendances, shared by every reader with the
+     * same memory length.
+     */
+    public AttendanceWindowStatistics windowStatistics(final int memoryLength) {
+        return this.windowStatistics.computeIfAbsent(Math.max(memoryLength, 0),
+                length -> new AttendanceWindowStatistics(this, length));
+    }
+
+    /**
+     * Read-only view of the crowdedness sequence, backed by the bit-packed record.
+     */
+    public List<Boolean> crowdedView() {
+        return new CrowdedView();
+    }
+
+    @Override
+    public boolean add(final Integer attendance) {
+        this.add(attendance.intValue());
+        return true;
+    }
+
+    @Override
+    public Integer get(final int index) {
+        return this.getAttendance(index);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private void grow() {
+        final int newLength = this.attendances.length + (this.attendances.length >> 1) + 1;
+        this.attendances = Arrays.copyOf(this.attendances, newLength);
+        this.crowdedBits = Arrays.copyOf(this.crowdedBits, wordsFor(newLength));
+    }
+
+    private static int wordsFor(final int length) {
+        return (length + 63) >>> 6;
+    }
+
+    private class CrowdedView extends AbstractList<Boolean> implements RandomAccess {
+        @Override
+        public Boolean get(final int index) {
+            return isCrowded(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
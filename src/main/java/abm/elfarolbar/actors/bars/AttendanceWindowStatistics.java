@@ -0,0 +1,166 @@
+package abm.elfarolbar.actors.bars;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running statistics over the most recent {@code memoryLength} attendances of an {@link AttendanceHistory}.
+ *
+ * <p>Kept up to date on every recorded step: the sum is adjusted by the entering and leaving
+ * attendances, and the minimum and maximum are tracked with monotonic deques of step indices, so every
+ * query is O(1). Counts at or below and at or above a threshold are registered on first use and adjusted
+ * the same way, so they take constant memory however long the history grows.
+ */
+public class AttendanceWindowStatistics {
+    private final AttendanceHistory history;
+    private final int memoryLength;
+    private final MonotonicDeque minDeque;
+    private final MonotonicDeque maxDeque;
+    private final Map<Integer, ThresholdCounts> thresholdCounts = new ConcurrentHashMap<>();
+    private long sum;
+
+    AttendanceWindowStatistics(final AttendanceHistory history, final int memoryLength) {
+        this.history = history;
+        this.memoryLength = Math.max(memoryLength, 0);
+        this.minDeque = new MonotonicDeque(this.memoryLength, true);
+        this.maxDeque = new MonotonicDeque(this.memoryLength, false);
+        for (int index = history.windowStart(this.memoryLength); index < history.size(); index++) {
+            this.append(index);
+        }
+    }
+
+    public int getMemoryLength() {
+        return this.memoryLength;
+    }
+
+    public int count() {
+        return this.history.size() - this.windowStart();
+    }
+
+    public boolean isEmpty() {
+        return this.count() == 0;
+    }
+
+    public long sum() {
+        return this.sum;
+    }
+
+    public double average() {
+        return (double) this.sum / this.count();
+    }
+
+    public int min() {
+        return this.history.getAttendance(this.minDeque.first());
+    }
+
+    public int max() {
+        return this.history.getAttendance(this.maxDeque.first());
+    }
+
+    public int countAtOrBelow(final int threshold) {
+        return this.thresholdCountsFor(threshold).atOrBelow;
+    }
+
+    public int countAtOrAbove(final int threshold) {
+        return this.thresholdCountsFor(threshold).atOrAbove;
+    }
+
+    /**
+     * Slides the window forward to include the attendance just recorded at {@code index}.
+     */
+    void onAdd(final int index) {
+        if (this.memoryLength == 0) {
+            return;
+        }
+        final int evictedIndex = index - this.memoryLength;
+        if (evictedIndex >= 0) {
+            final int evictedAttendance = this.history.getAttendance(evictedIndex);
+            this.sum -= evictedAttendance;
+            this.thresholdCounts.values().forEach(counts -> counts.adjust(evictedAttendance, -1));
+        }
+        this.append(index);
+        final int attendance = this.history.getAttendance(index);
+        this.thresholdCounts.values().forEach(counts -> counts.adjust(attendance, 1));
+    }
+
+    private void append(final int index) {
+        final int attendance = this.history.getAttendance(index);
+        final int evictedIndex = index - this.memoryLength;
+        this.sum += attendance;
+        this.minDeque.push(index, attendance, evictedIndex);
+        this.maxDeque.push(index, attendance, evictedIndex);
+    }
+
+    private int windowStart() {
+        return this.history.windowStart(this.memoryLength);
+    }
+
+    private ThresholdCounts thresholdCountsFor(final int threshold) {
+        return this.thresholdCounts.computeIfAbsent(threshold, ThresholdCounts::new);
+    }
+
+    /**
+     * Number of attendances in the window at or below, and at or above, a threshold.
+     */
+    private class ThresholdCounts {
+        private final int threshold;
+        private int atOrBelow;
+        private int atOrAbove;
+
+        private ThresholdCounts(final int threshold) {
+            this.threshold = threshold;
+            for (int index = windowStart(); index < history.size(); index++) {
+                this.adjust(history.getAttendance(index), 1);
+            }
+        }
+
+        private void adjust(final int attendance, final int delta) {
+            if (attendance <= this.threshold) {
+                this.atOrBelow += delta;
+            }
+            if (attendance >= this.threshold) {
+                this.atOrAbove += delta;
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of step indices whose attendances are monotonic from front to back, so the front is
+     * always the minimum (or maximum) of the window.
+     */
+    private class MonotonicDeque {
+        private final int[] indices;
+        private final boolean ascending;
+        private int head;
+        private int length;
+
+        private MonotonicDeque(final int memoryLength, final boolean ascending) {
+            this.indices = new int[memoryLength + 1];
+            this.ascending = ascending;
+        }
+
+        private int first() {
+            return this.indices[this.head];
+        }
+
+        private void push(final int index, final int attendance, final int evictedIndex) {
+            while (this.length > 0 && this.indices[this.head] <= evictedIndex) {
+                this.head = (this.head + 1) % this.indices.length;
+                this.length--;
+            }
+            while (this.length > 0 && this.dominates(attendance, history.getAttendance(this.last()))) {
+                this.length--;
+            }
+            this.indices[(this.head + this.length) % this.indices.length] = index;
+            this.length++;
+        }
+
+        private int last() {
+            return this.indices[(this.head + this.length - 1) % this.indices.length];
+        }
+
+        private boolean dominates(final int attendance, final int other) {
+            return this.ascending ? attendance <= other : attendance >= other;
+        }
+    }
+}
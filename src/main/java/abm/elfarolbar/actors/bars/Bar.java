@@ -1,24 +1,51 @@
 package abm.elfarolbar.actors.bars;
 
-import com.google.common.collect.Lists;
 import java.util.List;
-import java.util.stream.Collectors;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Setter;
 
-@Builder
 @Data
 public class Bar {
     private int totalPopulation;
+    @Setter(AccessLevel.NONE)
     private int maxCapacity;
-    @Builder.Default
-    private List<Integer> attendanceHistory = Lists.newArrayList();
+    @Setter(AccessLevel.NONE)
+    private AttendanceHistory attendanceHistory;
     private int attendance;
 
-    public void addPatron() {
+    @Builder
+    private Bar(final int totalPopulation, final int maxCapacity, final List<Integer> attendanceHistory, final int attendance) {
+        this.totalPopulation = totalPopulation;
+        this.maxCapacity = maxCapacity;
+        this.attendanceHistory = AttendanceHistory.of(maxCapacity, attendanceHistory == null ? List.of() : attendanceHistory);
+        this.attendance = attendance;
+    }
+
+    /**
+     * Replaces the attendance history, such as with one restored from a snapshot.
+     */
+    public void restoreAttendanceHistory(final List<Integer> attendances) {
+        this.attendanceHistory = AttendanceHistory.of(this.maxCapacity, attendances);
+    }
+
+    /**
+     * Adds one attending patron; safe to call from patrons deciding in parallel, though populations count
+     * attendance per worker and add it once with {@link #addPatrons(int)}.
+     */
+    public synchronized void addPatron() {
         this.attendance++;
     }
 
+    /**
+     * Adds the attendance of patrons that decided in parallel, counted per worker and reduced before the bar
+     * is updated once.
+     */
+    public synchronized void addPatrons(final int count) {
+        this.attendance += count;
+    }
+
     public void record() {
         attendanceHistory.add(this.attendance);
     }
@@ -32,8 +59,6 @@ public class Bar {
     }
 
     public List<Boolean> crowdedHistory() {
-        return this.attendanceHistory.stream()
-                .map(attendance -> attendance > this.maxCapacity)
-                .collect(Collectors.toList());
+        return this.attendanceHistory.crowdedView();
     }
 }
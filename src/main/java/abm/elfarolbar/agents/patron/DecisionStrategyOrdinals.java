@@ -0,0 +1,98 @@
+package abm.elfarolbar.agents.patron;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Dense ordinals for a set of decision strategy names, used to store one decision per strategy as a bit of a
+ * {@code long}. Ordinals follow the sorted names, so equal name sets always share the same ordinals, and
+ * instances are interned so every patron of a simulation references the same one.
+ */
+@EqualsAndHashCode(of = "names")
+@ToString(of = "names")
+public final class DecisionStrategyOrdinals {
+    public static final int MAX_STRATEGIES = Long.SIZE;
+
+    private static final Interner<DecisionStrategyOrdinals> INTERNER = Interners.newWeakInterner();
+    private static final DecisionStrategyOrdinals EMPTY = of(ImmutableList.of());
+
+    private final ImmutableList<String> names;
+    private final ImmutableMap<String, Integer> ordinals;
+
+    private DecisionStrategyOrdinals(final ImmutableList<String> names) {
+        this.names = names;
+        final ImmutableMap.Builder<String, Integer> ordinalsBuilder = ImmutableMap.builder();
+        for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+            ordinalsBuilder.put(names.get(ordinal), ordinal);
+        }
+        this.ordinals = ordinalsBuilder.build();
+    }
+
+    public static DecisionStrategyOrdinals of(final Collection<String> strategyNames) {
+        final ImmutableList<String> names = strategyNames.stream()
+                .distinct()
+                .sorted()
+                .collect(ImmutableList.toImmutableList());
+        if (names.size() > MAX_STRATEGIES) {
+            throw new IllegalArgumentException(
+                    String.format("At most %d decision strategies are supported, got %d", MAX_STRATEGIES, names.size()));
+        }
+        return INTERNER.intern(new DecisionStrategyOrdinals(names));
+    }
+
+    public static DecisionStrategyOrdinals empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return this.names.size();
+    }
+
+    /**
+     * The strategy names in ordinal order.
+     */
+    public List<String> names() {
+        return this.names;
+    }
+
+    public String nameOf(final int ordinal) {
+        return this.names.get(ordinal);
+    }
+
+    /**
+     * The ordinal of the strategy, or {@code -1} when it is not part of this set.
+     */
+    public int ordinalOf(final String strategyName) {
+        return this.ordinals.getOrDefault(strategyName, -1);
+    }
+
+    public static boolean decisionOf(final long decisionBits, final int ordinal) {
+        return ordinal >= 0 && (decisionBits & (1L << ordinal)) != 0;
+    }
+
+    public long toDecisionBits(final Map<String, Boolean> strategyNameToDecisionMap) {
+        long decisionBits = 0L;
+        for (final Map.Entry<String, Boolean> entry : strategyNameToDecisionMap.entrySet()) {
+            final int ordinal = this.ordinalOf(entry.getKey());
+            if (ordinal >= 0 && Boolean.TRUE.equals(entry.getValue())) {
+                decisionBits |= 1L << ordinal;
+            }
+        }
+        return decisionBits;
+    }
+
+    public Map<String, Boolean> toDecisionMap(final long decisionBits) {
+        final ImmutableMap.Builder<String, Boolean> decisions = ImmutableMap.builderWithExpectedSize(this.size());
+        for (int ordinal = 0; ordinal < this.size(); ordinal++) {
+            decisions.put(this.names.get(ordinal), decisionOf(decisionBits, ordinal));
+        }
+        return decisions.build();
+    }
+}
@@ -1,25 +1,38 @@
 package abm.elfarolbar.agents.patron;
 
 import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.random.RandomStream;
 import abm.elfarolbar.simulations.reporting.Reportable;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import java.util.Collection;
-import java.util.Collections;
+import com.google.common.collect.ImmutableList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
-import org.apache.commons.lang3.tuple.Pair;
+import lombok.ToString;
 
-@Builder
 @Data
 public class Patron implements Reportable<PatronReport> {
+    private static final int DEFAULT_PATIENCE = 5;
+    private static final int EVENT_DECIDED = 1;
+    private static final int EVENT_RECORDED = 1 << 1;
+    private static final int EVENT_OVERCROWDED = 1 << 2;
+
     @NonNull
     private String id;
     @NonNull
@@ -31,84 +44,219 @@ public class Patron implements Reportable<PatronReport> {
     @NonNull
     private PatronMemoryProps memoryProps;
     @NonNull
-    @Builder.Default
-    private List<PatronHistoryEvent> history = Lists.newArrayList();
-    @Builder.Default
-    private int patience = 5;
-    @Builder.Default
-    private int lastStrategySwitchStep = 0;
+    private PatronMemory memory;
+    private int patience;
+    private int lastStrategySwitchStep;
+    @NonNull
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private PatronHistorySink historySink;
+    @Getter(lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final DecisionStrategyOrdinals strategyOrdinals = DecisionStrategyOrdinals.of(this.decisionStrategies.keySet());
+    /**
+     * The decision strategies in ordinal order, so deciding needs no lookup by name.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final DecisionStrategy[] strategiesByOrdinal = this.getStrategyOrdinals().names().stream()
+            .map(this.decisionStrategies::get)
+            .toArray(DecisionStrategy[]::new);
+    @Getter(lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final long randomKey = CounterRandom.keyOf(this.id);
 
-    public boolean decide(final Bar bar) {
-        final Map<String, Boolean> decisions = this.decisionStrategies.entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().decide(bar, memoryProps)));
-        this.decisionStrategies.get(this.decisionStrategyName).select();
+    /**
+     * @param history events the patron starts out with; only the last {@code memoryLength} are remembered
+     * @param steps steps the patron has lived through, when more than its {@code history}
+     * @param historySink receives every event once recorded, discarding them when unset
+     */
+    @Builder
+    private Patron(@NonNull final String id,
+                   @NonNull final Map<String, DecisionStrategy> decisionStrategies,
+                   @NonNull final String decisionStrategyName,
+                   @NonNull final ReplacementStrategy replacementStrategy,
+                   @NonNull final PatronMemoryProps memoryProps,
+                   final List<PatronHistoryEvent> history,
+                   final Integer steps,
+                   final Integer patience,
+                   final Integer lastStrategySwitchStep,
+                   final PatronHistorySink historySink) {
+        this.id = id;
+        this.decisionStrategies = decisionStrategies;
+        this.decisionStrategyName = decisionStrategyName;
+        this.replacementStrategy = replacementStrategy;
+        this.memoryProps = memoryProps;
+        final List<PatronHistoryEvent> initialHistory = history == null ? ImmutableList.of() : history;
+        this.memory = PatronMemory.of(memoryProps.getMemoryLength(), initialHistory,
+                steps == null ? initialHistory.size() : steps);
+        this.patience = patience == null ? DEFAULT_PATIENCE : patience;
+        this.lastStrategySwitchStep = lastStrategySwitchStep == null ? 0 : lastStrategySwitchStep;
+        this.historySink = historySink == null ? PatronHistorySink.discard() : historySink;
+    }
 
-        final boolean decision = decisions.get(this.decisionStrategyName);
-        final PatronHistoryEvent patronHistoryEvent = PatronHistoryEvent.builder()
-                .strategyNameToDecisionMap(decisions)
-                .decision(decision)
-                .strategy(this.decisionStrategyName)
-                .build();
+    /**
+     * The remembered events of the patron's history, oldest first.
+     */
+    public List<PatronHistoryEvent> getHistory() {
+        return this.memory.recent();
+    }
 
-        this.history.add(patronHistoryEvent);
+    public boolean decide(final Bar bar) {
+        return this.decide(bar, SharedDecisions.none());
+    }
 
+    public boolean decide(final Bar bar, final SharedDecisions sharedDecisions) {
+        final boolean decision = this.choose(bar, sharedDecisions, StepRandom.unseeded());
         if (decision) {
             this.attendBar(bar);
         }
         return decision;
     }
 
-    public void selectNewStrategy() {
-        this.lastStrategySwitchStep = getHistory().size();
-        final List<PatronHistoryEvent> recentHistory = this.recentHistory();
-
-        final Map<String, Integer> strategyNameToCorrectRecentDecisionsCountMap = recentHistory.stream()
-            .map(this::getDecisionObject)
-            .map(Map::entrySet)
-            .flatMap(Collection::stream)
-            .filter(Map.Entry::getValue)
-            .collect(Collectors.groupingBy(Map.Entry::getKey))
-            .entrySet()
-            .stream()
-            .map(entry -> Pair.of(entry.getKey(), entry.getValue().size()))
-            .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
-
-        final int maxCount = strategyNameToCorrectRecentDecisionsCountMap.values()
-            .stream()
-            .mapToInt(Integer::intValue)
-            .max()
-            .orElse(0);
-
-        List<String> strategyNames = strategyNameToCorrectRecentDecisionsCountMap.entrySet().stream()
-                .filter(entry -> entry.getValue() == maxCount)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        Collections.shuffle(strategyNames);
-        this.decisionStrategyName = strategyNames.get(0);
+    /**
+     * Decides and records the decision like {@link #decide(Bar, SharedDecisions)}, but leaves attending the
+     * bar to the caller so that attendance of many patrons deciding in parallel can be counted once.
+     */
+    public boolean choose(final Bar bar, final SharedDecisions sharedDecisions, final StepRandom stepRandom) {
+        final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyOrdinals();
+        final DecisionStrategy[] strategiesByOrdinal = this.getStrategiesByOrdinal();
+        long decisionBits = 0L;
+        for (int ordinal = 0; ordinal < strategiesByOrdinal.length; ordinal++) {
+            final RandomStream random = stepRandom.stream(this.getRandomKey(), RandomPurpose.DECISION, ordinal);
+            if (sharedDecisions.decide(strategyOrdinals, ordinal, strategiesByOrdinal[ordinal], bar, memoryProps, random)) {
+                decisionBits |= 1L << ordinal;
+            }
+        }
+
+        final boolean decision = DecisionStrategyOrdinals.decisionOf(decisionBits, strategyOrdinals.ordinalOf(this.decisionStrategyName));
+        this.memory.add(PatronHistoryEvent.of(strategyOrdinals, decisionBits, decision, this.decisionStrategyName));
+        return decision;
+    }
+
+    public boolean selectNewStrategy() {
+        return this.selectNewStrategy(StepRandom.unseeded());
+    }
+
+    /**
+     * Switches to one of the other strategies that were correct most often in recent memory, breaking ties
+     * with a draw from {@code stepRandom}.
+     *
+     * @return whether the strategy changed; it is kept when no other strategy was correct recently
+     */
+    public boolean selectNewStrategy(final StepRandom stepRandom) {
+        this.lastStrategySwitchStep = this.memory.getSteps();
+        final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyOrdinals();
+        final int currentOrdinal = strategyOrdinals.ordinalOf(this.decisionStrategyName);
+
+        final int[] correctRecentDecisionsCounts = new int[strategyOrdinals.size()];
+        for (final PatronHistoryEvent event : this.memory.recent()) {
+            final DecisionStrategyOrdinals eventStrategyOrdinals = event.getStrategyOrdinals();
+            for (int eventOrdinal = 0; eventOrdinal < eventStrategyOrdinals.size(); eventOrdinal++) {
+                final int ordinal = eventStrategyOrdinals == strategyOrdinals
+                        ? eventOrdinal
+                        : strategyOrdinals.ordinalOf(eventStrategyOrdinals.nameOf(eventOrdinal));
+                if (ordinal >= 0 && ordinal != currentOrdinal && event.decisionOf(eventOrdinal) != event.wasOvercrowded()) {
+                    correctRecentDecisionsCounts[ordinal]++;
+                }
+            }
+        }
+
+        final int maxCount = Arrays.stream(correctRecentDecisionsCounts).max().orElse(0);
+        if (maxCount == 0) {
+            return false;
+        }
+        final List<String> strategyNames = IntStream.range(0, correctRecentDecisionsCounts.length)
+                .filter(ordinal -> correctRecentDecisionsCounts[ordinal] > 0 && correctRecentDecisionsCounts[ordinal] == maxCount)
+                .mapToObj(strategyOrdinals::nameOf)
+                .toList();
+
+        final RandomStream random = stepRandom.stream(this.getRandomKey(), RandomPurpose.STRATEGY_SELECTION);
+        this.decisionStrategyName = strategyNames.get(random.nextInt(0, strategyNames.size()));
+        return true;
     }
 
     public boolean shouldReplaceStrategy() {
+        return this.shouldReplaceStrategy(StepRandom.unseeded());
+    }
+
+    public boolean shouldReplaceStrategy(final StepRandom stepRandom) {
         final int validatedPatience = Math.max(this.patience, 0);
         final int validatedLastStrategySwitchStep = Math.max(this.lastStrategySwitchStep, 0);
-        return (this.getHistory().size() - validatedLastStrategySwitchStep >= validatedPatience) &&
-                this.replacementStrategy.decide(this.memoryProps, this.recentHistory());
+        return (this.memory.getSteps() - validatedLastStrategySwitchStep >= validatedPatience) &&
+                this.replacementStrategy.decide(this.memoryProps, this.memory.recent(),
+                        stepRandom.stream(this.getRandomKey(), RandomPurpose.REPLACEMENT));
     }
 
     public void record(final Bar bar) {
-        Optional.ofNullable(Iterables.getLast(this.history, null))
-            .ifPresent(lastEvent -> {
-                lastEvent.setOvercrowded(bar.isOvercrowded());
-                lastEvent.setCorrect(lastEvent.getDecision() != bar.isOvercrowded());
-            });
+        final PatronHistoryEvent lastEvent = this.memory.last();
+        if (lastEvent != null) {
+            lastEvent.record(bar.isOvercrowded());
+            this.historySink.accept(this.id, this.memory.getSteps(), lastEvent);
+        }
+    }
+
+    /**
+     * Writes the state the patron changes as it steps. Remembered events are written over the patron's own
+     * strategy ordinals, so decisions of strategies it does not know are dropped.
+     */
+    public void writeState(final DataOutput output) throws IOException {
+        final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyOrdinals();
+        output.writeUTF(this.id);
+        output.writeUTF(this.decisionStrategyName);
+        output.writeInt(this.lastStrategySwitchStep);
+        output.writeInt(this.memory.getSteps());
+        final List<PatronHistoryEvent> recent = this.memory.recent();
+        final PatronHistoryEvent last = this.memory.last();
+        // Without memory the last event is still kept, so its outcome can be recorded
+        final List<PatronHistoryEvent> remembered = recent.isEmpty() && last != null ? List.of(last) : recent;
+        output.writeInt(remembered.size());
+        for (final PatronHistoryEvent event : remembered) {
+            output.writeLong(event.getStrategyOrdinals() == strategyOrdinals
+                    ? event.getDecisionBits()
+                    : strategyOrdinals.toDecisionBits(event.getStrategyNameToDecisionMap()));
+            output.writeUTF(event.getStrategy());
+            final Boolean overcrowded = event.getOvercrowded();
+            output.writeByte((event.decided() ? EVENT_DECIDED : 0)
+                    | (overcrowded == null ? 0 : EVENT_RECORDED | (overcrowded ? EVENT_OVERCROWDED : 0)));
+        }
+    }
+
+    /**
+     * Reads state written by {@link #writeState(DataOutput)} for the patron with the same id.
+     */
+    public void restoreState(final DataInput input) throws IOException {
+        final String stateId = input.readUTF();
+        if (!stateId.equals(this.id)) {
+            throw new IllegalStateException(String.format("State of patron %s cannot restore patron %s", stateId, this.id));
+        }
+        final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyOrdinals();
+        this.decisionStrategyName = input.readUTF();
+        this.lastStrategySwitchStep = input.readInt();
+        final int steps = input.readInt();
+        final int rememberedCount = input.readInt();
+        final List<PatronHistoryEvent> remembered = new ArrayList<>(rememberedCount);
+        for (int event = 0; event < rememberedCount; event++) {
+            final long decisionBits = input.readLong();
+            final String strategy = input.readUTF();
+            final int flags = input.readByte();
+            final PatronHistoryEvent restored = PatronHistoryEvent.of(strategyOrdinals, decisionBits, (flags & EVENT_DECIDED) != 0, strategy);
+            if ((flags & EVENT_RECORDED) != 0) {
+                restored.record((flags & EVENT_OVERCROWDED) != 0);
+            }
+            remembered.add(restored);
+        }
+        this.memory = PatronMemory.of(this.memoryProps.getMemoryLength(), remembered, steps);
     }
 
     @Override
     public PatronReport generateReport() {
         return PatronReport.builder()
             .id(this.id)
-            .history(this.history)
+            .history(this.historySink.historyOf(this.id))
             .memoryProps(this.memoryProps)
             .patience(this.patience)
             .lastStrategySwitchStep(this.lastStrategySwitchStep)
@@ -118,16 +266,4 @@ public class Patron implements Reportable<PatronReport> {
     private void attendBar(final Bar bar) {
         bar.addPatron();
     }
-
-    private Map<String, Boolean> getDecisionObject(final PatronHistoryEvent event) {
-        return event.getStrategyNameToDecisionMap()
-            .entrySet()
-            .stream()
-            .filter(entry -> !entry.getKey().equals(this.decisionStrategyName))
-            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() != event.getOvercrowded()));
-    }
-
-    private List<PatronHistoryEvent> recentHistory() {
-        return this.history.subList(Math.max(0, this.history.size() - this.memoryProps.getMemoryLength()), this.history.size());
-    }
 }
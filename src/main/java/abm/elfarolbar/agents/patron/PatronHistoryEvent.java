@@ -1,21 +1,125 @@
 package abm.elfarolbar.agents.patron;
 
-import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import java.util.Map;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 
-@Builder(toBuilder = true)
-@Data
+/**
+ * One step of a patron's history. The decisions of every strategy are kept as a bitmask over
+ * {@link DecisionStrategyOrdinals} and the decision and outcome as bit flags; the map and boxed views are
+ * only built on demand, for reporting.
+ */
+@EqualsAndHashCode
+@ToString
+@JsonPropertyOrder({"strategyNameToDecisionMap", "decision", "strategy", "overcrowded", "correct"})
 public class PatronHistoryEvent {
-    @NonNull
-    @Builder.Default
-    private final Map<String, Boolean> strategyNameToDecisionMap = ImmutableMap.of();
-    @NonNull
-    private final Boolean decision;
-    @NonNull
+    private static final int DECISION = 1;
+    private static final int OVERCROWDED_KNOWN = 1 << 1;
+    private static final int OVERCROWDED = 1 << 2;
+    private static final int CORRECT_KNOWN = 1 << 3;
+    private static final int CORRECT = 1 << 4;
+
+    @Getter(onMethod_ = @JsonIgnore)
+    @ToString.Exclude
+    private final DecisionStrategyOrdinals strategyOrdinals;
+    @Getter(onMethod_ = @JsonIgnore)
+    @ToString.Exclude
+    private final long decisionBits;
+    @Getter
     private final String strategy;
-    private Boolean overcrowded;
-    private Boolean correct;
+    private byte flags;
+
+    private PatronHistoryEvent(final DecisionStrategyOrdinals strategyOrdinals,
+                               final long decisionBits,
+                               final String strategy,
+                               final int flags) {
+        this.strategyOrdinals = strategyOrdinals;
+        this.decisionBits = decisionBits;
+        this.strategy = strategy;
+        this.flags = (byte) flags;
+    }
+
+    @Builder
+    private PatronHistoryEvent(final Map<String, Boolean> strategyNameToDecisionMap,
+                               @NonNull final Boolean decision,
+                               @NonNull final String strategy,
+                               final Boolean overcrowded,
+                               final Boolean correct) {
+        this.strategyOrdinals = strategyNameToDecisionMap == null
+                ? DecisionStrategyOrdinals.empty()
+                : DecisionStrategyOrdinals.of(strategyNameToDecisionMap.keySet());
+        this.decisionBits = strategyNameToDecisionMap == null ? 0L : this.strategyOrdinals.toDecisionBits(strategyNameToDecisionMap);
+        this.strategy = strategy;
+        this.flags = (byte) ((decision ? DECISION : 0)
+                | (overcrowded == null ? 0 : OVERCROWDED_KNOWN | (overcrowded ? OVERCROWDED : 0))
+                | (correct == null ? 0 : CORRECT_KNOWN | (correct ? CORRECT : 0)));
+    }
+
+    /**
+     * Creates the event of a step that has not been recorded yet.
+     */
+    public static PatronHistoryEvent of(final DecisionStrategyOrdinals strategyOrdinals,
+                                        final long decisionBits,
+                                        final boolean decision,
+                                        final String strategy) {
+        return new PatronHistoryEvent(strategyOrdinals, decisionBits, strategy, decision ? DECISION : 0);
+    }
+
+    /**
+     * Records the outcome of the step: whether the bar was overcrowded, and so whether the decision was correct.
+     */
+    public void record(final boolean overcrowded) {
+        final boolean correct = this.decided() != overcrowded;
+        this.flags = (byte) ((this.flags & DECISION)
+                | OVERCROWDED_KNOWN | (overcrowded ? OVERCROWDED : 0)
+                | CORRECT_KNOWN | (correct ? CORRECT : 0));
+    }
+
+    @ToString.Include
+    public Map<String, Boolean> getStrategyNameToDecisionMap() {
+        return this.strategyOrdinals.toDecisionMap(this.decisionBits);
+    }
+
+    @ToString.Include
+    public Boolean getDecision() {
+        return this.decided();
+    }
+
+    @ToString.Include
+    public Boolean getOvercrowded() {
+        return this.has(OVERCROWDED_KNOWN) ? this.has(OVERCROWDED) : null;
+    }
+
+    @ToString.Include
+    public Boolean getCorrect() {
+        return this.has(CORRECT_KNOWN) ? this.has(CORRECT) : null;
+    }
+
+    /**
+     * The decision of the strategy with the given ordinal in {@link #getStrategyOrdinals()}.
+     */
+    public boolean decisionOf(final int ordinal) {
+        return DecisionStrategyOrdinals.decisionOf(this.decisionBits, ordinal);
+    }
+
+    public boolean decided() {
+        return this.has(DECISION);
+    }
+
+    public boolean wasOvercrowded() {
+        return this.has(OVERCROWDED);
+    }
+
+    public boolean wasCorrect() {
+        return this.has(CORRECT);
+    }
+
+    private boolean has(final int flag) {
+        return (this.flags & flag) != 0;
+    }
 }
@@ -0,0 +1,74 @@
+package abm.elfarolbar.agents.patron;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * Receives every completed {@link PatronHistoryEvent} of a simulation, so that full patron histories can be
+ * kept or streamed elsewhere while patrons only remember their last {@code memoryLength} steps. Events of
+ * different patrons may be accepted concurrently.
+ */
+public interface PatronHistorySink extends AutoCloseable {
+    PatronHistorySink DISCARD = new PatronHistorySink() {
+        @Override
+        public void accept(final String patronId, final int step, final PatronHistoryEvent event) {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    static PatronHistorySink discard() {
+        return DISCARD;
+    }
+
+    /**
+     * Accepts the event of a patron once the outcome of its step is recorded; steps count from one.
+     */
+    void accept(final String patronId, final int step, final PatronHistoryEvent event);
+
+    /**
+     * Whether events are used at all, letting callers skip building them.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Whether the events of one patron are used, letting callers skip building them.
+     */
+    default boolean isEnabledFor(final String patronId) {
+        return this.isEnabled();
+    }
+
+    /**
+     * The history of a patron to include in its report, empty unless this sink retains histories.
+     */
+    default List<PatronHistoryEvent> historyOf(final String patronId) {
+        return ImmutableList.of();
+    }
+
+    /**
+     * Called once every event of a step has been accepted and before the next step starts; nothing is
+     * accepted concurrently with it.
+     */
+    default void endStep(final int step) {
+    }
+
+    /**
+     * Called before any event is accepted when the simulation is restored from a snapshot taken after
+     * {@code completedSteps} steps, returning whether the history of those steps is still available.
+     */
+    default boolean resume(final int completedSteps) {
+        return false;
+    }
+
+    /**
+     * Flushes and releases anything held for writing once the simulation is over.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,107 @@
+package abm.elfarolbar.agents.patron;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The last {@code memoryLength} events of a patron's history in a fixed-size ring, together with the number
+ * of steps the patron has lived through. Older events are overwritten; a {@link PatronHistorySink} receives
+ * every event when full histories are wanted.
+ */
+public class PatronMemory {
+    private final int memoryLength;
+    private final PatronHistoryEvent[] events;
+    private int steps;
+
+    private PatronMemory(final int memoryLength) {
+        this.memoryLength = Math.max(memoryLength, 0);
+        // The last event is kept even without memory so its outcome can still be recorded
+        this.events = new PatronHistoryEvent[Math.max(this.memoryLength, 1)];
+    }
+
+    /**
+     * A memory of {@code memoryLength} events holding the end of {@code history}, after
+     * {@code history.size()} steps.
+     */
+    public static PatronMemory of(final int memoryLength, final List<PatronHistoryEvent> history) {
+        return of(memoryLength, history, history.size());
+    }
+
+    /**
+     * A memory of {@code memoryLength} events holding the end of {@code history}, the events of the latest of
+     * {@code steps} steps.
+     */
+    public static PatronMemory of(final int memoryLength, final List<PatronHistoryEvent> history, final int steps) {
+        if (steps < history.size()) {
+            throw new IllegalArgumentException(String.format("%d steps cannot have %d events", steps, history.size()));
+        }
+        final PatronMemory memory = new PatronMemory(memoryLength);
+        final int remembered = Math.min(history.size(), memory.events.length);
+        memory.steps = steps - remembered;
+        history.subList(history.size() - remembered, history.size()).forEach(memory::add);
+        return memory;
+    }
+
+    public void add(final PatronHistoryEvent event) {
+        this.events[this.steps % this.events.length] = event;
+        this.steps++;
+    }
+
+    /**
+     * The number of events added since the patron's first step, including those no longer remembered.
+     */
+    public int getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * The event of the latest step, or {@code null} before the first step.
+     */
+    public PatronHistoryEvent last() {
+        return this.steps == 0 ? null : this.events[(this.steps - 1) % this.events.length];
+    }
+
+    /**
+     * A read-only view of the remembered events, oldest first.
+     */
+    public List<PatronHistoryEvent> recent() {
+        final int size = Math.min(this.memoryLength, this.steps);
+        final int start = this.steps - size;
+        return new AbstractList<>() {
+            @Override
+            public PatronHistoryEvent get(final int index) {
+                Objects.checkIndex(index, size);
+                return PatronMemory.this.events[(start + index) % PatronMemory.this.events.length];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PatronMemory otherMemory)) {
+            return false;
+        }
+        return this.memoryLength == otherMemory.memoryLength
+                && this.steps == otherMemory.steps
+                && this.recent().equals(otherMemory.recent());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.memoryLength, this.steps, this.recent());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PatronMemory(steps=%d, recent=%s)", this.steps, this.recent());
+    }
+}
@@ -0,0 +1,47 @@
+package abm.elfarolbar.agents.patron;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the full history of every patron, or of a sample of patrons, in memory so it can be reported, as
+ * patrons did before they only remembered recent steps.
+ */
+public class RetainedPatronHistory implements PatronHistorySink {
+    private final Map<String, List<PatronHistoryEvent>> histories = new ConcurrentHashMap<>();
+    /**
+     * The patrons whose histories are kept, or {@code null} for every patron.
+     */
+    private final Set<String> retainedPatronIds;
+
+    public RetainedPatronHistory() {
+        this(null);
+    }
+
+    public RetainedPatronHistory(final Set<String> retainedPatronIds) {
+        this.retainedPatronIds = retainedPatronIds;
+    }
+
+    @Override
+    public void accept(final String patronId, final int step, final PatronHistoryEvent event) {
+        if (this.isEnabledFor(patronId)) {
+            this.histories.computeIfAbsent(patronId, id -> Lists.newArrayList()).add(event);
+        }
+    }
+
+    @Override
+    public boolean isEnabledFor(final String patronId) {
+        return this.retainedPatronIds == null || this.retainedPatronIds.contains(patronId);
+    }
+
+    @Override
+    public List<PatronHistoryEvent> historyOf(final String patronId) {
+        final List<PatronHistoryEvent> history = this.histories.get(patronId);
+        return history == null ? ImmutableList.of() : Collections.unmodifiableList(history);
+    }
+}
@@ -0,0 +1,549 @@
+package abm.elfarolbar.agents.population;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronHistoryEvent;
+import abm.elfarolbar.agents.patron.PatronHistorySink;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.random.RandomStream;
+import abm.elfarolbar.simulations.PatronSetupDetails;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
+import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Struct-of-arrays population: patron state lives in parallel primitive arrays indexed by patron, and
+ * strategies, replacement strategies and memory props are referenced by index into small shared tables.
+ *
+ * <p>Every step writes one column holding each patron's decisions for all strategies as a bitmask
+ * over {@link DecisionStrategyOrdinals}, the same encoding as {@link PatronHistoryEvent}, and whether the
+ * patron attended. Only the last {@code maxMemoryLength + 1} columns are kept, as a ring reused step after
+ * step so a run allocates no columns past the first few steps, used as a rolling window to
+ * keep a running count of recent failures per patron and to pick new strategies; full patron histories go
+ * to a {@link PatronHistorySink} as each step is recorded.
+ *
+ * <p>Behaves exactly like a {@link PatronListPopulation} of equivalently configured patrons.
+ */
+public class PatronArrayPopulation implements Population {
+    /**
+     * Patrons processed together by one task; a multiple of 64 so no two tasks write the same word of an
+     * attendance bitset.
+     */
+    private static final int CHUNK_SIZE = 64 * 64;
+
+    private static final byte SHARED_UNKNOWN = -1;
+    private static final byte SHARED_FALSE = 0;
+    private static final byte SHARED_TRUE = 1;
+
+    private static final byte COLUMN_UNRECORDED = -1;
+    private static final byte COLUMN_NOT_OVERCROWDED = 0;
+    private static final byte COLUMN_OVERCROWDED = 1;
+
+    private final DecisionStrategyOrdinals strategyOrdinals;
+    private final DecisionStrategy[] decisionStrategies;
+    private final Map<String, DecisionStrategy> decisionStrategiesMap;
+    private final ReplacementStrategy[] replacementStrategies;
+    private final PatronMemoryProps[] memoryPropsTable;
+    private final Set<PatronMemoryProps> memoryPropsSet;
+    private final PatronHistorySink historySink;
+
+    private final int size;
+    private final long[] idMostSignificantBits;
+    private final long[] idLeastSignificantBits;
+    private final long[] randomKeys;
+    private final int[] patronStrategyOrdinals;
+    private final int[] lastStrategySwitchSteps;
+    private final int[] patience;
+    private final int[] memoryPropsIndices;
+    private final int[] replacementStrategyIndices;
+    private final int[] recentFailures;
+
+    private final StepColumn[] recentColumns;
+    private int steps;
+
+    private PatronArrayPopulation(final List<DecisionStrategy> decisionStrategies,
+                                  final List<ReplacementStrategy> replacementStrategies,
+                                  final List<PatronMemoryProps> memoryPropsTable,
+                                  final PatronHistorySink historySink,
+                                  final int size) {
+        this.decisionStrategiesMap = decisionStrategies.stream()
+                .collect(Collectors.toMap(DecisionStrategy::getName, strategy -> strategy, (first, second) -> first, LinkedHashMap::new));
+        this.strategyOrdinals = DecisionStrategyOrdinals.of(this.decisionStrategiesMap.keySet());
+        this.decisionStrategies = IntStream.range(0, this.strategyOrdinals.size())
+                .mapToObj(ordinal -> this.decisionStrategiesMap.get(this.strategyOrdinals.nameOf(ordinal)))
+                .toArray(DecisionStrategy[]::new);
+        this.replacementStrategies = replacementStrategies.toArray(new ReplacementStrategy[0]);
+        this.memoryPropsTable = memoryPropsTable.toArray(new PatronMemoryProps[0]);
+        this.memoryPropsSet = ImmutableSet.copyOf(memoryPropsTable);
+        this.historySink = historySink;
+
+        this.size = size;
+        this.idMostSignificantBits = new long[size];
+        this.idLeastSignificantBits = new long[size];
+        this.randomKeys = new long[size];
+        this.patronStrategyOrdinals = new int[size];
+        this.lastStrategySwitchSteps = new int[size];
+        this.patience = new int[size];
+        this.memoryPropsIndices = new int[size];
+        this.replacementStrategyIndices = new int[size];
+        this.recentFailures = new int[size];
+
+        final int maxMemoryLength = memoryPropsTable.stream()
+                .mapToInt(PatronMemoryProps::getMemoryLength)
+                .max()
+                .orElse(0);
+        this.recentColumns = new StepColumn[Math.max(maxMemoryLength, 0) + 1];
+    }
+
+    /**
+     * Creates the population a {@link abm.elfarolbar.simulations.SimulationGenerator} would create as
+     * {@link Patron} objects: {@code count} patrons per setup details, in order, all sharing the given memory
+     * props and the given patience, with ids drawn from {@code random} so both layouts give patrons the same
+     * ids and random draws, and every recorded event passed to {@code historySink}.
+     */
+    public static PatronArrayPopulation create(final List<DecisionStrategy> decisionStrategies,
+                                               final Map<String, ReplacementStrategy> replacementStrategies,
+                                               final List<PatronSetupDetails> patronSetupDetailsList,
+                                               final PatronMemoryProps memoryProps,
+                                               final int patience,
+                                               final CounterRandom random,
+                                               final PatronHistorySink historySink) {
+        final List<ReplacementStrategy> replacementStrategyList = ImmutableList.copyOf(replacementStrategies.values());
+        final int size = patronSetupDetailsList.stream()
+                .mapToInt(PatronSetupDetails::getCount)
+                .sum();
+        final PatronArrayPopulation population = new PatronArrayPopulation(
+                decisionStrategies, replacementStrategyList, ImmutableList.of(memoryProps), historySink, size);
+
+        int patron = 0;
+        for (final PatronSetupDetails patronSetupDetails : patronSetupDetailsList) {
+            final int strategyOrdinal = population.strategyOrdinals.ordinalOf(patronSetupDetails.getDecisionStrategyName());
+            final int replacementStrategyIndex = replacementStrategyList.indexOf(
+                    replacementStrategies.get(patronSetupDetails.getReplacementStrategyName()));
+            if (strategyOrdinal < 0 || replacementStrategyIndex < 0) {
+                throw new IllegalArgumentException(String.format("Unknown strategies in patron setup details %s", patronSetupDetails));
+            }
+            for (int count = 0; count < patronSetupDetails.getCount(); count++, patron++) {
+                final UUID id = random.uuid(RandomPurpose.PATRON_ID, patron);
+                population.randomKeys[patron] = CounterRandom.keyOf(id.toString());
+                population.idMostSignificantBits[patron] = id.getMostSignificantBits();
+                population.idLeastSignificantBits[patron] = id.getLeastSignificantBits();
+                population.patronStrategyOrdinals[patron] = strategyOrdinal;
+                population.patience[patron] = patience;
+                population.replacementStrategyIndices[patron] = replacementStrategyIndex;
+            }
+        }
+        return population;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Set<PatronMemoryProps> getMemoryPropsSet() {
+        return this.memoryPropsSet;
+    }
+
+    @Override
+    public void decide(final Bar bar, final SharedDecisions sharedDecisions, final StrategyUsage strategyUsage, final StepRandom stepRandom) {
+        final StepColumn column = this.nextColumn();
+        final byte[][] sharedDecisionTable = this.sharedDecisionTable(sharedDecisions);
+        final int[][] chunkUsers = new int[this.chunkCount()][];
+
+        final int attendance = IntStream.range(0, this.chunkCount())
+                .parallel()
+                .map(chunk -> {
+                    chunkUsers[chunk] = new int[this.decisionStrategies.length];
+                    return this.decideChunk(chunk, bar, column, sharedDecisionTable, chunkUsers[chunk], stepRandom);
+                })
+                .sum();
+
+        bar.addPatrons(attendance);
+        for (int ordinal = 0; ordinal < this.decisionStrategies.length; ordinal++) {
+            int users = 0;
+            for (final int[] usersInChunk : chunkUsers) {
+                users += usersInChunk[ordinal];
+            }
+            strategyUsage.select(this.strategyOrdinals, ordinal, users);
+        }
+    }
+
+    @Override
+    public void record(final Bar bar) {
+        final StepColumn column = this.recordColumn(bar);
+        if (column == null) {
+            return;
+        }
+        IntStream.range(0, this.chunkCount())
+                .parallel()
+                .forEach(chunk -> {
+                    for (int patron = chunkStart(chunk); patron < this.chunkEnd(chunk); patron++) {
+                        this.record(patron, column);
+                    }
+                });
+    }
+
+    @Override
+    public int replaceStrategies(final StepRandom stepRandom) {
+        return IntStream.range(0, this.chunkCount())
+                .parallel()
+                .map(chunk -> {
+                    int switches = 0;
+                    for (int patron = chunkStart(chunk); patron < this.chunkEnd(chunk); patron++) {
+                        switches += this.replaceStrategy(patron, stepRandom) ? 1 : 0;
+                    }
+                    return switches;
+                })
+                .sum();
+    }
+
+    @Override
+    public int recordAndReplaceStrategies(final Bar bar, final StepRandom stepRandom) {
+        final StepColumn column = this.recordColumn(bar);
+        return IntStream.range(0, this.chunkCount())
+                .parallel()
+                .map(chunk -> {
+                    int switches = 0;
+                    for (int patron = chunkStart(chunk); patron < this.chunkEnd(chunk); patron++) {
+                        if (column != null) {
+                            this.record(patron, column);
+                        }
+                        switches += this.replaceStrategy(patron, stepRandom) ? 1 : 0;
+                    }
+                    return switches;
+                })
+                .sum();
+    }
+
+    /**
+     * Writes the per-patron arrays that change as patrons step, followed by the columns still in the rolling
+     * window.
+     */
+    @Override
+    public void writeState(final DataOutput output) throws IOException {
+        output.writeInt(this.size);
+        output.writeInt(this.steps);
+        for (int patron = 0; patron < this.size; patron++) {
+            output.writeByte(this.patronStrategyOrdinals[patron]);
+            output.writeInt(this.lastStrategySwitchSteps[patron]);
+            output.writeInt(this.recentFailures[patron]);
+        }
+        for (int step = Math.max(0, this.steps - this.recentColumns.length); step < this.steps; step++) {
+            final StepColumn column = this.columnAt(step);
+            for (int patron = 0; patron < this.size; patron++) {
+                output.writeLong(column.strategyDecisions[patron]);
+            }
+            output.write(column.strategyOrdinals);
+            for (final long attended : column.attended) {
+                output.writeLong(attended);
+            }
+            output.writeByte(column.overcrowded == null ? COLUMN_UNRECORDED : column.overcrowded ? COLUMN_OVERCROWDED : COLUMN_NOT_OVERCROWDED);
+        }
+    }
+
+    @Override
+    public void restoreState(final DataInput input) throws IOException {
+        final int stateSize = input.readInt();
+        if (stateSize != this.size) {
+            throw new IllegalStateException(String.format("State of %d patrons cannot restore %d patrons", stateSize, this.size));
+        }
+        this.steps = input.readInt();
+        for (int patron = 0; patron < this.size; patron++) {
+            this.patronStrategyOrdinals[patron] = input.readUnsignedByte();
+            this.lastStrategySwitchSteps[patron] = input.readInt();
+            this.recentFailures[patron] = input.readInt();
+        }
+        for (int step = Math.max(0, this.steps - this.recentColumns.length); step < this.steps; step++) {
+            final StepColumn column = this.clearedColumnAt(step);
+            for (int patron = 0; patron < this.size; patron++) {
+                column.strategyDecisions[patron] = input.readLong();
+            }
+            input.readFully(column.strategyOrdinals);
+            for (int word = 0; word < column.attended.length; word++) {
+                column.attended[word] = input.readLong();
+            }
+            final byte overcrowded = input.readByte();
+            column.overcrowded = overcrowded == COLUMN_UNRECORDED ? null : overcrowded == COLUMN_OVERCROWDED;
+        }
+    }
+
+    @Override
+    public List<Patron> getPatrons() {
+        return IntStream.range(0, this.size)
+                .mapToObj(patron -> Patron.builder()
+                        .id(this.idOf(patron))
+                        .decisionStrategies(this.decisionStrategiesMap)
+                        .decisionStrategyName(this.strategyOrdinals.nameOf(this.patronStrategyOrdinals[patron]))
+                        .replacementStrategy(this.replacementStrategies[this.replacementStrategyIndices[patron]])
+                        .memoryProps(this.memoryPropsTable[this.memoryPropsIndices[patron]])
+                        .history(this.recentHistoryOf(patron))
+                        .steps(this.steps)
+                        .patience(this.patience[patron])
+                        .lastStrategySwitchStep(this.lastStrategySwitchSteps[patron])
+                        .historySink(this.historySink)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<PatronReport> streamReports() {
+        return IntStream.range(0, this.size)
+                .mapToObj(patron -> PatronReport.builder()
+                        .id(this.idOf(patron))
+                        .history(this.historySink.historyOf(this.idOf(patron)))
+                        .memoryProps(this.memoryPropsTable[this.memoryPropsIndices[patron]])
+                        .patience(this.patience[patron])
+                        .lastStrategySwitchStep(this.lastStrategySwitchSteps[patron])
+                        .build());
+    }
+
+    /**
+     * Marks the column of the latest step as overcrowded or not, or returns {@code null} before the first step.
+     */
+    private StepColumn recordColumn(final Bar bar) {
+        if (this.steps == 0) {
+            return null;
+        }
+        final StepColumn column = this.columnAt(this.steps - 1);
+        column.overcrowded = bar.isOvercrowded();
+        return column;
+    }
+
+    private void record(final int patron, final StepColumn column) {
+        if (this.historySink.isEnabled()) {
+            final String id = this.idOf(patron);
+            if (this.historySink.isEnabledFor(id)) {
+                this.historySink.accept(id, this.steps, this.eventOf(column, patron));
+            }
+        }
+        final int memoryLength = this.memoryLengthOf(patron);
+        if (memoryLength <= 0) {
+            return;
+        }
+        if (column.failed(patron)) {
+            this.recentFailures[patron]++;
+        }
+        final int evictedStep = this.steps - 1 - memoryLength;
+        if (evictedStep >= 0 && this.columnAt(evictedStep).failed(patron)) {
+            this.recentFailures[patron]--;
+        }
+    }
+
+    /**
+     * Replaces the strategy of a patron that lost patience with it, returning whether it changed.
+     */
+    private boolean replaceStrategy(final int patron, final StepRandom stepRandom) {
+        return this.shouldReplaceStrategy(patron, stepRandom) && this.selectNewStrategy(patron, stepRandom);
+    }
+
+    private int decideChunk(final int chunk,
+                            final Bar bar,
+                            final StepColumn column,
+                            final byte[][] sharedDecisionTable,
+                            final int[] users,
+                            final StepRandom stepRandom) {
+        int attendance = 0;
+        for (int patron = chunkStart(chunk); patron < this.chunkEnd(chunk); patron++) {
+            final int memoryPropsIndex = this.memoryPropsIndices[patron];
+            final PatronMemoryProps memoryProps = this.memoryPropsTable[memoryPropsIndex];
+            final byte[] sharedDecisionsForMemoryProps = sharedDecisionTable[memoryPropsIndex];
+
+            long decisions = 0L;
+            for (int ordinal = 0; ordinal < this.decisionStrategies.length; ordinal++) {
+                final byte sharedDecision = sharedDecisionsForMemoryProps[ordinal];
+                final boolean decision = sharedDecision == SHARED_UNKNOWN
+                        ? this.decisionStrategies[ordinal].decide(bar, memoryProps,
+                                stepRandom.stream(this.randomKeys[patron], RandomPurpose.DECISION, ordinal))
+                        : sharedDecision == SHARED_TRUE;
+                if (decision) {
+                    decisions |= 1L << ordinal;
+                }
+            }
+
+            final int strategyOrdinal = this.patronStrategyOrdinals[patron];
+            users[strategyOrdinal]++;
+            column.strategyDecisions[patron] = decisions;
+            column.strategyOrdinals[patron] = (byte) strategyOrdinal;
+            if ((decisions & (1L << strategyOrdinal)) != 0) {
+                column.attended[patron >>> 6] |= 1L << patron;
+                attendance++;
+            }
+        }
+        return attendance;
+    }
+
+    private boolean shouldReplaceStrategy(final int patron, final StepRandom stepRandom) {
+        final int validatedPatience = Math.max(this.patience[patron], 0);
+        final int validatedLastStrategySwitchStep = Math.max(this.lastStrategySwitchSteps[patron], 0);
+        if (this.steps - validatedLastStrategySwitchStep < validatedPatience) {
+            return false;
+        }
+        final int recentSteps = Math.min(Math.max(this.memoryLengthOf(patron), 0), this.steps);
+        final boolean lastCorrect = recentSteps > 0 && !this.columnAt(this.steps - 1).failed(patron);
+        return this.replacementStrategies[this.replacementStrategyIndices[patron]]
+                .decide(this.memoryPropsOf(patron), recentSteps, this.recentFailures[patron], lastCorrect,
+                        stepRandom.stream(this.randomKeys[patron], RandomPurpose.REPLACEMENT));
+    }
+
+    private boolean selectNewStrategy(final int patron, final StepRandom stepRandom) {
+        this.lastStrategySwitchSteps[patron] = this.steps;
+        final int currentOrdinal = this.patronStrategyOrdinals[patron];
+        final int recentSteps = Math.min(Math.max(this.memoryLengthOf(patron), 0), this.steps);
+
+        final int[] correctCounts = new int[this.decisionStrategies.length];
+        for (int step = this.steps - recentSteps; step < this.steps; step++) {
+            final StepColumn column = this.columnAt(step);
+            final long decisions = column.strategyDecisions[patron];
+            for (int ordinal = 0; ordinal < this.decisionStrategies.length; ordinal++) {
+                if (ordinal != currentOrdinal && ((decisions & (1L << ordinal)) != 0) != column.overcrowded) {
+                    correctCounts[ordinal]++;
+                }
+            }
+        }
+
+        final int maxCount = Arrays.stream(correctCounts).max().orElse(0);
+        if (maxCount == 0) {
+            return false;
+        }
+        final int[] candidates = IntStream.range(0, correctCounts.length)
+                .filter(ordinal -> correctCounts[ordinal] == maxCount)
+                .toArray();
+        final RandomStream random = stepRandom.stream(this.randomKeys[patron], RandomPurpose.STRATEGY_SELECTION);
+        this.patronStrategyOrdinals[patron] = candidates[random.nextInt(0, candidates.length)];
+        return true;
+    }
+
+    private List<PatronHistoryEvent> recentHistoryOf(final int patron) {
+        final int recentSteps = Math.min(Math.max(this.memoryLengthOf(patron), 0), this.steps);
+        final List<PatronHistoryEvent> history = Lists.newArrayListWithCapacity(recentSteps);
+        for (int step = this.steps - recentSteps; step < this.steps; step++) {
+            history.add(this.eventOf(this.columnAt(step), patron));
+        }
+        return history;
+    }
+
+    private PatronHistoryEvent eventOf(final StepColumn column, final int patron) {
+        final PatronHistoryEvent event = PatronHistoryEvent.of(this.strategyOrdinals, column.strategyDecisions[patron],
+                column.attended(patron), this.strategyOrdinals.nameOf(column.strategyOrdinals[patron]));
+        if (column.overcrowded != null) {
+            event.record(column.overcrowded);
+        }
+        return event;
+    }
+
+    private byte[][] sharedDecisionTable(final SharedDecisions sharedDecisions) {
+        final byte[][] table = new byte[this.memoryPropsTable.length][this.decisionStrategies.length];
+        for (int memoryPropsIndex = 0; memoryPropsIndex < this.memoryPropsTable.length; memoryPropsIndex++) {
+            for (int ordinal = 0; ordinal < this.decisionStrategies.length; ordinal++) {
+                final Boolean sharedDecision = sharedDecisions.get(this.strategyOrdinals, ordinal, this.memoryPropsTable[memoryPropsIndex]);
+                table[memoryPropsIndex][ordinal] = sharedDecision == null
+                        ? SHARED_UNKNOWN
+                        : sharedDecision ? SHARED_TRUE : SHARED_FALSE;
+            }
+        }
+        return table;
+    }
+
+    private StepColumn nextColumn() {
+        final StepColumn column = this.clearedColumnAt(this.steps);
+        this.steps++;
+        return column;
+    }
+
+    /**
+     * The column of the ring that holds {@code step}, cleared of the step it held before and allocated the
+     * first time the slot is used.
+     */
+    private StepColumn clearedColumnAt(final int step) {
+        final int slot = step % this.recentColumns.length;
+        if (this.recentColumns[slot] == null) {
+            this.recentColumns[slot] = new StepColumn(this.size);
+        } else {
+            this.recentColumns[slot].clear();
+        }
+        return this.recentColumns[slot];
+    }
+
+    private StepColumn columnAt(final int step) {
+        return this.recentColumns[step % this.recentColumns.length];
+    }
+
+    private PatronMemoryProps memoryPropsOf(final int patron) {
+        return this.memoryPropsTable[this.memoryPropsIndices[patron]];
+    }
+
+    private int memoryLengthOf(final int patron) {
+        return this.memoryPropsOf(patron).getMemoryLength();
+    }
+
+    private String idOf(final int patron) {
+        return new UUID(this.idMostSignificantBits[patron], this.idLeastSignificantBits[patron]).toString();
+    }
+
+    private int chunkCount() {
+        return (this.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static int chunkStart(final int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private int chunkEnd(final int chunk) {
+        return Math.min(chunkStart(chunk) + CHUNK_SIZE, this.size);
+    }
+
+    /**
+     * Everything recorded about all patrons in one step.
+     */
+    private static final class StepColumn {
+        private final long[] strategyDecisions;
+        private final byte[] strategyOrdinals;
+        private final long[] attended;
+        private Boolean overcrowded;
+
+        private StepColumn(final int size) {
+            this.strategyDecisions = new long[size];
+            this.strategyOrdinals = new byte[size];
+            this.attended = new long[(size + 63) >>> 6];
+        }
+
+        /**
+         * Clears what a step only sets for some patrons; decisions and strategies are written for every patron.
+         */
+        private void clear() {
+            Arrays.fill(this.attended, 0L);
+            this.overcrowded = null;
+        }
+
+        private boolean attended(final int patron) {
+            return (this.attended[patron >>> 6] & (1L << patron)) != 0;
+        }
+
+        private boolean failed(final int patron) {
+            return this.attended(patron) == this.overcrowded;
+        }
+    }
+}
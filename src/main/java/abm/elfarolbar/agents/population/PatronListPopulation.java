@@ -0,0 +1,117 @@
+package abm.elfarolbar.agents.population;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public class PatronListPopulation implements Population {
+    @NonNull
+    private final List<Patron> patrons;
+
+    @Getter(lazy = true)
+    private final Set<PatronMemoryProps> memoryPropsSet = this.patrons.stream()
+            .map(Patron::getMemoryProps)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+
+    @Override
+    public int size() {
+        return this.patrons.size();
+    }
+
+    @Override
+    public void decide(final Bar bar, final SharedDecisions sharedDecisions, final StrategyUsage strategyUsage, final StepRandom stepRandom) {
+        final PartialCounts counts = this.patrons.parallelStream()
+                .collect(() -> new PartialCounts(strategyUsage.partial()),
+                        (partialCounts, patron) -> partialCounts.add(patron, bar, sharedDecisions, stepRandom),
+                        PartialCounts::merge);
+        bar.addPatrons(counts.attendance);
+        strategyUsage.merge(counts.strategyUsage);
+    }
+
+    @Override
+    public void record(final Bar bar) {
+        this.patrons.parallelStream()
+                .forEach(patron -> patron.record(bar));
+    }
+
+    @Override
+    public int replaceStrategies(final StepRandom stepRandom) {
+        return this.patrons.parallelStream()
+                .mapToInt(patron -> patron.shouldReplaceStrategy(stepRandom) && patron.selectNewStrategy(stepRandom) ? 1 : 0)
+                .sum();
+    }
+
+    @Override
+    public int recordAndReplaceStrategies(final Bar bar, final StepRandom stepRandom) {
+        return this.patrons.parallelStream()
+                .mapToInt(patron -> {
+                    patron.record(bar);
+                    return patron.shouldReplaceStrategy(stepRandom) && patron.selectNewStrategy(stepRandom) ? 1 : 0;
+                })
+                .sum();
+    }
+
+    @Override
+    public void writeState(final DataOutput output) throws IOException {
+        output.writeInt(this.patrons.size());
+        for (final Patron patron : this.patrons) {
+            patron.writeState(output);
+        }
+    }
+
+    @Override
+    public void restoreState(final DataInput input) throws IOException {
+        final int size = input.readInt();
+        if (size != this.patrons.size()) {
+            throw new IllegalStateException(String.format("State of %d patrons cannot restore %d patrons", size, this.patrons.size()));
+        }
+        for (final Patron patron : this.patrons) {
+            patron.restoreState(input);
+        }
+    }
+
+    @Override
+    public Stream<PatronReport> streamReports() {
+        return this.patrons.stream()
+                .map(Patron::generateReport);
+    }
+
+    /**
+     * Attendance and strategy usage of the patrons one worker decided for.
+     */
+    @RequiredArgsConstructor
+    private static class PartialCounts {
+        private final StrategyUsage strategyUsage;
+        private int attendance;
+
+        private void add(final Patron patron, final Bar bar, final SharedDecisions sharedDecisions, final StepRandom stepRandom) {
+            this.strategyUsage.select(patron.getDecisionStrategyName());
+            if (patron.choose(bar, sharedDecisions, stepRandom)) {
+                this.attendance++;
+            }
+        }
+
+        private void merge(final PartialCounts other) {
+            this.strategyUsage.merge(other.strategyUsage);
+            this.attendance += other.attendance;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package abm.elfarolbar.agents.population;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.simulations.reporting.Reportable;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The patrons of a simulation and the per-step phases the simulation drives them through.
+ */
+public interface Population extends Reportable<List<PatronReport>> {
+    int size();
+
+    Set<PatronMemoryProps> getMemoryPropsSet();
+
+    /**
+     * The patrons of this population; layouts that do not hold {@link Patron} objects build detached
+     * snapshots of their current state.
+     */
+    List<Patron> getPatrons();
+
+    /**
+     * Has every patron decide whether to attend the bar, adds the attendance to the bar and tallies the
+     * strategies the patrons used into {@code strategyUsage}.
+     */
+    void decide(final Bar bar, final SharedDecisions sharedDecisions, final StrategyUsage strategyUsage, final StepRandom stepRandom);
+
+    void record(final Bar bar);
+
+    /**
+     * Has the patrons that lost patience with their strategy select a new one.
+     *
+     * @return the patrons whose strategy changed
+     */
+    int replaceStrategies(final StepRandom stepRandom);
+
+    /**
+     * Records the outcome of the step and replaces strategies, like {@link #record(Bar)} followed by
+     * {@link #replaceStrategies(StepRandom)}, but in a single pass where the layout allows it.
+     *
+     * @return the patrons whose strategy changed
+     */
+    default int recordAndReplaceStrategies(final Bar bar, final StepRandom stepRandom) {
+        this.record(bar);
+        return this.replaceStrategies(stepRandom);
+    }
+
+    /**
+     * The reports of the patrons, each generated only as the stream reaches it, so a report can be written
+     * without holding the reports of the whole population.
+     */
+    Stream<PatronReport> streamReports();
+
+    @Override
+    default List<PatronReport> generateReport() {
+        return this.streamReports().collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the state the patrons change as they step: their strategies, switch steps and recent memory.
+     * Configuration such as ids, strategies and patience is left out, as it is regenerated from the design.
+     */
+    void writeState(final DataOutput output) throws IOException;
+
+    /**
+     * Reads state written by {@link #writeState(DataOutput)} into a population created identically.
+     */
+    void restoreState(final DataInput input) throws IOException;
+}
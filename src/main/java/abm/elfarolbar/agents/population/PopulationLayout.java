@@ -0,0 +1,12 @@
+package abm.elfarolbar.agents.population;
+
+public enum PopulationLayout {
+    /**
+     * One {@link abm.elfarolbar.agents.patron.Patron} object per patron.
+     */
+    OBJECTS,
+    /**
+     * Patron state held in parallel primitive arrays, see {@link PatronArrayPopulation}.
+     */
+    ARRAYS
+}
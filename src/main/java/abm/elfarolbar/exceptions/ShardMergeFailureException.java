@@ -0,0 +1,11 @@
+package abm.elfarolbar.exceptions;
+
+public class ShardMergeFailureException extends RuntimeException {
+    public ShardMergeFailureException(final String message) {
+        super(message);
+    }
+
+    public ShardMergeFailureException(final String message, final Exception ex) {
+        super(message, ex);
+    }
+}
@@ -0,0 +1,11 @@
+package abm.elfarolbar.exceptions;
+
+public class SimulationSnapshotFailureException extends RuntimeException {
+    public SimulationSnapshotFailureException(final String message) {
+        super(message);
+    }
+
+    public SimulationSnapshotFailureException(final String message, final Exception ex) {
+        super(message, ex);
+    }
+}
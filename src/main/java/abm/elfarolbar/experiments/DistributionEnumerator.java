@@ -0,0 +1,251 @@
+package abm.elfarolbar.experiments;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The distributions of {@code totalPatrons} patrons over {@code strategies} strategies in which every strategy
+ * but the last takes a number of patrons from a grid of points, and the last takes the rest. Distributions are
+ * ordered lexicographically by the grid points of the leading strategies.
+ *
+ * <p>Distributions can be counted, ranked and unranked without enumerating them, and are streamed one at a time
+ * from a splittable iterator, so even large grids are generated in memory bounded by the grid and the number
+ * of patrons.
+ */
+public class DistributionEnumerator {
+    private final int totalPatrons;
+    private final int[] gridPoints;
+    private final int strategies;
+    /**
+     * For every number of leading strategies still to place, the number of ways to place them within each
+     * reachable budget of patrons.
+     */
+    private final List<Map<Integer, Long>> placements;
+    private final long count;
+
+    /**
+     * @param gridPoints sorted, distinct, non-negative grid points starting at zero
+     */
+    public DistributionEnumerator(final int totalPatrons, final List<Integer> gridPoints, final int strategies) {
+        if (strategies < 1) {
+            throw new IllegalArgumentException(String.format("At least one strategy is required, got %d", strategies));
+        }
+        if (totalPatrons < 0) {
+            throw new IllegalArgumentException(String.format("Total patrons cannot be negative, got %d", totalPatrons));
+        }
+        if (gridPoints.isEmpty() || gridPoints.get(0) != 0) {
+            throw new IllegalArgumentException(String.format("Grid points must start at zero, got %s", gridPoints));
+        }
+        for (int point = 1; point < gridPoints.size(); point++) {
+            if (gridPoints.get(point) <= gridPoints.get(point - 1)) {
+                throw new IllegalArgumentException(String.format("Grid points must be sorted and distinct, got %s", gridPoints));
+            }
+        }
+        this.totalPatrons = totalPatrons;
+        this.gridPoints = Ints.toArray(gridPoints);
+        this.strategies = strategies;
+        this.placements = Stream.generate(() -> (Map<Integer, Long>) new HashMap<Integer, Long>())
+                .limit(strategies)
+                .toList();
+        this.count = this.placements(strategies - 1, totalPatrons);
+    }
+
+    /**
+     * The number of distributions.
+     *
+     * @throws ArithmeticException when the count exceeds a long, checked on construction
+     */
+    public long count() {
+        return this.count;
+    }
+
+    /**
+     * The distribution at {@code index} in enumeration order.
+     */
+    public List<Integer> unrank(final long index) {
+        return toDistribution(this.unrankGridIndices(index));
+    }
+
+    /**
+     * The position of {@code distribution} in enumeration order.
+     */
+    public long rank(final List<Integer> distribution) {
+        if (distribution.size() != this.strategies) {
+            throw new IllegalArgumentException(String.format("Expected %d strategies, got %s", this.strategies, distribution));
+        }
+        long rank = 0;
+        int budget = this.totalPatrons;
+        for (int strategy = 0; strategy < this.strategies - 1; strategy++) {
+            final int patrons = distribution.get(strategy);
+            final int remainingStrategies = this.strategies - 2 - strategy;
+            int point = 0;
+            for (; point < this.gridPoints.length && this.gridPoints[point] < patrons; point++) {
+                rank += this.placements(remainingStrategies, budget - this.gridPoints[point]);
+            }
+            if (point == this.gridPoints.length || this.gridPoints[point] != patrons || patrons > budget) {
+                throw new IllegalArgumentException(String.format("%s is not a distribution of this grid", distribution));
+            }
+            budget -= patrons;
+        }
+        if (distribution.get(this.strategies - 1) != budget) {
+            throw new IllegalArgumentException(String.format("%s is not a distribution of %d patrons", distribution, this.totalPatrons));
+        }
+        return rank;
+    }
+
+    /**
+     * Every distribution in enumeration order; splits evenly by rank when run in parallel.
+     */
+    public Stream<List<Integer>> stream() {
+        return this.stream(0, this.count);
+    }
+
+    /**
+     * The distributions ranked in {@code [firstIndex, endIndex)}, reached without enumerating the ones before.
+     */
+    public Stream<List<Integer>> stream(final long firstIndex, final long endIndex) {
+        if (firstIndex < 0 || endIndex > this.count || firstIndex > endIndex) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of %d distributions", firstIndex, endIndex, this.count));
+        }
+        return StreamSupport.stream(new DistributionSpliterator(firstIndex, endIndex, null), false);
+    }
+
+    private long placements(final int strategiesToPlace, final int budget) {
+        if (budget < 0) {
+            return 0;
+        }
+        if (strategiesToPlace == 0) {
+            return 1;
+        }
+        final Map<Integer, Long> placementsByBudget = this.placements.get(strategiesToPlace);
+        final Long known = placementsByBudget.get(budget);
+        if (known != null) {
+            return known;
+        }
+        long placements = 0;
+        for (int point = 0; point < this.gridPoints.length && this.gridPoints[point] <= budget; point++) {
+            placements = Math.addExact(placements, this.placements(strategiesToPlace - 1, budget - this.gridPoints[point]));
+        }
+        placementsByBudget.put(budget, placements);
+        return placements;
+    }
+
+    private int[] unrankGridIndices(final long index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of %d distributions", index, this.count));
+        }
+        final int[] gridIndices = new int[this.strategies - 1];
+        long remainingIndex = index;
+        int budget = this.totalPatrons;
+        for (int strategy = 0; strategy < gridIndices.length; strategy++) {
+            final int remainingStrategies = gridIndices.length - 1 - strategy;
+            int point = 0;
+            while (true) {
+                final long placements = this.placements(remainingStrategies, budget - this.gridPoints[point]);
+                if (remainingIndex < placements) {
+                    break;
+                }
+                remainingIndex -= placements;
+                point++;
+            }
+            gridIndices[strategy] = point;
+            budget -= this.gridPoints[point];
+        }
+        return gridIndices;
+    }
+
+    /**
+     * Moves to the next distribution like an odometer: the last leading strategy that can take the next grid
+     * point does, and every strategy after it goes back to zero patrons.
+     */
+    private boolean advance(final int[] gridIndices) {
+        int prefix = 0;
+        for (final int gridIndex : gridIndices) {
+            prefix += this.gridPoints[gridIndex];
+        }
+        for (int strategy = gridIndices.length - 1; strategy >= 0; strategy--) {
+            prefix -= this.gridPoints[gridIndices[strategy]];
+            final int next = gridIndices[strategy] + 1;
+            if (next < this.gridPoints.length && prefix + this.gridPoints[next] <= this.totalPatrons) {
+                gridIndices[strategy] = next;
+                for (int later = strategy + 1; later < gridIndices.length; later++) {
+                    gridIndices[later] = 0;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Integer> toDistribution(final int[] gridIndices) {
+        final int[] distribution = new int[this.strategies];
+        int remaining = this.totalPatrons;
+        for (int strategy = 0; strategy < gridIndices.length; strategy++) {
+            distribution[strategy] = this.gridPoints[gridIndices[strategy]];
+            remaining -= distribution[strategy];
+        }
+        distribution[this.strategies - 1] = remaining;
+        return ImmutableList.copyOf(Ints.asList(distribution));
+    }
+
+    /**
+     * The distributions with ranks in {@code [index, end)}; the grid indices of the next distribution are only
+     * unranked once iteration starts.
+     */
+    private final class DistributionSpliterator implements Spliterator<List<Integer>> {
+        private long index;
+        private final long end;
+        private int[] gridIndices;
+
+        private DistributionSpliterator(final long index, final long end, final int[] gridIndices) {
+            this.index = index;
+            this.end = end;
+            this.gridIndices = gridIndices;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super List<Integer>> action) {
+            if (this.index >= this.end) {
+                return false;
+            }
+            if (this.gridIndices == null) {
+                this.gridIndices = unrankGridIndices(this.index);
+            } else {
+                advance(this.gridIndices);
+            }
+            this.index++;
+            action.accept(toDistribution(this.gridIndices));
+            return true;
+        }
+
+        @Override
+        public Spliterator<List<Integer>> trySplit() {
+            final long remaining = this.end - this.index;
+            if (remaining < 2) {
+                return null;
+            }
+            final long middle = this.index + remaining / 2;
+            final DistributionSpliterator prefix = new DistributionSpliterator(this.index, middle, this.gridIndices);
+            this.index = middle;
+            this.gridIndices = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.end - this.index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -1,15 +1,51 @@
 package abm.elfarolbar.experiments;
 
 import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.reporting.ReportFormat;
+import com.google.common.collect.Streams;
 import lombok.Builder;
+import lombok.NonNull;
 import lombok.Value;
 
-import java.util.List;
+import java.util.stream.Stream;
 
 @Builder
 @Value
 public class Experiment {
     String id;
     String outputPath;
-    List<Simulation> simulations;
+    long seed;
+    @NonNull
+    @Builder.Default
+    ExperimentShard shard = ExperimentShard.whole();
+    /**
+     * The rank of the first distribution simulated by this shard.
+     */
+    long firstSimulationIndex;
+    /**
+     * The simulations in this shard.
+     */
+    long simulationCount;
+    /**
+     * The simulations of this shard reported before it was resumed, which are not generated again.
+     */
+    long resumedSimulations;
+    /**
+     * The simulations across every shard of the experiment.
+     */
+    long experimentSimulationCount;
+    @NonNull
+    ExperimentCheckpoint checkpoint;
+    @NonNull
+    @Builder.Default
+    ReportFormat reportFormat = ReportFormat.JSON;
+    /**
+     * Generates each simulation only as iteration reaches it and keeps no reference to it, so a simulation
+     * can be released as soon as it has been executed and reported.
+     */
+    Iterable<Simulation> simulations;
+
+    public Stream<Simulation> streamSimulations() {
+        return Streams.stream(this.simulations);
+    }
 }
@@ -0,0 +1,133 @@
+package abm.elfarolbar.experiments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The progress of one shard of an experiment, kept in its output directory so the shard can be resumed after
+ * the process dies. The design is recorded in {@code experiment.json} and every reported simulation id is
+ * appended to a journal per shard once its report is in place. A line torn by a crash matches no simulation,
+ * so that simulation simply runs again.
+ */
+@Log4j2
+public class ExperimentCheckpoint {
+    private static final String PARAMETERS_FILE = "experiment.json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path journal;
+    private final Set<String> completedSimulationIds;
+
+    private ExperimentCheckpoint(final Path journal, final Set<String> completedSimulationIds) {
+        this.journal = journal;
+        this.completedSimulationIds = completedSimulationIds;
+    }
+
+    /**
+     * Records the design of a new experiment; shards of the experiment record the same design. The design is
+     * linked into place only if no shard recorded one yet, so shards started together never overwrite each
+     * other's design, and every shard then checks its design against the recorded one.
+     *
+     * @throws IllegalStateException when the output directory already holds a different experiment
+     */
+    public static ExperimentCheckpoint start(final Path outputPath, final ExperimentShard shard,
+                                             final ExperimentParameters parameters) throws IOException {
+        final Path parametersFile = outputPath.resolve(PARAMETERS_FILE);
+        if (!Files.exists(parametersFile)) {
+            final Path temporary = Files.createTempFile(outputPath, PARAMETERS_FILE, ".tmp");
+            try {
+                OBJECT_MAPPER.writer().writeValue(temporary.toFile(), parameters);
+                Files.createLink(parametersFile, temporary);
+            } catch (final FileAlreadyExistsException ex) {
+                log.info("{} was recorded by another shard", parametersFile);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        checkParameters(parametersFile, parameters);
+        return new ExperimentCheckpoint(journalOf(outputPath, shard), Set.of());
+    }
+
+    /**
+     * Picks up a shard of an experiment from the simulations its journal records as reported.
+     *
+     * @throws IllegalStateException when the experiment was started with a different design
+     */
+    public static ExperimentCheckpoint resume(final Path outputPath, final ExperimentShard shard,
+                                              final ExperimentParameters parameters) throws IOException {
+        checkParameters(outputPath.resolve(PARAMETERS_FILE), parameters);
+        final Path journal = journalOf(outputPath, shard);
+        final Set<String> completedSimulationIds = Files.exists(journal)
+                ? Files.readAllLines(journal, StandardCharsets.UTF_8).stream().collect(Collectors.toUnmodifiableSet())
+                : Set.of();
+        log.info("Resuming {} of {} with {} simulations reported", shard.getName(), outputPath, completedSimulationIds.size());
+        return new ExperimentCheckpoint(journal, completedSimulationIds);
+    }
+
+    /**
+     * The design a checkpoint was started with.
+     */
+    public static ExperimentParameters readParameters(final Path outputPath) throws IOException {
+        return OBJECT_MAPPER.readValue(outputPath.resolve(PARAMETERS_FILE).toFile(), ExperimentParameters.class);
+    }
+
+    public boolean isCompleted(final String simulationId) {
+        return this.completedSimulationIds.contains(simulationId);
+    }
+
+    /**
+     * Appends a simulation to the journal; call only once its report is in place.
+     */
+    public synchronized void markCompleted(final String simulationId) throws IOException {
+        Files.writeString(this.journal, simulationId + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+    }
+
+    /**
+     * Writes {@code value} to a temporary file next to {@code target} and renames it into place, so a crash
+     * leaves either the complete file or none.
+     */
+    public static void writeAtomically(final File target, final ObjectWriter objectWriter, final Object value) throws IOException {
+        writeAtomically(target, file -> objectWriter.writeValue(file, value));
+    }
+
+    /**
+     * Has {@code contents} write a temporary file next to {@code target} and renames it into place.
+     */
+    public static void writeAtomically(final File target, final FileContents contents) throws IOException {
+        final Path temporary = target.toPath().resolveSibling(target.getName() + ".tmp");
+        contents.writeTo(temporary.toFile());
+        try {
+            Files.move(temporary, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @FunctionalInterface
+    public interface FileContents {
+        void writeTo(final File file) throws IOException;
+    }
+
+    private static void checkParameters(final Path parametersFile, final ExperimentParameters parameters) throws IOException {
+        final ExperimentParameters recorded = OBJECT_MAPPER.readValue(parametersFile.toFile(), ExperimentParameters.class);
+        if (!recorded.equals(parameters)) {
+            throw new IllegalStateException(String.format("%s records %s, not %s", parametersFile, recorded, parameters));
+        }
+    }
+
+    private static Path journalOf(final Path outputPath, final ExperimentShard shard) {
+        return outputPath.resolve(String.format("%s.completed", shard.getName()));
+    }
+}
@@ -3,6 +3,11 @@ package abm.elfarolbar.experiments;
 import abm.elfarolbar.simulations.PatronSetupDetails;
 import abm.elfarolbar.simulations.Simulation;
 import abm.elfarolbar.simulations.SimulationGenerator;
+import abm.elfarolbar.simulations.reporting.PatronHistoryRetention;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
+import abm.elfarolbar.simulations.reporting.ReportFormat;
+import abm.elfarolbar.simulations.reporting.StrategyDistributionFormat;
+import abm.elfarolbar.strategies.StrategyCatalog;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
 import com.google.common.collect.Streams;
@@ -12,11 +17,13 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -32,29 +39,141 @@ public class ExperimentDesigner {
     private final int simulationLength;
     @Builder.Default
     private final Integer initialBarAttendance = 0;
+    /**
+     * Seed of every random draw in the experiment; rerunning with the same seed reproduces the results. A
+     * random seed is chosen, and logged, when unset.
+     */
+    private final Long seed;
+    /**
+     * What happens to patron histories; derived from the report detail when unset, see
+     * {@link PatronHistoryRetention#resolve}.
+     */
+    private final PatronHistoryRetention historyRetention;
+    /**
+     * Names the experiment and its output directory; a random id is chosen when unset. Shards of one
+     * experiment must share it.
+     */
+    private final String experimentId;
+    /**
+     * The directory holding a directory of reports per experiment.
+     */
+    @Builder.Default
+    private final Path outputRoot = Paths.get("./reports");
+    /**
+     * The slice of the distributions this process runs. Sharded experiments need an explicit experiment id
+     * and seed, so every process writes to the same directory and draws the same random numbers.
+     */
+    @Builder.Default
+    private final ExperimentShard shard = ExperimentShard.whole();
+
+    /**
+     * Picks up the experiment named by {@link #experimentId} where its checkpoint left off, skipping the
+     * simulations already reported. The seed is taken from the checkpoint when unset.
+     */
+    @Builder.Default
+    private final boolean resume = false;
+    /**
+     * Steps between snapshots of each running simulation, kept next to its report until it is reported, so
+     * a resumed experiment continues long simulations from their last snapshot; {@code 0} takes none.
+     */
+    private final int snapshotInterval;
+    /**
+     * Whether each simulation is reported to a JSON file of its own or appended to a columnar file per shard.
+     */
+    @Builder.Default
+    private final ReportFormat reportFormat = ReportFormat.JSON;
+    @Builder.Default
+    private final ReportDetail reportDetail = ReportDetail.FULL;
+    /**
+     * Patrons reported per simulation at {@link ReportDetail#SAMPLED_PATRONS}.
+     */
+    @Builder.Default
+    private final int sampledPatrons = 10;
+    /**
+     * Whether reports hold the strategy distributions as a map per step, in the established report schema, or
+     * opt in to the more compact matrix.
+     */
+    @Builder.Default
+    private final StrategyDistributionFormat distributionFormat = StrategyDistributionFormat.MAPS;
 
     public Experiment design() throws IOException {
-        final String executionRunId = UUID.randomUUID().toString();
-        final String outputPath = String.format("./reports/%s", executionRunId);
+        if ((this.resume || !this.shard.isWhole()) && this.experimentId == null) {
+            throw new IllegalStateException(String.format("Resumed or sharded experiments need an explicit experiment id, %s", this.shard.getName()));
+        }
+        if (!this.resume && !this.shard.isWhole() && this.seed == null) {
+            throw new IllegalStateException(String.format("%s needs an explicit seed", this.shard.getName()));
+        }
+        final PatronHistoryRetention historyRetention = PatronHistoryRetention.resolve(this.historyRetention, this.reportDetail);
+        final String executionRunId = this.experimentId != null ? this.experimentId : UUID.randomUUID().toString();
+        final String outputPath = this.outputRoot.resolve(executionRunId).toString();
         Files.createDirectories(Paths.get(outputPath));
-
-        final Stream<List<Integer>> distributionsStream = generateInitialDistributions().parallelStream();
-        final List<Simulation> simulations = distributionsStream.map(this::generateSimulation).toList();
+        final long experimentSeed = this.seed != null
+                ? this.seed
+                : this.resume ? ExperimentCheckpoint.readParameters(Paths.get(outputPath)).getSeed() : ThreadLocalRandom.current().nextLong();
+        log.info("Experiment {} seed {} {}", executionRunId, experimentSeed, this.shard.getName());
+
+        final StrategyCatalog strategyCatalog = StrategyCatalog.of(this.decisionStrategies, Set.of(this.replacementStrategy));
+        final ExperimentParameters parameters = this.parameters(experimentSeed, historyRetention, strategyCatalog);
+        final ExperimentCheckpoint checkpoint = this.resume
+                ? ExperimentCheckpoint.resume(Paths.get(outputPath), this.shard, parameters)
+                : ExperimentCheckpoint.start(Paths.get(outputPath), this.shard, parameters);
+
+        final DistributionEnumerator distributions = this.distributionEnumerator(strategyCatalog);
+        final long firstIndex = this.shard.firstIndex(distributions.count());
+        final long endIndex = this.shard.endIndex(distributions.count());
+        final long resumedSimulations = this.resume
+                ? distributions.stream(firstIndex, endIndex).filter(distribution -> this.isCompleted(distribution, strategyCatalog, checkpoint)).count()
+                : 0;
+        final Iterable<Simulation> simulations = () -> distributions.stream(firstIndex, endIndex)
+                .filter(distribution -> !this.isCompleted(distribution, strategyCatalog, checkpoint))
+                .map(distribution -> this.generateSimulation(distribution, strategyCatalog, experimentSeed, outputPath))
+                .iterator();
 
         return Experiment.builder()
                 .id(executionRunId)
                 .outputPath(outputPath)
+                .seed(experimentSeed)
+                .shard(this.shard)
+                .firstSimulationIndex(firstIndex)
+                .simulationCount(endIndex - firstIndex)
+                .resumedSimulations(resumedSimulations)
+                .experimentSimulationCount(distributions.count())
+                .checkpoint(checkpoint)
+                .reportFormat(this.reportFormat)
                 .simulations(simulations)
                 .build();
     }
 
-    private Simulation generateSimulation(final List<Integer> distribution) {
-        final List<PatronSetupDetails> patronSetupDetailsList = getPatronSetupDetailsList(distribution);
+    private ExperimentParameters parameters(final long experimentSeed,
+                                            final PatronHistoryRetention historyRetention,
+                                            final StrategyCatalog strategyCatalog) {
+        return ExperimentParameters.builder()
+                .decisionStrategies(strategyCatalog.getDecisionStrategyOrdinals().names())
+                .replacementStrategy(replacementStrategy.getName())
+                .distributionSize(distributionSize)
+                .totalPatrons(totalPatrons)
+                .barCapacity(barCapacity)
+                .simulationLength(simulationLength)
+                .initialBarAttendance(initialBarAttendance)
+                .seed(experimentSeed)
+                .shardCount(shard.getShardCount())
+                .historyRetention(historyRetention)
+                .reportFormat(reportFormat)
+                .reportDetail(reportDetail)
+                .sampledPatrons(reportDetail == ReportDetail.SAMPLED_PATRONS ? sampledPatrons : 0)
+                .distributionFormat(distributionFormat)
+                .build();
+    }
 
-        final String simulationExecutionId = patronSetupDetailsList.stream()
-                .map(patronSetupDetails -> String.format("%s=%d", patronSetupDetails.getDecisionStrategyName(), patronSetupDetails.getCount()))
-                .sorted()
-                .collect(Collectors.joining("-"));
+    private boolean isCompleted(final List<Integer> distribution, final StrategyCatalog strategyCatalog, final ExperimentCheckpoint checkpoint) {
+        return checkpoint.isCompleted(simulationIdOf(getPatronSetupDetailsList(distribution, strategyCatalog)));
+    }
+
+    private Simulation generateSimulation(final List<Integer> distribution,
+                                          final StrategyCatalog strategyCatalog,
+                                          final long experimentSeed,
+                                          final String outputPath) {
+        final List<PatronSetupDetails> patronSetupDetailsList = getPatronSetupDetailsList(distribution, strategyCatalog);
 
         final List<Integer> barHistory = Stream.of(initialBarAttendance)
                 .filter(Objects::nonNull)
@@ -67,13 +186,33 @@ public class ExperimentDesigner {
                 .patronSetupDetailsList(patronSetupDetailsList)
                 .decisionStrategies(decisionStrategies)
                 .replacementStrategies(Set.of(replacementStrategy))
+                .strategyCatalog(strategyCatalog)
+                .seed(experimentSeed)
+                .historyRetention(historyRetention)
+                .historyOutputPath(outputPath)
+                .snapshotInterval(snapshotInterval)
+                .snapshotOutputPath(snapshotInterval > 0 ? outputPath : null)
+                .reportDetail(reportDetail)
+                .sampledPatrons(sampledPatrons)
+                .distributionFormat(distributionFormat)
                 .build();
 
-        return simulationGenerator.generate(simulationExecutionId);
+        return simulationGenerator.generate(simulationIdOf(patronSetupDetailsList));
     }
 
-    private List<PatronSetupDetails> getPatronSetupDetailsList(final List<Integer> distribution) {
-        return Streams.zip(distribution.stream(), decisionStrategies.stream(), Pair::of)
+    private static String simulationIdOf(final List<PatronSetupDetails> patronSetupDetailsList) {
+        return patronSetupDetailsList.stream()
+                .map(patronSetupDetails -> String.format("%s=%d", patronSetupDetails.getDecisionStrategyName(), patronSetupDetails.getCount()))
+                .sorted()
+                .collect(Collectors.joining("-"));
+    }
+
+    /**
+     * Pairs the counts of a distribution with the decision strategies in catalog order, by name, so every
+     * process enumerates the same distributions however the strategies were collected.
+     */
+    private List<PatronSetupDetails> getPatronSetupDetailsList(final List<Integer> distribution, final StrategyCatalog strategyCatalog) {
+        return Streams.zip(distribution.stream(), strategyCatalog.getDecisionStrategies().stream(), Pair::of)
                 .map(pair -> PatronSetupDetails.builder()
                         .decisionStrategyName(pair.getRight().getName())
                         .replacementStrategyName(replacementStrategy.getName())
@@ -82,37 +221,13 @@ public class ExperimentDesigner {
                 .collect(Collectors.toList());
     }
 
-    private List<List<Integer>> generateInitialDistributions() {
-        final int dimensions = decisionStrategies.size();
+    /**
+     * The initial distributions of patrons over strategies, every strategy but the last in catalog order
+     * taking a point of the linear grid and the last taking the remaining patrons.
+     */
+    DistributionEnumerator distributionEnumerator(final StrategyCatalog strategyCatalog) {
         final int numLinearPoints = totalPatrons / distributionSize + 1;
-        final List<Integer> linearlySpacedPoints = linearSpacing(0, totalPatrons, numLinearPoints);
-
-        final Stream<List<Integer>> linearlySpacedPointsStream = linearlySpacedPoints.parallelStream()
-                .flatMap(singlePoint -> generateDistributions(List.of(singlePoint), linearlySpacedPoints, dimensions - 1));
-
-        return linearlySpacedPointsStream
-                .map(distribution -> {
-                    final int num = totalPatrons - calculateSum(distribution);
-                    return Stream.concat(distribution.stream(), Stream.of(num)).collect(Collectors.toList());
-                })
-                .collect(Collectors.toList());
-    }
-
-    private Stream<List<Integer>> generateDistributions(final List<Integer> distribution,
-                                                        final List<Integer> linearlySpacedPoints,
-                                                        final int dimensions) {
-        if(distribution.size() >= dimensions) {
-            return Stream.of(distribution);
-        }
-
-        return linearlySpacedPoints.stream()
-                .filter(num -> num + calculateSum(distribution) <= totalPatrons)
-                .map(num -> Stream.concat(distribution.stream(), Stream.of(num)).collect(Collectors.toList()))
-                .flatMap(distributionList -> generateDistributions(distributionList, linearlySpacedPoints, dimensions));
-    }
-
-    private int calculateSum(List<Integer> distribution) {
-        return distribution.stream().mapToInt(Integer::intValue).sum();
+        return new DistributionEnumerator(totalPatrons, linearSpacing(0, totalPatrons, numLinearPoints), strategyCatalog.decisionStrategyCount());
     }
 
     private List<Integer> linearSpacing(final int start, final int stop, final int numPoints) {
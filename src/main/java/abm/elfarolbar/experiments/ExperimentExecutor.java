@@ -3,34 +3,62 @@ package abm.elfarolbar.experiments;
 import abm.elfarolbar.exceptions.ExperimentFailureException;
 import abm.elfarolbar.exceptions.SimulationReportingFailureException;
 import abm.elfarolbar.simulations.Simulation;
-import abm.elfarolbar.simulations.reporting.SimulationReport;
+import abm.elfarolbar.simulations.reporting.ColumnarResultWriter;
+import abm.elfarolbar.simulations.reporting.SimulationReportWriter;
+import abm.elfarolbar.simulations.reporting.SimulationResultSink;
+import abm.elfarolbar.simulations.reporting.StreamingSimulationReportWriter;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 
 @AllArgsConstructor
 @Log4j2
 public class ExperimentExecutor {
+    private static final int REPORT_BUFFER_SIZE = 1 << 16;
+
     private final ExperimentDesigner experimentDesigner;
     private final ObjectWriter objectWriter;
+    private final ExperimentScheduler experimentScheduler;
+    private final SimulationReportWriter reportWriter;
+
+    /**
+     * Streams simulation reports as JSON with {@code objectWriter}, see {@link StreamingSimulationReportWriter}.
+     * The scheduler stays owned by the caller, who closes it once the experiment is done.
+     */
+    public ExperimentExecutor(final ExperimentDesigner experimentDesigner,
+                              final ObjectWriter objectWriter,
+                              final ExperimentScheduler experimentScheduler) {
+        this(experimentDesigner, objectWriter, experimentScheduler, new StreamingSimulationReportWriter(objectWriter));
+    }
 
     public ExperimentResults execute() {
         try {
             final Experiment experiment = experimentDesigner.design();
 
             final Instant start = Instant.now();
-            experiment.getSimulations()
-                    .parallelStream()
-                    .forEach(simulation -> startSimulation(simulation, experiment.getOutputPath()));
+            final long completedSimulations = executeSimulations(experiment);
             final Instant end = Instant.now();
             final long executionTime = end.minusMillis(start.toEpochMilli()).toEpochMilli();
             log.info("Total Execution Time: {} ms", executionTime);
+            writeManifest(experiment, completedSimulations, executionTime);
 
             return ExperimentResults.builder()
                     .experiment(experiment)
+                    .completedSimulations(completedSimulations)
                     .executionTime(executionTime)
                     .build();
         } catch (final Exception ex) {
@@ -38,20 +66,132 @@ public class ExperimentExecutor {
         }
     }
 
-    private void startSimulation(final Simulation simulation, final String outputPath) {
-        final Instant start = Instant.now();
-        simulation.execute();
-        final Instant end = Instant.now();
+    /**
+     * Generates, executes and reports the simulations of the experiment, generating a simulation only once
+     * one of at most {@link #inFlightSimulations()} slots is free. A slot is freed once its simulation is
+     * handed to the {@link ReportWriterStage}, whose queue holds at most one simulation per simulation thread,
+     * and the simulation is dropped once its report is written and its summary appended to the
+     * {@link SummaryIndex}, so memory tracks the simulations in flight rather than the size of the experiment.
+     * Waits for every started simulation and queued report, so none
+     * is left running when one fails, then rethrows the first failure.
+     */
+    private long executeSimulations(final Experiment experiment) throws Exception {
+        final int inFlightSimulations = inFlightSimulations();
+        final Semaphore slots = new Semaphore(inFlightSimulations);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final AtomicLong completedSimulations = new AtomicLong();
 
-        final Long executionTime = end.toEpochMilli() - start.toEpochMilli();
-        log.info("Simulation {} Execution Time: {} ms", simulation.getSimulationId(), executionTime);
-        final SimulationReport simulationReport = simulation.generateReport().toBuilder()
+        try (final SummaryIndexWriter summaryIndex = SummaryIndexWriter.open(Paths.get(experiment.getOutputPath(), SummaryIndexWriter.fileName(experiment.getShard())));
+             final ReportWriterStage reportWriterStage = new ReportWriterStage(this.openResultSink(experiment),
+                     experimentScheduler.getSimulationParallelism())) {
+            final Iterator<Simulation> simulations = experiment.getSimulations().iterator();
+            while (failure.get() == null) {
+                // Stream-backed iterators generate the next simulation in hasNext(), so only ask once a slot is free
+                slots.acquire();
+                try {
+                    if (!simulations.hasNext()) {
+                        slots.release();
+                        break;
+                    }
+                    final Simulation simulation = simulations.next();
+                    experimentScheduler.submit(() -> {
+                        try {
+                            startSimulation(simulation, reportWriterStage, summaryIndex, experiment.getCheckpoint(), completedSimulations);
+                        } catch (final Throwable ex) {
+                            failure.compareAndSet(null, ex instanceof Exception exception ? exception : new ExecutionException(ex));
+                        } finally {
+                            slots.release();
+                        }
+                        return null;
+                    });
+                } catch (final Exception ex) {
+                    failure.compareAndSet(null, ex);
+                    slots.release();
+                }
+            }
+            slots.acquire(inFlightSimulations);
+            log.info("Report writer {}", reportWriterStage.getStats());
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return completedSimulations.get();
+    }
+
+    /**
+     * Simulations generated ahead of time: one running and one waiting per simulation slot.
+     */
+    private int inFlightSimulations() {
+        return 2 * experimentScheduler.getSimulationParallelism();
+    }
+
+    /**
+     * Records the distributions this shard covered next to its reports, so shards can be merged once all have
+     * completed. Simulations reported before the shard was resumed count as completed.
+     */
+    private void writeManifest(final Experiment experiment, final long completedSimulations, final long executionTime) {
+        final ExperimentShard shard = experiment.getShard();
+        final ShardManifest manifest = ShardManifest.builder()
+                .experimentId(experiment.getId())
+                .seed(experiment.getSeed())
+                .shardIndex(shard.getShardIndex())
+                .shardCount(shard.getShardCount())
+                .firstSimulationIndex(experiment.getFirstSimulationIndex())
+                .endSimulationIndex(experiment.getFirstSimulationIndex() + experiment.getSimulationCount())
+                .experimentSimulationCount(experiment.getExperimentSimulationCount())
+                .completedSimulations(experiment.getResumedSimulations() + completedSimulations)
                 .executionTime(executionTime)
                 .build();
         try {
-            objectWriter.writeValue(new File(String.format("%s/%s.json", outputPath, simulation.getSimulationId())), simulationReport);
+            ExperimentCheckpoint.writeAtomically(new File(String.format("%s/%s", experiment.getOutputPath(), ShardManifest.fileName(shard))), objectWriter, manifest);
         } catch (final Exception ex) {
-            throw new SimulationReportingFailureException("Failed to write simulation results to file system", ex);
+            throw new SimulationReportingFailureException("Failed to write shard manifest to file system", ex);
         }
     }
+
+    /**
+     * JSON reports are written to a temporary file each and renamed into place; columnar results are appended
+     * to one file per shard.
+     */
+    private SimulationResultSink openResultSink(final Experiment experiment) throws IOException {
+        return switch (experiment.getReportFormat()) {
+            case JSON -> (simulation, executionTime) -> this.writeReport(simulation, executionTime, experiment.getOutputPath(), false);
+            case JSON_GZIP -> (simulation, executionTime) -> this.writeReport(simulation, executionTime, experiment.getOutputPath(), true);
+            case COLUMNAR -> ColumnarResultWriter.open(Paths.get(experiment.getOutputPath(), String.format("%s.columns", experiment.getShard().getName())));
+        };
+    }
+
+    private long writeReport(final Simulation simulation, final long executionTime, final String outputPath, final boolean compress) throws IOException {
+        final File report = new File(String.format("%s/%s.%s", outputPath, simulation.getSimulationId(), compress ? "json.gz" : "json"));
+        ExperimentCheckpoint.writeAtomically(report, file -> {
+            try (final OutputStream output = compress
+                    ? new GZIPOutputStream(Files.newOutputStream(file.toPath()), REPORT_BUFFER_SIZE)
+                    : new BufferedOutputStream(Files.newOutputStream(file.toPath()), REPORT_BUFFER_SIZE)) {
+                reportWriter.write(simulation, executionTime, output);
+            }
+        });
+        return Files.size(report.toPath());
+    }
+
+    private void startSimulation(final Simulation simulation,
+                                 final ReportWriterStage reportWriterStage,
+                                 final SummaryIndexWriter summaryIndex,
+                                 final ExperimentCheckpoint checkpoint,
+                                 final AtomicLong completedSimulations) throws InterruptedException {
+        final Instant start = Instant.now();
+        simulation.execute();
+        final Instant end = Instant.now();
+
+        final long executionTime = end.toEpochMilli() - start.toEpochMilli();
+        log.info("Simulation {} Execution Time: {} ms", simulation.getSimulationId(), executionTime);
+        reportWriterStage.submit(simulation, executionTime, () -> {
+            summaryIndex.append(simulation, executionTime);
+            checkpoint.markCompleted(simulation.getSimulationId());
+            simulation.discardSnapshot();
+            completedSimulations.incrementAndGet();
+        });
+        log.debug("Scheduler {}", experimentScheduler.getStats());
+        log.debug("Report writer {}", reportWriterStage.getStats());
+    }
 }
@@ -0,0 +1,37 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.simulations.reporting.PatronHistoryRetention;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
+import abm.elfarolbar.simulations.reporting.ReportFormat;
+import abm.elfarolbar.simulations.reporting.StrategyDistributionFormat;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * The design of an experiment as recorded in its checkpoint, so a resumed experiment can be checked against
+ * the one that was started.
+ */
+@Builder
+@Value
+@Jacksonized
+public class ExperimentParameters {
+    List<String> decisionStrategies;
+    String replacementStrategy;
+    int distributionSize;
+    int totalPatrons;
+    int barCapacity;
+    int simulationLength;
+    Integer initialBarAttendance;
+    long seed;
+    int shardCount;
+    PatronHistoryRetention historyRetention;
+    @Builder.Default
+    ReportFormat reportFormat = ReportFormat.JSON;
+    @Builder.Default
+    ReportDetail reportDetail = ReportDetail.FULL;
+    int sampledPatrons;
+    @Builder.Default
+    StrategyDistributionFormat distributionFormat = StrategyDistributionFormat.MAPS;
+}
@@ -9,5 +9,6 @@ import lombok.Value;
 public class ExperimentResults {
     @NonNull
     Experiment experiment;
+    long completedSimulations;
     long executionTime;
 }
@@ -0,0 +1,100 @@
+package abm.elfarolbar.experiments;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+
+/**
+ * Runs the simulations of an experiment on two dedicated pools instead of the common pool: at most
+ * {@code simulationParallelism} simulations are in flight at once, and all their work, including the
+ * parallel passes over their patrons, runs on a fork/join pool of {@code patronParallelism} threads.
+ * Parallel streams started by a simulation use the pool the simulation runs on, so the two levels no
+ * longer compete for, and oversubscribe, the common pool.
+ *
+ * <p>Threads are daemons, so a scheduler that is never closed does not keep the JVM alive.
+ */
+public class ExperimentScheduler implements AutoCloseable {
+    @Getter
+    private final int simulationParallelism;
+    @Getter
+    private final int patronParallelism;
+    private final ThreadPoolExecutor simulationExecutor;
+    private final ForkJoinPool patronPool;
+
+    public ExperimentScheduler(final int simulationParallelism, final int patronParallelism) {
+        if (simulationParallelism < 1 || patronParallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be positive, got %d simulations and %d patron threads",
+                    simulationParallelism, patronParallelism));
+        }
+        this.simulationParallelism = simulationParallelism;
+        this.patronParallelism = patronParallelism;
+        this.simulationExecutor = new ThreadPoolExecutor(simulationParallelism, simulationParallelism,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("simulation-%d").setDaemon(true).build());
+        final AtomicInteger patronThreads = new AtomicInteger();
+        this.patronPool = new ForkJoinPool(patronParallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(String.format("patrons-%d", patronThreads.getAndIncrement()));
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * A scheduler using every available processor at both levels; simulation threads only wait for the
+     * patron pool, which does all the work.
+     */
+    public static ExperimentScheduler forAvailableProcessors() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return new ExperimentScheduler(processors, processors);
+    }
+
+    /**
+     * Queues a simulation task; it runs on the patron pool once one of the simulation slots is free.
+     */
+    public <T> Future<T> submit(final Callable<T> simulationTask) {
+        return this.simulationExecutor.submit(() -> {
+            final FutureTask<T> patronTask = new FutureTask<>(simulationTask);
+            this.patronPool.execute(patronTask);
+            try {
+                return patronTask.get();
+            } catch (final ExecutionException ex) {
+                if (ex.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        });
+    }
+
+    /**
+     * A snapshot of the scheduler's queues and how busy its pools are.
+     */
+    public ExperimentSchedulerStats getStats() {
+        final int activeSimulations = this.simulationExecutor.getActiveCount();
+        final int activePatronThreads = this.patronPool.getActiveThreadCount();
+        return ExperimentSchedulerStats.builder()
+                .queuedSimulations(this.simulationExecutor.getQueue().size())
+                .activeSimulations(activeSimulations)
+                .completedSimulations(this.simulationExecutor.getCompletedTaskCount())
+                .simulationUtilisation((double) activeSimulations / this.simulationParallelism)
+                .queuedPatronTasks(this.patronPool.getQueuedSubmissionCount() + this.patronPool.getQueuedTaskCount())
+                .activePatronThreads(activePatronThreads)
+                .patronUtilisation((double) Math.min(activePatronThreads, this.patronParallelism) / this.patronParallelism)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        this.simulationExecutor.shutdownNow();
+        this.patronPool.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package abm.elfarolbar.experiments;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Queue depths and utilisation of an {@link ExperimentScheduler} at one point in time. Utilisation is the
+ * share of a pool's threads that are busy.
+ */
+@Builder
+@Value
+public class ExperimentSchedulerStats {
+    int queuedSimulations;
+    int activeSimulations;
+    long completedSimulations;
+    double simulationUtilisation;
+    long queuedPatronTasks;
+    int activePatronThreads;
+    double patronUtilisation;
+}
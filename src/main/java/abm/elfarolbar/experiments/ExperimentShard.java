@@ -0,0 +1,62 @@
+package abm.elfarolbar.experiments;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigInteger;
+
+/**
+ * One of {@code shardCount} disjoint, contiguous slices of an experiment's distributions, so independent
+ * processes given the same design, experiment id and seed can each run their own slice.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ExperimentShard {
+    int shardIndex;
+    int shardCount;
+
+    public static ExperimentShard of(final int shardIndex, final int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(String.format("Invalid shard %d of %d", shardIndex, shardCount));
+        }
+        return new ExperimentShard(shardIndex, shardCount);
+    }
+
+    /**
+     * The single shard covering the whole experiment.
+     */
+    public static ExperimentShard whole() {
+        return of(0, 1);
+    }
+
+    public boolean isWhole() {
+        return this.shardCount == 1;
+    }
+
+    /**
+     * The rank of the first distribution in this shard.
+     */
+    public long firstIndex(final long simulationCount) {
+        return boundary(simulationCount, this.shardIndex);
+    }
+
+    /**
+     * The rank one past the last distribution in this shard.
+     */
+    public long endIndex(final long simulationCount) {
+        return boundary(simulationCount, this.shardIndex + 1);
+    }
+
+    public String getName() {
+        return String.format("shard-%d-of-%d", this.shardIndex, this.shardCount);
+    }
+
+    private long boundary(final long simulationCount, final int shard) {
+        // Splits as evenly as possible; the multiplication is widened so huge experiments cannot overflow
+        return BigInteger.valueOf(simulationCount)
+                .multiply(BigInteger.valueOf(shard))
+                .divide(BigInteger.valueOf(this.shardCount))
+                .longValueExact();
+    }
+}
@@ -0,0 +1,25 @@
+package abm.elfarolbar.experiments;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The results of every shard of an experiment, merged from their manifests.
+ */
+@Builder
+@Value
+public class ExperimentSummary {
+    String experimentId;
+    long seed;
+    int shardCount;
+    long simulationCount;
+    long completedSimulations;
+    /**
+     * The execution time of every shard added together.
+     */
+    long totalExecutionTime;
+    /**
+     * The execution time of the slowest shard, the wall time when shards run side by side.
+     */
+    long longestShardExecutionTime;
+}
@@ -0,0 +1,186 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.exceptions.SimulationReportingFailureException;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.reporting.SimulationResultSink;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Moves report writing off the simulation threads: executed simulations are handed to a bounded queue and
+ * written to the sink by one dedicated thread, in the order they were handed over. When the queue is full,
+ * {@link #submit} waits for room, so simulations stop completing faster than the disk can take their
+ * reports and memory stays bounded. The wait is a {@link ForkJoinPool.ManagedBlocker}, so a fork/join pool
+ * handing off reports can compensate for its blocked workers.
+ *
+ * <p>Once a report fails to be written, or the writer thread dies, no further report is written: the
+ * writer stops, queued simulations are dropped, later hand-offs fail and {@link #close()} rethrows the
+ * failure.
+ */
+@Log4j2
+public class ReportWriterStage implements AutoCloseable {
+    private static final PendingReport END_OF_REPORTS = new PendingReport(null, 0L, null);
+
+    private final SimulationResultSink resultSink;
+    private final int queueCapacity;
+    private final BlockingQueue<PendingReport> queue;
+    private final Thread writer;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final AtomicInteger maxQueuedReports = new AtomicInteger();
+    private final AtomicLong blockedSubmissions = new AtomicLong();
+    private final AtomicLong writtenReports = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    public ReportWriterStage(final SimulationResultSink resultSink, final int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(String.format("Queue capacity must be positive, got %d", queueCapacity));
+        }
+        this.resultSink = resultSink;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new ThreadFactoryBuilder().setNameFormat("report-writer-%d").setDaemon(true).build()
+                .newThread(this::writeReports);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the report of an executed simulation, waiting while the queue is full. {@code onWritten} runs
+     * on the writer thread once the report is written.
+     */
+    public void submit(final Simulation simulation, final long executionTime, final WrittenCallback onWritten) throws InterruptedException {
+        this.checkNotFailed();
+        final PendingReport report = new PendingReport(simulation, executionTime, onWritten);
+        if (!this.queue.offer(report)) {
+            this.blockedSubmissions.incrementAndGet();
+            ForkJoinPool.managedBlock(new QueueSpaceBlocker(report));
+        }
+        this.maxQueuedReports.accumulateAndGet(this.queue.size(), Math::max);
+    }
+
+    public ReportWriterStats getStats() {
+        final long nanos = this.writeNanos.get();
+        return ReportWriterStats.builder()
+                .queuedReports(this.queue.size())
+                .maxQueuedReports(this.maxQueuedReports.get())
+                .queueCapacity(this.queueCapacity)
+                .blockedSubmissions(this.blockedSubmissions.get())
+                .writtenReports(this.writtenReports.get())
+                .writtenBytes(this.writtenBytes.get())
+                .bytesPerSecond(nanos == 0 ? 0.0 : this.writtenBytes.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos)
+                .build();
+    }
+
+    /**
+     * Writes every queued report, then closes the sink. Waits for the writer only while it is alive, so a
+     * writer that already failed does not keep the end of the reports from being handed over. When
+     * interrupted, the writer is interrupted too and the interrupt is kept for the caller.
+     *
+     * @throws SimulationReportingFailureException when a report failed to be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (this.writer.isAlive() && !this.queue.offer(END_OF_REPORTS, 100, TimeUnit.MILLISECONDS)) {
+                // the writer is still draining the queue
+            }
+            this.writer.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            this.failure.compareAndSet(null, ex);
+            this.writer.interrupt();
+            Uninterruptibles.joinUninterruptibly(this.writer);
+        }
+        this.resultSink.close();
+        if (this.failure.get() != null) {
+            throw new SimulationReportingFailureException("Failed to write simulation results to file system", this.failure.get());
+        }
+    }
+
+    private void writeReports() {
+        try {
+            while (true) {
+                final PendingReport report = this.queue.take();
+                if (report == END_OF_REPORTS) {
+                    return;
+                }
+                this.write(report);
+            }
+        } catch (final Throwable ex) {
+            this.failure.compareAndSet(null, ex instanceof Exception exception ? exception : new ExecutionException(ex));
+            this.queue.clear();
+        }
+    }
+
+    private void write(final PendingReport report) throws IOException {
+        try {
+            final long start = System.nanoTime();
+            final long bytes = this.resultSink.accept(report.getSimulation(), report.getExecutionTime());
+            this.writeNanos.addAndGet(System.nanoTime() - start);
+            this.writtenBytes.addAndGet(bytes);
+            this.writtenReports.incrementAndGet();
+            report.getOnWritten().run();
+        } catch (final IOException | RuntimeException ex) {
+            log.error("Failed to write {}", report.getSimulation().getSimulationId(), ex);
+            throw ex;
+        }
+    }
+
+    private void checkNotFailed() {
+        if (this.failure.get() != null) {
+            throw new SimulationReportingFailureException("Report writer has failed", this.failure.get());
+        }
+    }
+
+    /**
+     * Waits for room in the queue in short slices, failing the hand-off as soon as the writer has failed.
+     */
+    private class QueueSpaceBlocker implements ForkJoinPool.ManagedBlocker {
+        private final PendingReport report;
+        private boolean queued;
+
+        private QueueSpaceBlocker(final PendingReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            this.queued = queue.offer(this.report, 100, TimeUnit.MILLISECONDS);
+            if (!this.queued) {
+                checkNotFailed();
+            }
+            return this.queued;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!this.queued) {
+                this.queued = queue.offer(this.report);
+            }
+            return this.queued;
+        }
+    }
+
+    @FunctionalInterface
+    public interface WrittenCallback {
+        void run() throws IOException;
+    }
+
+    @Value
+    private static class PendingReport {
+        Simulation simulation;
+        long executionTime;
+        WrittenCallback onWritten;
+    }
+}
@@ -0,0 +1,23 @@
+package abm.elfarolbar.experiments;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Queue depth and throughput of a {@link ReportWriterStage} at one point in time. Throughput is measured over
+ * the time the writer spent writing, so it reflects the disk rather than how fast simulations complete.
+ */
+@Builder
+@Value
+public class ReportWriterStats {
+    int queuedReports;
+    int maxQueuedReports;
+    int queueCapacity;
+    /**
+     * Hand-offs that had to wait for room in the queue because the writer fell behind.
+     */
+    long blockedSubmissions;
+    long writtenReports;
+    long writtenBytes;
+    double bytesPerSecond;
+}
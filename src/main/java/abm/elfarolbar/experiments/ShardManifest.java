@@ -0,0 +1,28 @@
+package abm.elfarolbar.experiments;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Written next to the simulation reports once a shard completes, recording which distributions it covered
+ * so the shards of an experiment can be merged.
+ */
+@Builder
+@Value
+@Jacksonized
+public class ShardManifest {
+    String experimentId;
+    long seed;
+    int shardIndex;
+    int shardCount;
+    long firstSimulationIndex;
+    long endSimulationIndex;
+    long experimentSimulationCount;
+    long completedSimulations;
+    long executionTime;
+
+    public static String fileName(final ExperimentShard shard) {
+        return String.format("%s.manifest.json", shard.getName());
+    }
+}
@@ -0,0 +1,80 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.exceptions.ShardMergeFailureException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Merges the manifests the shards of an experiment wrote into its output directory, checking that they
+ * belong to the same experiment and together cover every distribution exactly once.
+ */
+@AllArgsConstructor
+@Log4j2
+public class ShardMerger {
+    private static final String MANIFEST_GLOB = "shard-*-of-*.manifest.json";
+
+    private final ObjectMapper objectMapper;
+
+    public ExperimentSummary merge(final Path outputPath) {
+        final List<ShardManifest> manifests = readManifests(outputPath);
+        if (manifests.isEmpty()) {
+            throw new ShardMergeFailureException(String.format("No shard manifests in %s", outputPath));
+        }
+
+        final ShardManifest first = manifests.get(0);
+        long expectedIndex = 0;
+        for (int shard = 0; shard < manifests.size(); shard++) {
+            final ShardManifest manifest = manifests.get(shard);
+            if (!manifest.getExperimentId().equals(first.getExperimentId())
+                    || manifest.getSeed() != first.getSeed()
+                    || manifest.getShardCount() != first.getShardCount()
+                    || manifest.getExperimentSimulationCount() != first.getExperimentSimulationCount()) {
+                throw new ShardMergeFailureException(String.format("Shard %d of %d does not belong to experiment %s",
+                        manifest.getShardIndex(), manifest.getShardCount(), first.getExperimentId()));
+            }
+            if (manifest.getShardIndex() != shard || manifest.getFirstSimulationIndex() != expectedIndex) {
+                throw new ShardMergeFailureException(String.format("Shard %d of %d is missing from %s",
+                        shard, first.getShardCount(), outputPath));
+            }
+            expectedIndex = manifest.getEndSimulationIndex();
+        }
+        if (manifests.size() != first.getShardCount() || expectedIndex != first.getExperimentSimulationCount()) {
+            throw new ShardMergeFailureException(String.format("Only %d of %d shards of experiment %s completed",
+                    manifests.size(), first.getShardCount(), first.getExperimentId()));
+        }
+
+        final ExperimentSummary summary = ExperimentSummary.builder()
+                .experimentId(first.getExperimentId())
+                .seed(first.getSeed())
+                .shardCount(first.getShardCount())
+                .simulationCount(first.getExperimentSimulationCount())
+                .completedSimulations(manifests.stream().mapToLong(ShardManifest::getCompletedSimulations).sum())
+                .totalExecutionTime(manifests.stream().mapToLong(ShardManifest::getExecutionTime).sum())
+                .longestShardExecutionTime(manifests.stream().mapToLong(ShardManifest::getExecutionTime).max().orElse(0))
+                .build();
+        log.info("Merged {}", summary);
+        return summary;
+    }
+
+    private List<ShardManifest> readManifests(final Path outputPath) {
+        final List<ShardManifest> manifests = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(outputPath, MANIFEST_GLOB)) {
+            for (final Path file : files) {
+                manifests.add(objectMapper.readValue(file.toFile(), ShardManifest.class));
+            }
+        } catch (final IOException ex) {
+            throw new ShardMergeFailureException(String.format("Failed to read shard manifests from %s", outputPath), ex);
+        }
+        manifests.sort(Comparator.comparingInt(ShardManifest::getShardIndex));
+        return manifests;
+    }
+}
@@ -0,0 +1,130 @@
+package abm.elfarolbar.experiments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Answers questions about every simulation of an experiment from the summary indexes its shards wrote, see
+ * {@link SummaryIndexWriter}, without reading a single report. Queries return new indexes, so they chain:
+ *
+ * <pre>{@code
+ * SummaryIndex.read(outputPath)
+ *         .filter(entry -> entry.isMeanAttendanceNearCapacity(0.05))
+ *         .top(10, Comparator.comparingDouble(entry -> entry.getSummary().getOvercrowdingFrequency()));
+ * }</pre>
+ */
+public class SummaryIndex {
+    static final String FILE_SUFFIX = ".summaries.jsonl";
+    private static final double BUCKET_PRECISION = 1e9;
+
+    private static final ObjectReader OBJECT_READER = new ObjectMapper().readerFor(SummaryIndexEntry.class);
+
+    private final List<SummaryIndexEntry> entries;
+
+    private SummaryIndex(final List<SummaryIndexEntry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    /**
+     * Reads the summary index of every shard in the output directory of an experiment, ordered by simulation id.
+     */
+    public static SummaryIndex read(final Path outputPath) throws IOException {
+        final List<SummaryIndexEntry> entries = new ArrayList<>();
+        try (final DirectoryStream<Path> indexFiles = Files.newDirectoryStream(outputPath, "*" + FILE_SUFFIX)) {
+            for (final Path indexFile : indexFiles) {
+                entries.addAll(readEntries(indexFile));
+            }
+        }
+        entries.sort(Comparator.comparing(SummaryIndexEntry::getSimulationId));
+        return new SummaryIndex(entries);
+    }
+
+    /**
+     * The entries of one index file ordered by simulation id, keeping the last of every simulation and
+     * skipping a line torn by a crash.
+     */
+    static List<SummaryIndexEntry> readEntries(final Path indexFile) throws IOException {
+        final Map<String, SummaryIndexEntry> entries = new TreeMap<>();
+        try (final BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    final SummaryIndexEntry entry = OBJECT_READER.readValue(line);
+                    entries.put(entry.getSimulationId(), entry);
+                } catch (final IOException ex) {
+                    if (reader.ready()) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    public List<SummaryIndexEntry> getEntries() {
+        return this.entries;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public SummaryIndex filter(final Predicate<SummaryIndexEntry> predicate) {
+        return new SummaryIndex(this.entries.stream().filter(predicate).toList());
+    }
+
+    public SummaryIndex sorted(final Comparator<SummaryIndexEntry> comparator) {
+        return new SummaryIndex(this.entries.stream().sorted(comparator).toList());
+    }
+
+    /**
+     * The {@code k} entries {@code comparator} orders last, greatest first.
+     */
+    public List<SummaryIndexEntry> top(final int k, final Comparator<SummaryIndexEntry> comparator) {
+        return this.entries.stream()
+                .sorted(comparator.reversed())
+                .limit(k)
+                .toList();
+    }
+
+    /**
+     * Groups the entries by the share of patrons starting on {@code decisionStrategyName}, rounded down to a
+     * multiple of {@code bucketWidth}, ordered by share.
+     */
+    public SortedMap<Double, SummaryIndex> groupByShare(final String decisionStrategyName, final double bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException(String.format("Bucket width must be positive, not %s", bucketWidth));
+        }
+        return this.entries.stream()
+                .collect(Collectors.groupingBy(
+                        entry -> bucketOf(entry.shareOf(decisionStrategyName), bucketWidth),
+                        TreeMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), SummaryIndex::new)));
+    }
+
+    /**
+     * Shares a rounding error below a bucket boundary still fall in the bucket, and bucket bounds are rounded
+     * so equal buckets get equal keys.
+     */
+    private static double bucketOf(final double share, final double bucketWidth) {
+        final double bucket = Math.floor(share / bucketWidth + 1 / BUCKET_PRECISION);
+        return Math.round(bucket * bucketWidth * BUCKET_PRECISION) / BUCKET_PRECISION;
+    }
+}
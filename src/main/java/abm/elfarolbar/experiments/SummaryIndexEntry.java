@@ -0,0 +1,62 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.reporting.PatronSetupDetailsReport;
+import abm.elfarolbar.simulations.reporting.SimulationInputDataset;
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * The input distribution and summary of one simulation, kept as one line of the summary index of its shard.
+ */
+@Builder
+@Value
+@Jacksonized
+public class SummaryIndexEntry {
+    String simulationId;
+    long executionTime;
+    int barCapacity;
+    /**
+     * Patrons starting on each decision strategy, by strategy name.
+     */
+    SortedMap<String, Integer> distribution;
+    SimulationSummary summary;
+
+    public static SummaryIndexEntry of(final Simulation simulation, final long executionTime) {
+        final SimulationInputDataset input = simulation.generateInputReport();
+        final SortedMap<String, Integer> distribution = new TreeMap<>();
+        for (final PatronSetupDetailsReport patronSetupDetails : input.getInitialPatronSetupDetails()) {
+            distribution.merge(patronSetupDetails.getDecisionStrategyName(), patronSetupDetails.getCount(), Integer::sum);
+        }
+        return SummaryIndexEntry.builder()
+                .simulationId(simulation.getSimulationId())
+                .executionTime(executionTime)
+                .barCapacity(input.getBarCapacity())
+                .distribution(distribution)
+                .summary(simulation.generateSummary())
+                .build();
+    }
+
+    public int totalPatrons() {
+        return this.distribution.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * The share of patrons starting on {@code decisionStrategyName}, between 0 and 1.
+     */
+    public double shareOf(final String decisionStrategyName) {
+        final int totalPatrons = this.totalPatrons();
+        return totalPatrons == 0 ? 0.0 : (double) this.distribution.getOrDefault(decisionStrategyName, 0) / totalPatrons;
+    }
+
+    /**
+     * Whether the mean attendance was within {@code share} of the bar capacity, above or below it.
+     */
+    public boolean isMeanAttendanceNearCapacity(final double share) {
+        return Math.abs(this.summary.getMeanAttendance() - this.barCapacity) <= share * this.barCapacity;
+    }
+}
@@ -0,0 +1,95 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.simulations.Simulation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Appends a {@link SummaryIndexEntry} per reported simulation to the summary index of a shard, one JSON line
+ * each, and sorts the index by simulation id once the shard stops. Lines are appended before the simulation
+ * is marked completed in the {@link ExperimentCheckpoint}, so every completed simulation is indexed; a
+ * simulation run again after a crash is indexed again and only its last line is kept when sorting.
+ */
+@Log4j2
+class SummaryIndexWriter implements Closeable {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writerFor(SummaryIndexEntry.class);
+
+    private final Path indexFile;
+    private final FileChannel index;
+
+    private SummaryIndexWriter(final Path indexFile, final FileChannel index) {
+        this.indexFile = indexFile;
+        this.index = index;
+    }
+
+    /**
+     * Opens the summary index for appending, creating it when missing. A line torn by a crash is dropped, so
+     * appended lines start on a line of their own.
+     */
+    static SummaryIndexWriter open(final Path indexFile) throws IOException {
+        final FileChannel index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+        try {
+            index.truncate(completeLinesLength(index));
+            index.position(index.size());
+        } catch (final IOException | RuntimeException ex) {
+            index.close();
+            throw ex;
+        }
+        return new SummaryIndexWriter(indexFile, index);
+    }
+
+    static String fileName(final ExperimentShard shard) {
+        return String.format("%s%s", shard.getName(), SummaryIndex.FILE_SUFFIX);
+    }
+
+    synchronized void append(final Simulation simulation, final long executionTime) throws IOException {
+        final String line = OBJECT_WRITER.writeValueAsString(SummaryIndexEntry.of(simulation, executionTime)) + "\n";
+        final ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            this.index.write(bytes);
+        }
+    }
+
+    /**
+     * Rewrites the index sorted by simulation id, keeping the last line of every simulation.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.index.close();
+        final List<SummaryIndexEntry> entries = SummaryIndex.readEntries(this.indexFile);
+        ExperimentCheckpoint.writeAtomically(this.indexFile.toFile(), file -> {
+            try (final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                for (final SummaryIndexEntry entry : entries) {
+                    writer.write(OBJECT_WRITER.writeValueAsString(entry));
+                    writer.write('\n');
+                }
+            }
+        });
+        log.debug("Sorted {} summaries in {}", entries.size(), this.indexFile);
+    }
+
+    private static long completeLinesLength(final FileChannel index) throws IOException {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(1);
+        for (long length = index.size(); length > 0; length--) {
+            byteBuffer.clear();
+            index.read(byteBuffer, length - 1);
+            if (byteBuffer.get(0) == '\n') {
+                return length;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,96 @@
+package abm.elfarolbar.random;
+
+import java.util.UUID;
+
+/**
+ * Counter-based random numbers for one simulation of an experiment. Every draw is a pure function of the
+ * experiment seed, the simulation id and the (patron, step, purpose, index) it is drawn for, so results do not
+ * depend on thread count, scheduling or how patrons are partitioned, and no generator state is shared
+ * between threads.
+ *
+ * <p>Keys are derived by repeatedly mixing coordinates with the SplitMix64 finalizer; the numbers of a
+ * {@link RandomStream} are the finalizer applied to its key plus a counter.
+ */
+public final class CounterRandom {
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long key;
+
+    private CounterRandom(final long key) {
+        this.key = key;
+    }
+
+    public static CounterRandom of(final long experimentSeed, final String simulationId) {
+        return new CounterRandom(combine(mix(experimentSeed), keyOf(simulationId)));
+    }
+
+    /**
+     * A generator with a fresh random key, for callers that do not need reproducible draws.
+     */
+    public static CounterRandom unseeded() {
+        return new CounterRandom(RandomStream.unseededKey());
+    }
+
+    /**
+     * A stable 64-bit key for an identifier, such as a patron id.
+     */
+    public static long keyOf(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int idx = 0; idx < value.length(); idx++) {
+            hash = (hash ^ value.charAt(idx)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * A reproducible version 4 UUID, such as the id of the patron with the given index.
+     */
+    public UUID uuid(final RandomPurpose purpose, final long index) {
+        final RandomStream random = this.atStep(0).stream(index, purpose);
+        final long mostSignificantBits = (random.nextLong() & ~0xf000L) | 0x4000L;
+        final long leastSignificantBits = (random.nextLong() & ~(0xc000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * The draws of a simulation step; step {@code 0} is used while setting the simulation up.
+     */
+    public StepRandom atStep(final int step) {
+        return new StepRandom(combine(this.key, step));
+    }
+
+    static long combine(final long key, final long coordinate) {
+        return mix(key + GOLDEN_GAMMA * (coordinate + 1));
+    }
+
+    static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The draws of one step of a simulation.
+     */
+    public static final class StepRandom {
+        private final long key;
+
+        private StepRandom(final long key) {
+            this.key = key;
+        }
+
+        public static StepRandom unseeded() {
+            return new StepRandom(RandomStream.unseededKey());
+        }
+
+        public RandomStream stream(final long patronKey, final RandomPurpose purpose) {
+            return this.stream(patronKey, purpose, 0);
+        }
+
+        public RandomStream stream(final long patronKey, final RandomPurpose purpose, final int index) {
+            final long purposeKey = ((long) purpose.ordinal() << 32) | (index & 0xffffffffL);
+            return new RandomStream(combine(combine(this.key, patronKey), purposeKey));
+        }
+    }
+}
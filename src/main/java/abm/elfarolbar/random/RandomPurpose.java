@@ -0,0 +1,12 @@
+package abm.elfarolbar.random;
+
+/**
+ * What a random draw is used for; part of the address of every draw so unrelated uses never share numbers.
+ */
+public enum RandomPurpose {
+    PATRON_ID,
+    DECISION,
+    REPLACEMENT,
+    STRATEGY_SELECTION,
+    PATRON_SAMPLE
+}
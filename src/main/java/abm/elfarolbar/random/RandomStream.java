@@ -0,0 +1,71 @@
+package abm.elfarolbar.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The numbers drawn at one address of a {@link CounterRandom}. Cheap to create and confined to the thread
+ * that draws from it.
+ */
+public final class RandomStream {
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final long UINT_RANGE = 1L << 32;
+    private static final long UINT_MASK = UINT_RANGE - 1;
+
+    private final long key;
+    private long counter;
+
+    RandomStream(final long key) {
+        this.key = key;
+    }
+
+    /**
+     * A stream with a fresh random key, for callers that do not need reproducible draws.
+     */
+    public static RandomStream unseeded() {
+        return new RandomStream(unseededKey());
+    }
+
+    static long unseededKey() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    public long nextLong() {
+        return CounterRandom.mix(this.key + CounterRandom.GOLDEN_GAMMA * ++this.counter);
+    }
+
+    /**
+     * A uniform double in {@code [0, 1)}.
+     */
+    public double nextDouble() {
+        return (this.nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    public boolean nextBoolean() {
+        return this.nextLong() < 0;
+    }
+
+    /**
+     * A uniform int in {@code [startInclusive, endExclusive)}, or {@code startInclusive} when the range is empty.
+     * Draws with Lemire's multiply-shift, rejecting the few products that would favour some values, so every
+     * value is exactly as likely.
+     */
+    public int nextInt(final int startInclusive, final int endExclusive) {
+        if (endExclusive == startInclusive) {
+            return startInclusive;
+        }
+        if (endExclusive < startInclusive) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range [%d, %d)", startInclusive, endExclusive));
+        }
+        // At most 2^32 - 1, so the product of a 32-bit draw and the bound fits an unsigned long
+        final long bound = (long) endExclusive - startInclusive;
+        long product = (this.nextLong() >>> 32) * bound;
+        if ((product & UINT_MASK) < bound) {
+            final long threshold = (UINT_RANGE - bound) % bound;
+            while ((product & UINT_MASK) < threshold) {
+                product = (this.nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (startInclusive + (product >>> 32));
+    }
+}
@@ -1,30 +1,61 @@
 package abm.elfarolbar.simulations;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
 import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronHistorySink;
 import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.agents.population.PatronListPopulation;
+import abm.elfarolbar.agents.population.Population;
+import abm.elfarolbar.exceptions.SimulationSnapshotFailureException;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
 import abm.elfarolbar.simulations.reporting.PatronSetupDetailsReport;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
 import abm.elfarolbar.simulations.reporting.Reportable;
 import abm.elfarolbar.simulations.reporting.SimulationDataset;
 import abm.elfarolbar.simulations.reporting.SimulationInputDataset;
 import abm.elfarolbar.simulations.reporting.SimulationReport;
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import abm.elfarolbar.simulations.reporting.StrategyDistributionFormat;
+import abm.elfarolbar.strategies.StrategyCatalog;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyDistributions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import com.google.common.primitives.Ints;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Builder
 @Getter
 @Log4j2
 public class Simulation implements Reportable<SimulationReport> {
+    private static final int SNAPSHOT_MAGIC = 0x45464253;
+    private static final int SNAPSHOT_VERSION = 4;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 16;
+
     @NonNull
     private final String simulationId;
     @NonNull
@@ -34,64 +65,326 @@ public class Simulation implements Reportable<SimulationReport> {
     @NonNull
     private final Bar bar;
     @NonNull
-    private final List<Patron> patrons;
+    private final Population population;
     @NonNull
     private final Set<DecisionStrategy> decisionStrategies;
     @NonNull
     private final Set<ReplacementStrategy> replacementStrategies;
-    @NonNull
-    private final List<Map<String, Integer>> strategyDistributions;
+    /**
+     * The catalog of the experiment's strategies, shared by its simulations so strategies are named and
+     * numbered once; one is built from {@link #decisionStrategies} and {@link #replacementStrategies} when
+     * unset.
+     */
+    @Getter(AccessLevel.NONE)
+    private final StrategyCatalog strategyCatalog;
 
     private final int simulationLength;
+    @NonNull
+    @Builder.Default
+    private final CounterRandom random = CounterRandom.unseeded();
+    /**
+     * The sink the patrons pass their history to, closed once the simulation has run.
+     */
+    @NonNull
+    @Builder.Default
+    private final PatronHistorySink historySink = PatronHistorySink.discard();
+    @NonNull
+    @Builder.Default
+    private final StepMode stepMode = StepMode.FUSED;
+    /**
+     * Steps between snapshots of the live state of the simulation, or {@code 0} to take none.
+     */
+    private final int snapshotInterval;
+    /**
+     * Where snapshots are written; a snapshot found there when the simulation starts is restored, so the
+     * simulation continues from the step it was taken at.
+     */
+    private final Path snapshotPath;
+    /**
+     * What the report of the simulation includes; data no report will include is not collected.
+     */
+    @NonNull
+    @Builder.Default
+    private final ReportDetail reportDetail = ReportDetail.FULL;
+    /**
+     * The patrons reported at {@link ReportDetail#SAMPLED_PATRONS}.
+     */
+    @NonNull
+    @Builder.Default
+    private final Set<String> sampledPatronIds = Set.of();
+    @NonNull
+    @Builder.Default
+    private final StrategyDistributionFormat distributionFormat = StrategyDistributionFormat.MAPS;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger completedSteps = new AtomicInteger();
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final StrategyCatalog resolvedStrategyCatalog = this.strategyCatalog != null
+            ? this.strategyCatalog
+            : StrategyCatalog.of(this.decisionStrategies, this.replacementStrategies);
+    @Getter(lazy = true)
+    private final StrategyUsage strategyUsage = new StrategyUsage(this.getResolvedStrategyCatalog().getDecisionStrategyOrdinals());
+    /**
+     * The strategy distribution of every step, or only the latest when the report only summarises them.
+     */
+    @Getter(lazy = true)
+    private final StrategyDistributions strategyDistributions = new StrategyDistributions(this.getStrategyUsage().getStrategyOrdinals());
+    @Getter(lazy = true)
+    private final SimulationStatistics statistics = new SimulationStatistics(this.bar.getMaxCapacity());
+
+    public List<Patron> getPatrons() {
+        return this.population.getPatrons();
+    }
 
     public void execute() {
-        IntStream.range(1, this.simulationLength + 1)
+        if (this.snapshotInterval > 0 && this.snapshotPath == null) {
+            throw new IllegalStateException(String.format("Simulation %s takes snapshots but has no snapshot path", this.simulationId));
+        }
+        if (this.snapshotPath != null && Files.exists(this.snapshotPath)) {
+            this.restore(this.snapshotPath);
+        }
+        IntStream.range(this.completedSteps() + 1, this.simulationLength + 1)
                 .forEach(step -> {
                     if (step % 50 == 0) {
                         log.info("{} \tStep {}", simulationId, step);
                     }
-                    this.simulate();
+                    this.simulate(this.random.atStep(step));
+                    if (this.snapshotInterval > 0 && step % this.snapshotInterval == 0 && step < this.simulationLength) {
+                        this.snapshot(this.snapshotPath);
+                    }
                 });
+        this.historySink.close();
+    }
+
+    /**
+     * Writes the live state of the simulation between steps to a compact binary snapshot: the attendance
+     * history, the strategy distributions so far and the state of every patron. Random draws are a function
+     * of the step, so the step itself is the position of the random number generator. The snapshot is
+     * written to a temporary file and renamed into place, so a crash leaves the previous snapshot intact.
+     */
+    public void snapshot(final Path path) {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), SNAPSHOT_BUFFER_SIZE))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(SNAPSHOT_VERSION);
+            output.writeUTF(this.simulationId);
+            output.writeInt(this.completedSteps());
+
+            final AttendanceHistory attendanceHistory = this.bar.getAttendanceHistory();
+            output.writeInt(attendanceHistory.size());
+            for (int index = 0; index < attendanceHistory.size(); index++) {
+                output.writeInt(attendanceHistory.getAttendance(index));
+            }
+
+            final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyUsage().getStrategyOrdinals();
+            output.writeInt(strategyOrdinals.size());
+            for (int ordinal = 0; ordinal < strategyOrdinals.size(); ordinal++) {
+                output.writeUTF(strategyOrdinals.nameOf(ordinal));
+            }
+            final StrategyDistributions strategyDistributions = this.getStrategyDistributions();
+            output.writeInt(strategyDistributions.size());
+            for (int step = 0; step < strategyDistributions.size(); step++) {
+                for (int ordinal = 0; ordinal < strategyOrdinals.size(); ordinal++) {
+                    output.writeInt(strategyDistributions.getUsers(step, ordinal));
+                }
+            }
+
+            this.getStatistics().writeState(output);
+            this.population.writeState(output);
+        } catch (final IOException ex) {
+            throw new SimulationSnapshotFailureException(String.format("Failed to snapshot simulation %s to %s", this.simulationId, path), ex);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException ex) {
+            throw new SimulationSnapshotFailureException(String.format("Failed to snapshot simulation %s to %s", this.simulationId, path), ex);
+        }
+        log.debug("{} \tSnapshot at step {}", this.simulationId, this.completedSteps());
+    }
+
+    /**
+     * Restores a snapshot taken by {@link #snapshot(Path)} into this simulation, which must be generated
+     * from the same design and not have stepped yet. Patron histories recorded before the snapshot are not
+     * part of it: a streaming history sink resumes its file, while retained histories only cover the steps
+     * after it.
+     */
+    public void restore(final Path path) {
+        if (this.completedSteps() > 0) {
+            throw new IllegalStateException(String.format("Simulation %s has already stepped", this.simulationId));
+        }
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), SNAPSHOT_BUFFER_SIZE))) {
+            final int magic = input.readInt();
+            final int version = input.readInt();
+            if (magic != SNAPSHOT_MAGIC || version != SNAPSHOT_VERSION) {
+                throw new SimulationSnapshotFailureException(String.format("%s is not a version %d simulation snapshot", path, SNAPSHOT_VERSION));
+            }
+            final String snapshotSimulationId = input.readUTF();
+            if (!snapshotSimulationId.equals(this.simulationId)) {
+                throw new SimulationSnapshotFailureException(String.format("%s is a snapshot of simulation %s, not %s", path, snapshotSimulationId, this.simulationId));
+            }
+            final int steps = input.readInt();
+
+            final int[] attendances = new int[input.readInt()];
+            for (int index = 0; index < attendances.length; index++) {
+                attendances[index] = input.readInt();
+            }
+
+            final DecisionStrategyOrdinals strategyOrdinals = this.getStrategyUsage().getStrategyOrdinals();
+            final int strategyCount = input.readInt();
+            final List<String> strategyNames = new ArrayList<>(strategyCount);
+            for (int ordinal = 0; ordinal < strategyCount; ordinal++) {
+                strategyNames.add(input.readUTF());
+            }
+            if (strategyOrdinals.size() != strategyCount
+                    || IntStream.range(0, strategyCount).anyMatch(ordinal -> !strategyNames.get(ordinal).equals(strategyOrdinals.nameOf(ordinal)))) {
+                throw new SimulationSnapshotFailureException(String.format("%s is a snapshot over strategies %s", path, strategyNames));
+            }
+            final int distributionCount = input.readInt();
+            final int[][] distributions = new int[distributionCount][strategyCount];
+            for (final int[] distribution : distributions) {
+                for (int ordinal = 0; ordinal < strategyCount; ordinal++) {
+                    distribution[ordinal] = input.readInt();
+                }
+            }
+
+            this.getStatistics().restoreState(input);
+            this.population.restoreState(input);
+            this.bar.restoreAttendanceHistory(Ints.asList(attendances));
+            for (final int[] distribution : distributions) {
+                this.getStrategyDistributions().add(distribution);
+            }
+            this.completedSteps.set(steps);
+        } catch (final IOException ex) {
+            throw new SimulationSnapshotFailureException(String.format("Failed to restore simulation %s from %s", this.simulationId, path), ex);
+        }
+        final boolean historyResumed = this.historySink.resume(this.completedSteps());
+        if (this.historySink.isEnabled() && !historyResumed) {
+            log.warn("{} \tRestored at step {}; patron histories only cover the steps after it", this.simulationId, this.completedSteps());
+        } else {
+            log.info("{} \tRestored at step {}", this.simulationId, this.completedSteps());
+        }
+    }
+
+    /**
+     * Deletes the snapshot of the simulation, once its results no longer need it.
+     */
+    public void discardSnapshot() {
+        if (this.snapshotPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(this.snapshotPath);
+        } catch (final IOException ex) {
+            throw new SimulationSnapshotFailureException(String.format("Failed to delete snapshot %s", this.snapshotPath), ex);
+        }
+    }
+
+    /**
+     * The steps simulated so far.
+     */
+    private int completedSteps() {
+        return this.completedSteps.get();
     }
 
-    private void simulate() {
-        this.decide();
-        this.record();
-        this.replaceAgentStrategies();
+    private void simulate(final StepRandom stepRandom) {
+        this.decide(stepRandom);
+        final int strategySwitches;
+        if (this.stepMode == StepMode.FUSED) {
+            strategySwitches = this.recordAndReplaceAgentStrategies(stepRandom);
+        } else {
+            this.record();
+            strategySwitches = this.replaceAgentStrategies(stepRandom);
+        }
+        this.getStatistics().recordStrategySwitches(strategySwitches);
+        this.historySink.endStep(this.completedSteps());
         this.resetRound();
     }
 
-    private void decide() {
-        this.patrons.parallelStream()
-                .forEach(patron -> patron.decide(this.bar));
+    private void decide(final StepRandom stepRandom) {
+        final SharedDecisions sharedDecisions = SharedDecisions.compute(this.bar, this.getResolvedStrategyCatalog(), this.population.getMemoryPropsSet());
+        this.population.decide(this.bar, sharedDecisions, this.getStrategyUsage(), stepRandom);
     }
 
     private void record() {
         this.bar.record();
-        this.patrons.parallelStream()
-                .forEach(patron -> patron.record(this.bar));
-        this.strategyDistributions.add(
-                this.decisionStrategies
-                        .stream()
-                        .collect(Collectors.toMap(DecisionStrategy::getName, DecisionStrategy::getUsers))
-        );
+        this.population.record(this.bar);
+        this.recordStep();
+    }
+
+    private int recordAndReplaceAgentStrategies(final StepRandom stepRandom) {
+        this.bar.record();
+        this.recordStep();
+        return this.population.recordAndReplaceStrategies(this.bar, stepRandom);
     }
 
-    private void replaceAgentStrategies() {
-        this.patrons.parallelStream()
-                .filter(Patron::shouldReplaceStrategy)
-                .forEach(Patron::selectNewStrategy);
+    /**
+     * Updates the statistics with the recorded attendance and keeps the strategy distribution of every step,
+     * or only the latest when the report only summarises them.
+     */
+    private void recordStep() {
+        this.getStatistics().recordAttendance(this.bar.getAttendance(), this.bar.isOvercrowded());
+        if (this.reportDetail.includesSeries()) {
+            this.getStrategyDistributions().record(this.getStrategyUsage());
+        } else {
+            this.getStrategyDistributions().replaceLast(this.getStrategyUsage());
+        }
+        this.completedSteps.incrementAndGet();
+    }
+
+    private int replaceAgentStrategies(final StepRandom stepRandom) {
+        return this.population.replaceStrategies(stepRandom);
     }
 
     private void resetRound() {
         this.bar.reset();
-        this.decisionStrategies
-                .parallelStream()
-                .forEach(DecisionStrategy::reset);
+        this.getStrategyUsage().reset();
     }
 
     @Override
     public SimulationReport generateReport() {
+        final SimulationDataset dataset = SimulationDataset.builder()
+                .summary(this.generateSummary())
+                .attendanceHistory(this.reportDetail.includesSeries() ? this.bar.getAttendanceHistory() : null)
+                .strategyDistributions(this.reportDetail.includesSeries() && this.distributionFormat == StrategyDistributionFormat.MAPS
+                        ? this.getStrategyDistributions().toDistributions()
+                        : null)
+                .strategyDistributionMatrix(this.reportDetail.includesSeries() && this.distributionFormat == StrategyDistributionFormat.MATRIX
+                        ? this.getStrategyDistributions()
+                        : null)
+                .patronReports(this.reportDetail.includesPatrons() ? this.streamPatronReports().toList() : null)
+                .build();
+
+        return SimulationReport.builder()
+                .input(this.generateInputReport())
+                .dataset(dataset)
+                .build();
+    }
+
+    /**
+     * The reports of the patrons {@link #reportDetail} includes: every patron, the sampled patrons or none.
+     */
+    public Stream<PatronReport> streamPatronReports() {
+        return switch (this.reportDetail) {
+            case FULL -> this.population.streamReports();
+            case SAMPLED_PATRONS -> this.population.streamReports()
+                    .filter(patronReport -> this.sampledPatronIds.contains(patronReport.getId()));
+            case SUMMARY, DISTRIBUTIONS -> Stream.empty();
+        };
+    }
+
+    /**
+     * Attendance and strategy use over the simulated steps, leaving out the bar's previous history, from the
+     * statistics kept as the simulation ran.
+     */
+    public SimulationSummary generateSummary() {
+        return this.getStatistics().toSummary(this.getStrategyDistributions().last());
+    }
+
+    /**
+     * The input section of the report: the bar and the initial patron setup the simulation started from.
+     */
+    public SimulationInputDataset generateInputReport() {
         final List<PatronSetupDetailsReport> initialPatronSetupDetailsReport =
                 this.initialPatronSetupDetails.stream()
                         .map(patronSetupDetails -> PatronSetupDetailsReport.builder()
@@ -100,26 +393,18 @@ public class Simulation implements Reportable<SimulationReport> {
                                 .build())
                         .collect(Collectors.toList());
 
-        final SimulationInputDataset input = SimulationInputDataset.builder()
+        return SimulationInputDataset.builder()
                 .barCapacity(this.bar.getMaxCapacity())
                 .simulationLength(this.simulationLength)
                 .barPreviousHistory(this.barPreviousHistory)
                 .initialPatronSetupDetails(initialPatronSetupDetailsReport)
                 .build();
+    }
 
-        final List<PatronReport> patronReports = this.patrons.stream()
-                .map(Patron::generateReport)
-                .collect(Collectors.toList());
-
-        final SimulationDataset dataset = SimulationDataset.builder()
-                .attendanceHistory(this.bar.getAttendanceHistory())
-                .strategyDistributions(this.strategyDistributions)
-                .patronReports(patronReports)
-                .build();
-
-        return SimulationReport.builder()
-                .input(input)
-                .dataset(dataset)
-                .build();
+    public static class SimulationBuilder {
+        public SimulationBuilder patrons(final List<Patron> patrons) {
+            this.population = new PatronListPopulation(patrons);
+            return this;
+        }
     }
 }
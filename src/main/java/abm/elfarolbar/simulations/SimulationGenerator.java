@@ -2,26 +2,43 @@ package abm.elfarolbar.simulations;
 
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronHistorySink;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.RetainedPatronHistory;
+import abm.elfarolbar.agents.population.PatronArrayPopulation;
+import abm.elfarolbar.agents.population.PatronListPopulation;
+import abm.elfarolbar.agents.population.Population;
+import abm.elfarolbar.agents.population.PopulationLayout;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.random.RandomStream;
+import abm.elfarolbar.simulations.reporting.JsonLinesPatronHistorySink;
+import abm.elfarolbar.simulations.reporting.PatronHistoryRetention;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
+import abm.elfarolbar.simulations.reporting.StrategyDistributionFormat;
+import abm.elfarolbar.strategies.StrategyCatalog;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import java.util.Collection;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Value;
 
-@Builder
+@Builder(toBuilder = true)
 @Value
 public class SimulationGenerator {
+    private static final int DEFAULT_PATIENCE = 5;
+
     @Builder.Default
     int barCapacity = 60;
     @Builder.Default
@@ -34,38 +51,104 @@ public class SimulationGenerator {
     Set<DecisionStrategy> decisionStrategies;
     @NonNull
     Set<ReplacementStrategy> replacementStrategies;
+    /**
+     * The catalog of the experiment's strategies, shared by every generated simulation; one is built from
+     * {@link #decisionStrategies} and {@link #replacementStrategies} when unset.
+     */
+    StrategyCatalog strategyCatalog;
+    /**
+     * Steps every patron remembers.
+     */
+    @Builder.Default
+    int memoryLength = 5;
+    @Builder.Default
+    PopulationLayout populationLayout = PopulationLayout.OBJECTS;
+    /**
+     * Experiment seed that, with the simulation id, determines every random draw of a generated simulation;
+     * a fresh seed is drawn per simulation when unset.
+     */
+    Long seed;
+    /**
+     * What happens to patron histories; derived from the report detail when unset, see
+     * {@link PatronHistoryRetention#resolve}.
+     */
+    PatronHistoryRetention historyRetention;
+    /**
+     * Directory of the patron history files when histories are streamed.
+     */
+    String historyOutputPath;
+    @Builder.Default
+    StepMode stepMode = StepMode.FUSED;
+    /**
+     * Steps between snapshots of a generated simulation, or {@code 0} to take none.
+     */
+    int snapshotInterval;
+    /**
+     * Directory of the snapshot files, written as {@code <simulationId>.snapshot}; generated simulations
+     * restore a snapshot found there.
+     */
+    String snapshotOutputPath;
+    @Builder.Default
+    ReportDetail reportDetail = ReportDetail.FULL;
+    /**
+     * Patrons reported at {@link ReportDetail#SAMPLED_PATRONS}.
+     */
+    @Builder.Default
+    int sampledPatrons = 10;
+    @Builder.Default
+    StrategyDistributionFormat distributionFormat = StrategyDistributionFormat.MAPS;
 
     public Simulation generate(final String simulationId) {
-        final Map<String, DecisionStrategy> decisionStrategiesMap = this.getDecisionStrategies()
-                .stream()
-                .collect(Collectors.toMap(DecisionStrategy::getName, strategy -> strategy, (first, second) -> first));
+        final StrategyCatalog strategyCatalog = this.getStrategyCatalog() != null
+                ? this.getStrategyCatalog()
+                : StrategyCatalog.of(this.getDecisionStrategies(), this.getReplacementStrategies());
+        final Map<String, DecisionStrategy> decisionStrategiesMap = strategyCatalog.decisionStrategiesByName();
+        final Map<String, ReplacementStrategy> replacementStrategiesMap = strategyCatalog.replacementStrategiesByName();
 
-        final Map<String, ReplacementStrategy> replacementStrategiesMap = this.getReplacementStrategies()
-                .stream()
-                .collect(Collectors.toMap(ReplacementStrategy::getName, strategy -> strategy, (first, second) -> first));
+        final long experimentSeed = this.getSeed() != null ? this.getSeed() : ThreadLocalRandom.current().nextLong();
+        final CounterRandom random = CounterRandom.of(experimentSeed, simulationId);
 
-        final List<Patron> patrons = this.getPatronSetupDetailsList().parallelStream()
-                .map(patronSetupDetails -> IntStream.range(0, patronSetupDetails.getCount())
-                        .mapToObj(i -> patronSetupDetails)
-                        .collect(Collectors.toList()))
-                .flatMap(Collection::parallelStream)
-                .map(patronSetupDetails -> Patron.builder()
-                        .id(UUID.randomUUID().toString())
-                        .decisionStrategies(decisionStrategiesMap)
-                        .decisionStrategyName(patronSetupDetails.getDecisionStrategyName())
-                        .replacementStrategy(replacementStrategiesMap.get(patronSetupDetails.getReplacementStrategyName()))
-                        .memoryProps(
-                                PatronMemoryProps.builder()
-                                        .failureTolerance(0.1f)
-                                        .build()
-                        )
-                        .build())
-                .toList();
+        final Set<String> sampledPatronIds = this.getReportDetail() == ReportDetail.SAMPLED_PATRONS
+                ? this.samplePatronIds(random)
+                : Set.of();
+        final PatronHistorySink historySink = this.createHistorySink(simulationId, sampledPatronIds);
+
+        final PatronMemoryProps memoryProps = PatronMemoryProps.builder()
+                .failureTolerance(0.1f)
+                .memoryLength(this.getMemoryLength())
+                .build();
+
+        final Population population = switch (this.getPopulationLayout()) {
+            case OBJECTS -> {
+                final List<PatronSetupDetails> patronSetupDetailsPerPatron = this.getPatronSetupDetailsList().stream()
+                        .flatMap(patronSetupDetails -> Collections.nCopies(patronSetupDetails.getCount(), patronSetupDetails).stream())
+                        .toList();
+                yield new PatronListPopulation(IntStream.range(0, patronSetupDetailsPerPatron.size())
+                        .parallel()
+                        .mapToObj(patron -> Patron.builder()
+                                .id(random.uuid(RandomPurpose.PATRON_ID, patron).toString())
+                                .decisionStrategies(decisionStrategiesMap)
+                                .decisionStrategyName(patronSetupDetailsPerPatron.get(patron).getDecisionStrategyName())
+                                .replacementStrategy(replacementStrategiesMap.get(patronSetupDetailsPerPatron.get(patron).getReplacementStrategyName()))
+                                .memoryProps(memoryProps)
+                                .historySink(historySink)
+                                .build())
+                        .toList());
+            }
+            case ARRAYS -> PatronArrayPopulation.create(
+                    strategyCatalog.getDecisionStrategies(),
+                    replacementStrategiesMap,
+                    this.getPatronSetupDetailsList(),
+                    memoryProps,
+                    DEFAULT_PATIENCE,
+                    random,
+                    historySink);
+        };
 
         final Bar bar = Bar.builder()
             .maxCapacity(barCapacity)
             .attendanceHistory(Lists.newArrayList(barPreviousHistory))
-            .totalPopulation(patrons.size())
+            .totalPopulation(population.size())
             .build();
 
         return Simulation.builder()
@@ -74,10 +157,55 @@ public class SimulationGenerator {
             .simulationLength(simulationLength)
             .initialPatronSetupDetails(patronSetupDetailsList)
             .bar(bar)
-            .patrons(patrons)
-            .decisionStrategies(ImmutableSet.copyOf(decisionStrategiesMap.values()))
-            .replacementStrategies(ImmutableSet.copyOf(replacementStrategiesMap.values()))
-            .strategyDistributions(Lists.newArrayList())
+            .population(population)
+            .decisionStrategies(ImmutableSet.copyOf(strategyCatalog.getDecisionStrategies()))
+            .replacementStrategies(ImmutableSet.copyOf(strategyCatalog.getReplacementStrategies()))
+            .strategyCatalog(strategyCatalog)
+            .random(random)
+            .historySink(historySink)
+            .stepMode(stepMode)
+            .snapshotInterval(snapshotInterval)
+            .snapshotPath(snapshotOutputPath == null ? null : Paths.get(snapshotOutputPath, String.format("%s.snapshot", simulationId)))
+            .reportDetail(reportDetail)
+            .distributionFormat(distributionFormat)
+            .sampledPatronIds(sampledPatronIds)
             .build();
     }
+
+    /**
+     * Draws {@link #sampledPatrons} distinct patrons with Floyd's algorithm and returns their ids, which both
+     * population layouts derive from the patron index.
+     */
+    private Set<String> samplePatronIds(final CounterRandom random) {
+        final int populationSize = this.getPatronSetupDetailsList().stream().mapToInt(PatronSetupDetails::getCount).sum();
+        final RandomStream sample = random.atStep(0).stream(0L, RandomPurpose.PATRON_SAMPLE);
+        final Set<Integer> patrons = new HashSet<>();
+        for (int candidate = populationSize - Math.min(this.getSampledPatrons(), populationSize); candidate < populationSize; candidate++) {
+            final int patron = sample.nextInt(0, candidate + 1);
+            patrons.add(patrons.contains(patron) ? candidate : patron);
+        }
+        return patrons.stream()
+                .map(patron -> random.uuid(RandomPurpose.PATRON_ID, patron).toString())
+                .collect(ImmutableSet.toImmutableSet());
+    }
+
+    /**
+     * Histories are only retained for the patrons the report includes.
+     */
+    private PatronHistorySink createHistorySink(final String simulationId, final Set<String> sampledPatronIds) {
+        return switch (PatronHistoryRetention.resolve(this.getHistoryRetention(), this.getReportDetail())) {
+            case NONE -> PatronHistorySink.discard();
+            case REPORT -> switch (this.getReportDetail()) {
+                case FULL -> new RetainedPatronHistory();
+                case SAMPLED_PATRONS -> new RetainedPatronHistory(sampledPatronIds);
+                case SUMMARY, DISTRIBUTIONS -> PatronHistorySink.discard();
+            };
+            case STREAM -> {
+                if (this.getHistoryOutputPath() == null) {
+                    throw new IllegalStateException("Streaming patron histories requires a history output path");
+                }
+                yield new JsonLinesPatronHistorySink(Paths.get(this.getHistoryOutputPath(), String.format("%s.history.jsonl", simulationId)));
+            }
+        };
+    }
 }
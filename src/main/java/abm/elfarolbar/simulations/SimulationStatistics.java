@@ -0,0 +1,83 @@
+package abm.elfarolbar.simulations;
+
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Summary statistics of a simulation, updated in constant time as each step is recorded so they never need
+ * the per-step series. The attendance mean and variance are kept with Welford's algorithm, which stays
+ * accurate over long runs where summing squares would not.
+ *
+ * <p>Not thread-safe: updated by the simulation between the parallel phases of a step.
+ */
+public class SimulationStatistics {
+    /**
+     * Attendance within this share of the bar capacity, above or below it, counts as near capacity.
+     */
+    static final double NEAR_CAPACITY_SHARE = 0.1;
+
+    private final int barCapacity;
+    private final double nearCapacityMargin;
+    private int steps;
+    private double meanAttendance;
+    private double squaredDeviations;
+    private int overcrowdedSteps;
+    private int stepsNearCapacity;
+    private long strategySwitches;
+
+    public SimulationStatistics(final int barCapacity) {
+        this.barCapacity = barCapacity;
+        this.nearCapacityMargin = barCapacity * NEAR_CAPACITY_SHARE;
+    }
+
+    public void recordAttendance(final int attendance, final boolean overcrowded) {
+        this.steps++;
+        final double deviation = attendance - this.meanAttendance;
+        this.meanAttendance += deviation / this.steps;
+        this.squaredDeviations += deviation * (attendance - this.meanAttendance);
+        if (overcrowded) {
+            this.overcrowdedSteps++;
+        }
+        if (Math.abs(attendance - this.barCapacity) <= this.nearCapacityMargin) {
+            this.stepsNearCapacity++;
+        }
+    }
+
+    public void recordStrategySwitches(final int switches) {
+        this.strategySwitches += switches;
+    }
+
+    public SimulationSummary toSummary(final Map<String, Integer> finalStrategyDistribution) {
+        return SimulationSummary.builder()
+                .steps(this.steps)
+                .meanAttendance(this.meanAttendance)
+                .attendanceVariance(this.steps == 0 ? 0.0 : this.squaredDeviations / this.steps)
+                .overcrowdedSteps(this.overcrowdedSteps)
+                .overcrowdingFrequency(this.steps == 0 ? 0.0 : (double) this.overcrowdedSteps / this.steps)
+                .stepsNearCapacity(this.stepsNearCapacity)
+                .strategySwitches(this.strategySwitches)
+                .finalStrategyDistribution(finalStrategyDistribution)
+                .build();
+    }
+
+    public void writeState(final DataOutput output) throws IOException {
+        output.writeInt(this.steps);
+        output.writeDouble(this.meanAttendance);
+        output.writeDouble(this.squaredDeviations);
+        output.writeInt(this.overcrowdedSteps);
+        output.writeInt(this.stepsNearCapacity);
+        output.writeLong(this.strategySwitches);
+    }
+
+    public void restoreState(final DataInput input) throws IOException {
+        this.steps = input.readInt();
+        this.meanAttendance = input.readDouble();
+        this.squaredDeviations = input.readDouble();
+        this.overcrowdedSteps = input.readInt();
+        this.stepsNearCapacity = input.readInt();
+        this.strategySwitches = input.readLong();
+    }
+}
@@ -0,0 +1,16 @@
+package abm.elfarolbar.simulations;
+
+/**
+ * How a {@link Simulation} walks its population in each step. Both modes give the same results.
+ */
+public enum StepMode {
+    /**
+     * One pass over the population per phase: decide, record, replace strategies.
+     */
+    PHASED,
+    /**
+     * Only the passes the phases require: one to decide and count attendance, and one that records the
+     * outcome and replaces strategies, which only need the finished attendance of the step.
+     */
+    FUSED
+}
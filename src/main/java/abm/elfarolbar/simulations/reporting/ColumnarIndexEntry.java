@@ -0,0 +1,57 @@
+package abm.elfarolbar.simulations.reporting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Where the columns of one simulation start in a columnar result file and how long they are, kept as one
+ * line of the index next to it.
+ */
+@Builder
+@Value
+@Jacksonized
+class ColumnarIndexEntry {
+    String simulationId;
+    long executionTime;
+    /**
+     * The input section of the report, see {@link SimulationInputDataset}.
+     */
+    JsonNode input;
+    long offset;
+    int attendanceCount;
+    List<String> strategyNames;
+    int distributionSteps;
+    /**
+     * How exported reports hold the strategy distributions; entries written before the matrix have none and
+     * export a map per step.
+     */
+    StrategyDistributionFormat distributionFormat;
+    List<String> patronIds;
+    int decisionSteps;
+
+    long distributionsOffset() {
+        return this.offset + (long) Integer.BYTES * this.attendanceCount;
+    }
+
+    /**
+     * Decision columns start at the next multiple of eight bytes, so they can be viewed as longs.
+     */
+    long decisionsOffset() {
+        return align(this.distributionsOffset() + (long) Integer.BYTES * this.strategyNames.size() * this.distributionSteps);
+    }
+
+    int decisionWords() {
+        return (this.decisionSteps + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    long endOffset() {
+        return this.decisionsOffset() + (long) Long.BYTES * this.decisionWords() * this.patronIds.size();
+    }
+
+    static long align(final long offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
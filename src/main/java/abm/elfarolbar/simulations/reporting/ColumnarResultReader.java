@@ -0,0 +1,182 @@
+package abm.elfarolbar.simulations.reporting;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reads a columnar result file written by {@link ColumnarResultWriter}, mapping the columns of a simulation
+ * into memory only when it is asked for. A simulation appended more than once, when a shard was resumed
+ * after its columns were indexed but before it was marked completed, reads as its last copy.
+ */
+@Log4j2
+public class ColumnarResultReader implements Closeable {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path dataFile;
+    private final FileChannel data;
+    private final Map<String, ColumnarIndexEntry> entries;
+
+    private ColumnarResultReader(final Path dataFile, final FileChannel data, final Map<String, ColumnarIndexEntry> entries) {
+        this.dataFile = dataFile;
+        this.data = data;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens a columnar result file and reads its index; a last line torn by a crash is ignored.
+     */
+    public static ColumnarResultReader open(final Path dataFile) throws IOException {
+        final List<String> lines = Files.readAllLines(ColumnarResultWriter.indexOf(dataFile), StandardCharsets.UTF_8);
+        final Map<String, ColumnarIndexEntry> entries = new LinkedHashMap<>();
+        for (int lineNumber = 0; lineNumber < lines.size(); lineNumber++) {
+            try {
+                final ColumnarIndexEntry entry = OBJECT_MAPPER.readValue(lines.get(lineNumber), ColumnarIndexEntry.class);
+                entries.put(entry.getSimulationId(), entry);
+            } catch (final JsonProcessingException ex) {
+                if (lineNumber < lines.size() - 1) {
+                    throw ex;
+                }
+                log.warn("Ignoring torn last line of the index of {}", dataFile);
+            }
+        }
+
+        final FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ);
+        try {
+            ColumnarResultWriter.checkHeader(dataFile, data);
+            for (final ColumnarIndexEntry entry : entries.values()) {
+                if (entry.endOffset() > data.size()) {
+                    throw new IllegalStateException(String.format("%s is truncated, simulation %s ends at %d",
+                            dataFile, entry.getSimulationId(), entry.endOffset()));
+                }
+            }
+        } catch (final IOException | RuntimeException ex) {
+            data.close();
+            throw ex;
+        }
+        return new ColumnarResultReader(dataFile, data, entries);
+    }
+
+    /**
+     * The simulations in the file, in the order they were appended.
+     */
+    public Set<String> getSimulationIds() {
+        return this.entries.keySet();
+    }
+
+    /**
+     * Maps the columns of a simulation; the mapping stays valid after this reader is closed.
+     */
+    public SimulationColumns get(final String simulationId) throws IOException {
+        final ColumnarIndexEntry entry = this.entries.get(simulationId);
+        if (entry == null) {
+            throw new IllegalArgumentException(String.format("%s has no simulation %s", this.dataFile, simulationId));
+        }
+        return new SimulationColumns(entry, this.data.map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), entry.endOffset() - entry.getOffset()));
+    }
+
+    /**
+     * Writes the columns of a simulation in the columnar JSON format: its input, attendance history and
+     * strategy distributions laid out as in a {@link SimulationReport}, a {@code patronDecisions} array with
+     * the decisions of every patron, and its execution time. This is not a {@link SimulationReport}: the
+     * columns keep no summary, patron memory or strategies, so there are no {@code patronReports} to export.
+     */
+    public void exportColumnarJson(final String simulationId, final ObjectWriter objectWriter, final File file) throws IOException {
+        final SimulationColumns columns = this.get(simulationId);
+        try (final JsonGenerator generator = objectWriter.createGenerator(file, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeFieldName("input");
+            generator.writeTree(columns.getInput());
+
+            generator.writeObjectFieldStart("dataset");
+            generator.writeArrayFieldStart("attendanceHistory");
+            final IntBuffer attendanceHistory = columns.attendanceHistory();
+            while (attendanceHistory.hasRemaining()) {
+                generator.writeNumber(attendanceHistory.get());
+            }
+            generator.writeEndArray();
+
+            final List<String> strategyNames = columns.getStrategyNames();
+            final IntBuffer[] strategyDistributions = strategyNames.stream()
+                    .map(columns::strategyDistribution)
+                    .toArray(IntBuffer[]::new);
+            if (columns.getDistributionFormat() == StrategyDistributionFormat.MATRIX) {
+                generator.writeObjectFieldStart("strategyDistributionMatrix");
+                generator.writeArrayFieldStart("strategies");
+                for (final String strategyName : strategyNames) {
+                    generator.writeString(strategyName);
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("users");
+                for (int step = 0; step < columns.getDistributionSteps(); step++) {
+                    generator.writeStartArray();
+                    for (final IntBuffer strategyDistribution : strategyDistributions) {
+                        generator.writeNumber(strategyDistribution.get(step));
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            } else {
+                generator.writeArrayFieldStart("strategyDistributions");
+                for (int step = 0; step < columns.getDistributionSteps(); step++) {
+                    generator.writeStartObject();
+                    for (int ordinal = 0; ordinal < strategyNames.size(); ordinal++) {
+                        generator.writeNumberField(strategyNames.get(ordinal), strategyDistributions[ordinal].get(step));
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+
+            generator.writeArrayFieldStart("patronDecisions");
+            for (int patronIndex = 0; patronIndex < columns.getPatronIds().size(); patronIndex++) {
+                generator.writeStartObject();
+                generator.writeStringField("id", columns.getPatronIds().get(patronIndex));
+                generator.writeArrayFieldStart("decisions");
+                final LongBuffer decisions = columns.patronDecisions(patronIndex);
+                for (int step = 0; step < columns.getDecisionSteps(); step++) {
+                    generator.writeBoolean((decisions.get(step / Long.SIZE) & (1L << step)) != 0);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            generator.writeNumberField("executionTime", columns.getExecutionTime());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Exports every simulation in the file to {@code <simulationId>.columnar.json} in {@code directory}.
+     */
+    public void exportColumnarJson(final ObjectWriter objectWriter, final Path directory) throws IOException {
+        for (final String simulationId : this.getSimulationIds()) {
+            this.exportColumnarJson(simulationId, objectWriter, directory.resolve(String.format("%s.columnar.json", simulationId)).toFile());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.data.close();
+    }
+}
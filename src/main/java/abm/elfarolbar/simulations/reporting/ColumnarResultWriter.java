@@ -0,0 +1,228 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.actors.bars.AttendanceHistory;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.agents.patron.PatronHistoryEvent;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.strategies.decision.StrategyDistributions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Appends the results of every simulation of a shard to one columnar file instead of a JSON report each:
+ * the attendance history as an int column, the strategy distributions as an int column per strategy and the
+ * decisions of every patron as a bit column, all little-endian. Each simulation's columns are forced to disk
+ * before a line locating them is appended to the index file next to it, so a simulation whose index line is
+ * missing after a crash simply runs again and its columns are left unreferenced. Read with
+ * {@link ColumnarResultReader}.
+ *
+ * <p>Patron memory props and the decisions of the strategies a patron was not using are not stored; write
+ * {@link ReportFormat#JSON} reports when those are needed. Columns follow the simulation's
+ * {@link ReportDetail}: patron columns are only written for the patrons it reports, and at
+ * {@link ReportDetail#SUMMARY} the distributions hold the final step only.
+ */
+@Log4j2
+public class ColumnarResultWriter implements SimulationResultSink {
+    static final int MAGIC = 0x45464243;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final String INDEX_SUFFIX = ".index";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path dataFile;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    private ColumnarResultWriter(final Path dataFile, final FileChannel data, final FileChannel index) {
+        this.dataFile = dataFile;
+        this.data = data;
+        this.index = index;
+    }
+
+    /**
+     * Opens the columnar file for appending, creating it when missing. A line of the index torn by a crash is
+     * dropped, so appended lines start on a line of their own.
+     */
+    public static ColumnarResultWriter open(final Path dataFile) throws IOException {
+        final FileChannel data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel index = FileChannel.open(indexOf(dataFile), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (data.size() == 0) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .flip();
+                data.write(header, 0);
+            } else {
+                checkHeader(dataFile, data);
+            }
+            index.truncate(completeLinesLength(index));
+            index.position(index.size());
+        } catch (final IOException | RuntimeException ex) {
+            data.close();
+            index.close();
+            throw ex;
+        }
+        return new ColumnarResultWriter(dataFile, data, index);
+    }
+
+    @Override
+    public synchronized long accept(final Simulation simulation, final long executionTime) throws IOException {
+        final long offset = ColumnarIndexEntry.align(this.data.size());
+        this.position = offset;
+        // A simulation that failed part way leaves its columns in the buffer, which must not prefix the next one
+        this.buffer.clear();
+
+        final AttendanceHistory attendanceHistory = simulation.getBar().getAttendanceHistory();
+        for (int step = 0; step < attendanceHistory.size(); step++) {
+            this.putInt(attendanceHistory.getAttendance(step));
+        }
+
+        final DecisionStrategyOrdinals strategyOrdinals = simulation.getStrategyUsage().getStrategyOrdinals();
+        final StrategyDistributions strategyDistributions = simulation.getStrategyDistributions();
+        final List<String> strategyNames = new ArrayList<>(strategyOrdinals.size());
+        for (int ordinal = 0; ordinal < strategyOrdinals.size(); ordinal++) {
+            strategyNames.add(strategyOrdinals.nameOf(ordinal));
+            for (int step = 0; step < strategyDistributions.size(); step++) {
+                this.putInt(strategyDistributions.getUsers(step, ordinal));
+            }
+        }
+
+        this.alignToLong();
+        final List<String> patronIds = new ArrayList<>();
+        int decisionSteps = -1;
+        try (final Stream<PatronReport> patronReports = simulation.streamPatronReports()) {
+            for (final Iterator<PatronReport> iterator = patronReports.iterator(); iterator.hasNext(); ) {
+                final PatronReport patronReport = iterator.next();
+                final List<PatronHistoryEvent> history = patronReport.getHistory();
+                if (decisionSteps >= 0 && history.size() != decisionSteps) {
+                    throw new IllegalStateException(String.format("Patron %s of simulation %s has %d steps of history, not %d",
+                            patronReport.getId(), simulation.getSimulationId(), history.size(), decisionSteps));
+                }
+                decisionSteps = history.size();
+                patronIds.add(patronReport.getId());
+                this.putDecisions(history);
+            }
+        }
+        this.flush();
+        this.data.force(false);
+
+        final ColumnarIndexEntry entry = ColumnarIndexEntry.builder()
+                .simulationId(simulation.getSimulationId())
+                .executionTime(executionTime)
+                .input(OBJECT_MAPPER.valueToTree(simulation.generateInputReport()))
+                .offset(offset)
+                .attendanceCount(attendanceHistory.size())
+                .strategyNames(ImmutableList.copyOf(strategyNames))
+                .distributionSteps(strategyDistributions.size())
+                .distributionFormat(simulation.getDistributionFormat())
+                .patronIds(patronIds)
+                .decisionSteps(Math.max(decisionSteps, 0))
+                .build();
+        final ByteBuffer line = ByteBuffer.wrap((OBJECT_MAPPER.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            this.index.write(line);
+        }
+        this.index.force(false);
+        log.debug("{} \tAppended to {} at {}", simulation.getSimulationId(), this.dataFile, offset);
+        return entry.endOffset() - offset + line.capacity();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try (this.data; this.index) {
+            log.debug("Closing {}", this.dataFile);
+        }
+    }
+
+    static Path indexOf(final Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + INDEX_SUFFIX);
+    }
+
+    static void checkHeader(final Path dataFile, final FileChannel data) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && data.read(header, header.position()) >= 0) {
+            // read the whole header
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IllegalStateException(String.format("%s is not a columnar result file", dataFile));
+        }
+    }
+
+    private static long completeLinesLength(final FileChannel index) throws IOException {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(1);
+        for (long length = index.size(); length > 0; length--) {
+            byteBuffer.clear();
+            index.read(byteBuffer, length - 1);
+            if (byteBuffer.get(0) == '\n') {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    private void putDecisions(final List<PatronHistoryEvent> history) throws IOException {
+        long word = 0L;
+        for (int step = 0; step < history.size(); step++) {
+            if (history.get(step).decided()) {
+                word |= 1L << step;
+            }
+            if ((step & (Long.SIZE - 1)) == Long.SIZE - 1) {
+                this.putLong(word);
+                word = 0L;
+            }
+        }
+        if ((history.size() & (Long.SIZE - 1)) != 0) {
+            this.putLong(word);
+        }
+    }
+
+    private void putInt(final int value) throws IOException {
+        if (this.buffer.remaining() < Integer.BYTES) {
+            this.flush();
+        }
+        this.buffer.putInt(value);
+    }
+
+    private void putLong(final long value) throws IOException {
+        if (this.buffer.remaining() < Long.BYTES) {
+            this.flush();
+        }
+        this.buffer.putLong(value);
+    }
+
+    private void alignToLong() throws IOException {
+        while (((this.position + this.buffer.position()) & (Long.BYTES - 1)) != 0) {
+            if (!this.buffer.hasRemaining()) {
+                this.flush();
+            }
+            this.buffer.put((byte) 0);
+        }
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.position += this.data.write(this.buffer, this.position);
+        }
+        this.buffer.clear();
+    }
+}
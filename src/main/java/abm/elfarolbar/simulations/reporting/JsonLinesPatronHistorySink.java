@@ -0,0 +1,165 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.agents.patron.PatronHistoryEvent;
+import abm.elfarolbar.agents.patron.PatronHistorySink;
+import abm.elfarolbar.exceptions.SimulationReportingFailureException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Value;
+
+/**
+ * Streams patron history events to a file, one JSON object per line holding the patron id, the step and the
+ * event. The file is only created once the first event arrives.
+ *
+ * <p>Patrons recording in parallel each append to a buffer of their worker thread, and the buffers are
+ * written once per step, so lines of one step interleave by worker but every step follows the previous
+ * one. A buffer that outgrows 64 KiB within a step is written early.
+ */
+public class JsonLinesPatronHistorySink implements PatronHistorySink {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer();
+    private static final int WORKER_BUFFER_LIMIT = 1 << 16;
+
+    private final Path path;
+    private final List<StringBuilder> workerBuffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<StringBuilder> workerBuffer = ThreadLocal.withInitial(this::newWorkerBuffer);
+    private boolean append;
+    private Writer writer;
+
+    public JsonLinesPatronHistorySink(final Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void accept(final String patronId, final int step, final PatronHistoryEvent event) {
+        final StringBuilder buffer = this.workerBuffer.get();
+        try {
+            buffer.append(OBJECT_WRITER.writeValueAsString(new PatronHistoryLine(patronId, step, event))).append('\n');
+        } catch (final JsonProcessingException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to write patron history to %s", this.path), ex);
+        }
+        if (buffer.length() >= WORKER_BUFFER_LIMIT) {
+            synchronized (this) {
+                this.write(buffer);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void endStep(final int step) {
+        this.writeBuffers();
+        if (this.writer == null) {
+            return;
+        }
+        try {
+            this.writer.flush();
+        } catch (final IOException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to write patron history to %s", this.path), ex);
+        }
+    }
+
+    /**
+     * Keeps the lines of the first {@code completedSteps} steps, dropping any written after the snapshot
+     * before the simulation stopped, and appends to them from then on.
+     */
+    @Override
+    public synchronized boolean resume(final int completedSteps) {
+        this.append = true;
+        if (!Files.exists(this.path)) {
+            return true;
+        }
+        final Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        try (final BufferedReader reader = Files.newBufferedReader(this.path, StandardCharsets.UTF_8);
+             final Writer kept = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (stepOf(line) <= completedSteps) {
+                    kept.write(line);
+                    kept.write('\n');
+                }
+            }
+        } catch (final IOException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to resume patron history %s", this.path), ex);
+        }
+        try {
+            Files.move(temporary, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to resume patron history %s", this.path), ex);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.writeBuffers();
+            if (this.writer != null) {
+                this.writer.close();
+            }
+        } catch (final IOException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to write patron history to %s", this.path), ex);
+        } finally {
+            this.writer = null;
+        }
+    }
+
+    private StringBuilder newWorkerBuffer() {
+        final StringBuilder buffer = new StringBuilder();
+        this.workerBuffers.add(buffer);
+        return buffer;
+    }
+
+    private void writeBuffers() {
+        for (final StringBuilder buffer : this.workerBuffers) {
+            this.write(buffer);
+        }
+    }
+
+    private void write(final StringBuilder buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        try {
+            if (this.writer == null) {
+                this.writer = this.append
+                        ? Files.newBufferedWriter(this.path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        : Files.newBufferedWriter(this.path, StandardCharsets.UTF_8);
+            }
+            this.writer.append(buffer);
+            buffer.setLength(0);
+        } catch (final IOException ex) {
+            throw new SimulationReportingFailureException(String.format("Failed to write patron history to %s", this.path), ex);
+        }
+    }
+
+    /**
+     * The step of a written line, or {@link Integer#MAX_VALUE} for a line torn by a crash, so it is dropped.
+     */
+    private static int stepOf(final String line) {
+        try {
+            final JsonNode step = OBJECT_MAPPER.readTree(line).get("step");
+            return step == null ? Integer.MAX_VALUE : step.asInt();
+        } catch (final JsonProcessingException ex) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    @Value
+    private static class PatronHistoryLine {
+        String patronId;
+        int step;
+        PatronHistoryEvent event;
+    }
+}
@@ -0,0 +1,24 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.simulations.Simulation;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.AllArgsConstructor;
+
+/**
+ * Builds the whole {@link SimulationReport} of a simulation and serializes it in one go; memory grows with
+ * the population and the length of the simulation. See {@link StreamingSimulationReportWriter}.
+ */
+@AllArgsConstructor
+public class ObjectSimulationReportWriter implements SimulationReportWriter {
+    private final ObjectWriter objectWriter;
+
+    @Override
+    public void write(final Simulation simulation, final long executionTime, final OutputStream output) throws IOException {
+        final SimulationReport simulationReport = simulation.generateReport().toBuilder()
+                .executionTime(executionTime)
+                .build();
+        this.objectWriter.writeValue(output, simulationReport);
+    }
+}
@@ -0,0 +1,35 @@
+package abm.elfarolbar.simulations.reporting;
+
+/**
+ * What happens to the full history of every patron; patrons themselves only remember their last
+ * {@code memoryLength} steps.
+ */
+public enum PatronHistoryRetention {
+    /**
+     * Histories are dropped and patron reports carry no history.
+     */
+    NONE,
+    /**
+     * Histories are kept in memory until the simulation is reported and included in patron reports.
+     */
+    REPORT,
+    /**
+     * Histories are written as they happen to a JSON lines file next to the simulation report, see
+     * {@link JsonLinesPatronHistorySink}.
+     */
+    STREAM;
+
+    /**
+     * The retention a report of the given detail gets: the requested one, or when unset, histories kept for
+     * the report if it includes patrons and dropped otherwise. A report with patrons cannot drop histories.
+     */
+    public static PatronHistoryRetention resolve(final PatronHistoryRetention requested, final ReportDetail reportDetail) {
+        if (requested == null) {
+            return reportDetail.includesPatrons() ? REPORT : NONE;
+        }
+        if (requested == NONE && reportDetail.includesPatrons()) {
+            throw new IllegalStateException(String.format("%s reports need patron histories, retain or stream them", reportDetail));
+        }
+        return requested;
+    }
+}
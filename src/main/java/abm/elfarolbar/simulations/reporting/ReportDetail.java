@@ -0,0 +1,33 @@
+package abm.elfarolbar.simulations.reporting;
+
+/**
+ * How much of a simulation its report includes. Every level includes the input and a
+ * {@link SimulationSummary}; data a level leaves out is not collected while the simulation runs.
+ */
+public enum ReportDetail {
+    /**
+     * Only the summary; the strategy distribution of each step is dropped once the next one is known.
+     */
+    SUMMARY,
+    /**
+     * The attendance history and the strategy distribution of every step.
+     */
+    DISTRIBUTIONS,
+    /**
+     * Distributions and the reports of a fixed number of patrons drawn from the simulation seed; only their
+     * histories are retained.
+     */
+    SAMPLED_PATRONS,
+    /**
+     * Distributions and the report of every patron.
+     */
+    FULL;
+
+    public boolean includesSeries() {
+        return this != SUMMARY;
+    }
+
+    public boolean includesPatrons() {
+        return this == SAMPLED_PATRONS || this == FULL;
+    }
+}
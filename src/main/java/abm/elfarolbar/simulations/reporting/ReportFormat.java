@@ -0,0 +1,20 @@
+package abm.elfarolbar.simulations.reporting;
+
+/**
+ * How the results of the simulations of an experiment are written.
+ */
+public enum ReportFormat {
+    /**
+     * One JSON report per simulation, see {@link SimulationReportWriter}.
+     */
+    JSON,
+    /**
+     * One gzip-compressed JSON report per simulation, {@code <simulationId>.json.gz}.
+     */
+    JSON_GZIP,
+    /**
+     * Every simulation of a shard appended to one columnar file, see {@link ColumnarResultWriter}; reports can
+     * be exported to JSON with {@link ColumnarResultReader}.
+     */
+    COLUMNAR
+}
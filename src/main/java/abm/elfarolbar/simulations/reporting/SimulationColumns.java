@@ -0,0 +1,108 @@
+package abm.elfarolbar.simulations.reporting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The columns of one simulation in a columnar result file, viewed in place through a read-only mapping of the
+ * file; nothing is copied until a value is read.
+ */
+public class SimulationColumns {
+    private final ColumnarIndexEntry entry;
+    /**
+     * The mapping of the simulation's columns, starting at {@link ColumnarIndexEntry#getOffset()}.
+     */
+    private final ByteBuffer columns;
+
+    SimulationColumns(final ColumnarIndexEntry entry, final ByteBuffer columns) {
+        this.entry = entry;
+        this.columns = columns.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public String getSimulationId() {
+        return this.entry.getSimulationId();
+    }
+
+    public long getExecutionTime() {
+        return this.entry.getExecutionTime();
+    }
+
+    /**
+     * The input section of the report, as {@link SimulationInputDataset} serializes it.
+     */
+    public JsonNode getInput() {
+        return this.entry.getInput();
+    }
+
+    public List<String> getStrategyNames() {
+        return this.entry.getStrategyNames();
+    }
+
+    public List<String> getPatronIds() {
+        return this.entry.getPatronIds();
+    }
+
+    /**
+     * The steps with a strategy distribution, one per simulated step.
+     */
+    public int getDistributionSteps() {
+        return this.entry.getDistributionSteps();
+    }
+
+    /**
+     * How the strategy distributions were reported, {@link StrategyDistributionFormat#MAPS} for simulations
+     * appended before the matrix.
+     */
+    public StrategyDistributionFormat getDistributionFormat() {
+        return this.entry.getDistributionFormat() != null ? this.entry.getDistributionFormat() : StrategyDistributionFormat.MAPS;
+    }
+
+    /**
+     * The steps of patron history with a decision; {@code 0} when the history was not retained.
+     */
+    public int getDecisionSteps() {
+        return this.entry.getDecisionSteps();
+    }
+
+    /**
+     * The attendance history, including the bar's previous history.
+     */
+    public IntBuffer attendanceHistory() {
+        return this.slice(this.entry.getOffset(), Integer.BYTES * this.entry.getAttendanceCount()).asIntBuffer();
+    }
+
+    /**
+     * The users of one strategy at every simulated step.
+     */
+    public IntBuffer strategyDistribution(final String strategyName) {
+        final int ordinal = this.entry.getStrategyNames().indexOf(strategyName);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException(String.format("Simulation %s has no strategy %s", this.getSimulationId(), strategyName));
+        }
+        final int columnBytes = Integer.BYTES * this.entry.getDistributionSteps();
+        return this.slice(this.entry.distributionsOffset() + (long) columnBytes * ordinal, columnBytes).asIntBuffer();
+    }
+
+    /**
+     * The decisions of one patron as a bit per step, step {@code s} being bit {@code s % 64} of word {@code s / 64}.
+     */
+    public LongBuffer patronDecisions(final int patronIndex) {
+        Objects.checkIndex(patronIndex, this.entry.getPatronIds().size());
+        final int columnBytes = Long.BYTES * this.entry.decisionWords();
+        return this.slice(this.entry.decisionsOffset() + (long) columnBytes * patronIndex, columnBytes).asLongBuffer();
+    }
+
+    public boolean patronDecision(final int patronIndex, final int step) {
+        Objects.checkIndex(step, this.entry.getDecisionSteps());
+        return (this.patronDecisions(patronIndex).get(step / Long.SIZE) & (1L << step)) != 0;
+    }
+
+    private ByteBuffer slice(final long offset, final int length) {
+        return this.columns.slice(Math.toIntExact(offset - this.entry.getOffset()), length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
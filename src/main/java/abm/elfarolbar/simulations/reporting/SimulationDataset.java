@@ -1,16 +1,33 @@
 package abm.elfarolbar.simulations.reporting;
 
 import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.strategies.decision.StrategyDistributions;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.Builder;
 import lombok.Data;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The results of a simulation; the series and patron reports a {@link ReportDetail} leaves out are
+ * {@code null} and not written.
+ */
 @Builder
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"summary", "attendanceHistory", "strategyDistributions", "strategyDistributionMatrix", "patronReports"})
 public class SimulationDataset {
+    private final SimulationSummary summary;
     private List<Integer> attendanceHistory;
+    /**
+     * Written at {@link StrategyDistributionFormat#MAPS}.
+     */
     private final List<Map<String, Integer>> strategyDistributions;
+    /**
+     * Written at {@link StrategyDistributionFormat#MATRIX}.
+     */
+    private final StrategyDistributions strategyDistributionMatrix;
     private final List<PatronReport> patronReports;
 }
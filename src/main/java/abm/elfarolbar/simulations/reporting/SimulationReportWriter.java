@@ -0,0 +1,12 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.simulations.Simulation;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the report of an executed simulation to a stream, closing it once the report is complete.
+ */
+public interface SimulationReportWriter {
+    void write(final Simulation simulation, final long executionTime, final OutputStream output) throws IOException;
+}
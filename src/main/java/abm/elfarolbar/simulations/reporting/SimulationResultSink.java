@@ -0,0 +1,22 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.simulations.Simulation;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where the results of the executed simulations of an experiment go. A simulation is only marked completed
+ * once {@link #accept} returns.
+ */
+public interface SimulationResultSink extends Closeable {
+    /**
+     * Writes the results of a simulation.
+     *
+     * @return the bytes written
+     */
+    long accept(final Simulation simulation, final long executionTime) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,25 @@
+package abm.elfarolbar.simulations.reporting;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Attendance and strategy use over the simulated steps of a simulation, maintained while it runs and
+ * included at every {@link ReportDetail}. The variance is the population variance of the attendance, and
+ * steps near capacity are those within a tenth of the bar capacity of it.
+ */
+@Builder
+@Value
+@Jacksonized
+public class SimulationSummary {
+    int steps;
+    double meanAttendance;
+    double attendanceVariance;
+    int overcrowdedSteps;
+    double overcrowdingFrequency;
+    int stepsNearCapacity;
+    long strategySwitches;
+    Map<String, Integer> finalStrategyDistribution;
+}
@@ -0,0 +1,18 @@
+package abm.elfarolbar.simulations.reporting;
+
+/**
+ * How the strategy distributions of a simulation are written in its report.
+ */
+public enum StrategyDistributionFormat {
+    /**
+     * A map of users by strategy name per step, as {@code strategyDistributions}; the established report
+     * schema and the default.
+     */
+    MAPS,
+    /**
+     * A single header of strategy names and a row of users per step, as {@code strategyDistributionMatrix},
+     * see {@link abm.elfarolbar.strategies.decision.StrategyDistributions}; opt in when every reader of the
+     * reports understands it.
+     */
+    MATRIX
+}
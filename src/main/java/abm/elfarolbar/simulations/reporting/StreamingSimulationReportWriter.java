@@ -0,0 +1,103 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.actors.bars.AttendanceHistory;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.strategies.decision.StrategyDistributions;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Writes the same JSON as serializing a {@link SimulationReport}, field for field and at the simulation's
+ * {@link ReportDetail}, without building one.
+ * Attendances and strategy distributions are written straight from the simulation's own records, and patron
+ * reports are generated and written one at a time, so the writer holds at most one patron report besides
+ * the simulation itself.
+ */
+public class StreamingSimulationReportWriter implements SimulationReportWriter {
+    private final ObjectWriter objectWriter;
+    /**
+     * Writes the values nested in the report without flushing the file after each of them.
+     */
+    private final ObjectWriter valueWriter;
+
+    public StreamingSimulationReportWriter(final ObjectWriter objectWriter) {
+        this.objectWriter = objectWriter;
+        this.valueWriter = objectWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(final Simulation simulation, final long executionTime, final OutputStream output) throws IOException {
+        try (final JsonGenerator generator = this.objectWriter.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeFieldName("input");
+            this.valueWriter.writeValue(generator, simulation.generateInputReport());
+
+            generator.writeObjectFieldStart("dataset");
+            generator.writeFieldName("summary");
+            this.valueWriter.writeValue(generator, simulation.generateSummary());
+            if (simulation.getReportDetail().includesSeries()) {
+                writeAttendanceHistory(generator, simulation.getBar().getAttendanceHistory());
+                writeStrategyDistributions(generator, simulation.getStrategyDistributions(), simulation.getDistributionFormat());
+            }
+            if (simulation.getReportDetail().includesPatrons()) {
+                this.writePatronReports(generator, simulation.streamPatronReports());
+            }
+            generator.writeEndObject();
+
+            generator.writeNumberField("executionTime", executionTime);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeAttendanceHistory(final JsonGenerator generator, final AttendanceHistory attendanceHistory) throws IOException {
+        generator.writeArrayFieldStart("attendanceHistory");
+        for (int index = 0; index < attendanceHistory.size(); index++) {
+            generator.writeNumber(attendanceHistory.getAttendance(index));
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeStrategyDistributions(final JsonGenerator generator,
+                                                   final StrategyDistributions strategyDistributions,
+                                                   final StrategyDistributionFormat distributionFormat) throws IOException {
+        if (distributionFormat == StrategyDistributionFormat.MATRIX) {
+            generator.writeFieldName("strategyDistributionMatrix");
+            strategyDistributions.writeJson(generator);
+            return;
+        }
+        final DecisionStrategyOrdinals strategyOrdinals = strategyDistributions.getStrategyOrdinals();
+        generator.writeArrayFieldStart("strategyDistributions");
+        for (int step = 0; step < strategyDistributions.size(); step++) {
+            generator.writeStartObject();
+            for (int ordinal = 0; ordinal < strategyOrdinals.size(); ordinal++) {
+                generator.writeNumberField(strategyOrdinals.nameOf(ordinal), strategyDistributions.getUsers(step, ordinal));
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private void writePatronReports(final JsonGenerator generator, final Stream<PatronReport> patronReports) throws IOException {
+        generator.writeArrayFieldStart("patronReports");
+        try {
+            patronReports.forEachOrdered(patronReport -> {
+                try {
+                    this.valueWriter.writeValue(generator, patronReport);
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,132 @@
+package abm.elfarolbar.strategies;
+
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The decision and replacement strategies of an experiment, each named once and given a dense ordinal, so
+ * simulations index strategies by ordinal instead of formatting and hashing their names every step. Decision
+ * strategy ordinals are the {@link DecisionStrategyOrdinals} of their names, which patron histories, strategy
+ * usage and strategy distributions share; replacement strategies are numbered by sorted name the same way.
+ * Names are interned, so every simulation of an experiment references the same strings. When two strategies
+ * share a name, the first one is kept.
+ */
+@EqualsAndHashCode(of = {"decisionStrategies", "replacementStrategies"})
+@ToString(of = {"decisionStrategyOrdinals", "replacementStrategyNames"})
+public final class StrategyCatalog {
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+    @Getter
+    private final DecisionStrategyOrdinals decisionStrategyOrdinals;
+    /**
+     * Decision strategies in ordinal order.
+     */
+    @Getter
+    private final ImmutableList<DecisionStrategy> decisionStrategies;
+    @Getter
+    private final ImmutableList<String> replacementStrategyNames;
+    /**
+     * Replacement strategies in ordinal order.
+     */
+    @Getter
+    private final ImmutableList<ReplacementStrategy> replacementStrategies;
+    private final ImmutableMap<String, Integer> replacementStrategyOrdinals;
+
+    private StrategyCatalog(final Map<String, DecisionStrategy> decisionStrategies,
+                            final Map<String, ReplacementStrategy> replacementStrategies) {
+        this.decisionStrategyOrdinals = DecisionStrategyOrdinals.of(decisionStrategies.keySet());
+        this.decisionStrategies = this.decisionStrategyOrdinals.names().stream()
+                .map(decisionStrategies::get)
+                .collect(ImmutableList.toImmutableList());
+        this.replacementStrategyNames = replacementStrategies.keySet().stream()
+                .sorted()
+                .collect(ImmutableList.toImmutableList());
+        this.replacementStrategies = this.replacementStrategyNames.stream()
+                .map(replacementStrategies::get)
+                .collect(ImmutableList.toImmutableList());
+        final ImmutableMap.Builder<String, Integer> replacementStrategyOrdinals = ImmutableMap.builder();
+        for (int ordinal = 0; ordinal < this.replacementStrategyNames.size(); ordinal++) {
+            replacementStrategyOrdinals.put(this.replacementStrategyNames.get(ordinal), ordinal);
+        }
+        this.replacementStrategyOrdinals = replacementStrategyOrdinals.build();
+    }
+
+    public static StrategyCatalog of(final Collection<DecisionStrategy> decisionStrategies,
+                                     final Collection<ReplacementStrategy> replacementStrategies) {
+        return new StrategyCatalog(byName(decisionStrategies, DecisionStrategy::getName),
+                byName(replacementStrategies, ReplacementStrategy::getName));
+    }
+
+    public int decisionStrategyCount() {
+        return this.decisionStrategies.size();
+    }
+
+    public DecisionStrategy decisionStrategy(final int ordinal) {
+        return this.decisionStrategies.get(ordinal);
+    }
+
+    public String decisionStrategyName(final int ordinal) {
+        return this.decisionStrategyOrdinals.nameOf(ordinal);
+    }
+
+    /**
+     * The ordinal of the decision strategy, or {@code -1} when it is not part of the catalog.
+     */
+    public int decisionStrategyOrdinalOf(final String strategyName) {
+        return this.decisionStrategyOrdinals.ordinalOf(strategyName);
+    }
+
+    /**
+     * Decision strategies by name, in ordinal order.
+     */
+    public Map<String, DecisionStrategy> decisionStrategiesByName() {
+        return byOrdinal(this.decisionStrategyOrdinals.names(), this.decisionStrategies);
+    }
+
+    public ReplacementStrategy replacementStrategy(final int ordinal) {
+        return this.replacementStrategies.get(ordinal);
+    }
+
+    /**
+     * The ordinal of the replacement strategy, or {@code -1} when it is not part of the catalog.
+     */
+    public int replacementStrategyOrdinalOf(final String strategyName) {
+        return this.replacementStrategyOrdinals.getOrDefault(strategyName, -1);
+    }
+
+    /**
+     * Replacement strategies by name, in ordinal order.
+     */
+    public Map<String, ReplacementStrategy> replacementStrategiesByName() {
+        return byOrdinal(this.replacementStrategyNames, this.replacementStrategies);
+    }
+
+    private static <T> Map<String, T> byName(final Collection<T> strategies, final Function<T, String> nameOf) {
+        final Map<String, T> byName = new LinkedHashMap<>();
+        for (final T strategy : strategies) {
+            byName.putIfAbsent(NAMES.intern(nameOf.apply(strategy)), strategy);
+        }
+        return byName;
+    }
+
+    private static <T> Map<String, T> byOrdinal(final List<String> names, final List<T> strategies) {
+        final ImmutableMap.Builder<String, T> byName = ImmutableMap.builderWithExpectedSize(names.size());
+        for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+            byName.put(names.get(ordinal), strategies.get(ordinal));
+        }
+        return byName.build();
+    }
+}
@@ -1,14 +1,19 @@
 package abm.elfarolbar.strategies.decision;
 
+import abm.elfarolbar.actors.bars.AttendanceWindowStatistics;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
-import java.util.List;
+import abm.elfarolbar.random.RandomStream;
 
 public abstract class AttendanceDecisionStrategy extends DecisionStrategy {
-    abstract boolean decideByAttendance(final Bar bar, final List<Integer> recentAttendanceHistory);
+    abstract boolean decideByAttendance(final Bar bar, final AttendanceWindowStatistics recentAttendance, final RandomStream random);
 
-    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps) {
-        final List<Integer> attendanceHistory = bar.getAttendanceHistory();
-        return decideByAttendance(bar, attendanceHistory.subList(Math.max(0, attendanceHistory.size() - memoryProps.getMemoryLength()), attendanceHistory.size()));
+    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps, final RandomStream random) {
+        return decideByAttendance(bar, bar.getAttendanceHistory().windowStatistics(memoryProps.getMemoryLength()), random);
+    }
+
+    @Override
+    public boolean isPatronIndependent(final Bar bar, final PatronMemoryProps memoryProps) {
+        return !bar.getAttendanceHistory().windowStatistics(memoryProps.getMemoryLength()).isEmpty();
     }
 }
@@ -1,14 +1,24 @@
 package abm.elfarolbar.strategies.decision;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
-import java.util.List;
+import abm.elfarolbar.random.RandomStream;
 
 public abstract class CrowdednessDecisionStrategy extends DecisionStrategy {
-    abstract boolean decideByCrowdedness(final Bar bar, final List<Boolean> recentCrowdedHistory);
+    /**
+     * Decides from the crowdedness of the steps in {@code [windowStart, history.size())}.
+     */
+    abstract boolean decideByCrowdedness(final Bar bar, final AttendanceHistory history, final int windowStart, final RandomStream random);
 
-    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps) {
-        final List<Boolean> crowdedHistory = bar.crowdedHistory();
-        return decideByCrowdedness(bar, crowdedHistory.subList(Math.max(0, crowdedHistory.size() - memoryProps.getMemoryLength()), crowdedHistory.size()));
+    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps, final RandomStream random) {
+        final AttendanceHistory history = bar.getAttendanceHistory();
+        return decideByCrowdedness(bar, history, history.windowStart(memoryProps.getMemoryLength()), random);
+    }
+
+    @Override
+    public boolean isPatronIndependent(final Bar bar, final PatronMemoryProps memoryProps) {
+        final AttendanceHistory history = bar.getAttendanceHistory();
+        return history.windowStart(memoryProps.getMemoryLength()) < history.size();
     }
 }
@@ -2,23 +2,34 @@ package abm.elfarolbar.strategies.decision;
 
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
-import lombok.Getter;
+import abm.elfarolbar.random.RandomStream;
 
-@Getter
+/**
+ * A stateless decision rule. Instances are shared by every simulation of an experiment; how many patrons use a
+ * strategy is tallied per simulation in a {@link StrategyUsage}.
+ */
 public abstract class DecisionStrategy {
-    private int users = 0;
+    /**
+     * Decides with unseeded random draws; simulations use {@link #decide(Bar, PatronMemoryProps, RandomStream)}.
+     */
+    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps) {
+        return this.decide(bar, memoryProps, RandomStream.unseeded());
+    }
 
-    public abstract boolean decide(final Bar bar, final PatronMemoryProps memoryProps);
+    /**
+     * Decides whether to attend the bar, taking any random draws from {@code random}.
+     */
+    public abstract boolean decide(final Bar bar, final PatronMemoryProps memoryProps, final RandomStream random);
 
     public abstract String getName();
 
-    public abstract DecisionStrategy clone();
-
-    public void reset() {
-        this.users = 0;
+    /**
+     * Whether {@link #decide} would return the same answer for every patron with the given memory in the
+     * current bar state, so it can be computed once per step and shared.
+     */
+    public boolean isPatronIndependent(final Bar bar, final PatronMemoryProps memoryProps) {
+        return false;
     }
 
-    public void select() {
-        this.users++;
-    }
+    public abstract DecisionStrategy clone();
 }
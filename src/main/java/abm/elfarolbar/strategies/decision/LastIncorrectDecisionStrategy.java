@@ -1,17 +1,17 @@
 package abm.elfarolbar.strategies.decision;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
-import com.google.common.collect.Iterables;
-import java.util.List;
+import abm.elfarolbar.random.RandomStream;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
-import org.apache.commons.lang3.RandomUtils;
 
 @Builder(toBuilder = true)
 @EqualsAndHashCode(callSuper = true)
 public class LastIncorrectDecisionStrategy extends CrowdednessDecisionStrategy {
-    public boolean decideByCrowdedness(final Bar bar, final List<Boolean> recentCrowdedHistory) {
-        return recentCrowdedHistory.isEmpty() ? RandomUtils.nextBoolean() : Iterables.getLast(recentCrowdedHistory);
+    public boolean decideByCrowdedness(final Bar bar, final AttendanceHistory history, final int windowStart, final RandomStream random) {
+        final int size = history.size();
+        return windowStart >= size ? random.nextBoolean() : history.isCrowded(size - 1);
     }
 
     @Override
@@ -1,10 +1,10 @@
 package abm.elfarolbar.strategies.decision;
 
+import abm.elfarolbar.actors.bars.AttendanceWindowStatistics;
 import abm.elfarolbar.actors.bars.Bar;
-import java.util.List;
+import abm.elfarolbar.random.RandomStream;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
-import org.apache.commons.lang3.RandomUtils;
 
 @Builder(toBuilder = true)
 @EqualsAndHashCode(callSuper = true)
@@ -12,11 +12,11 @@ public class MinAverageAttendanceDecisionStrategy extends AttendanceDecisionStra
     @Builder.Default
     private int minAverage = 30;
 
-    public boolean decideByAttendance(final Bar bar, final List<Integer> recentAttendanceHistory) {
-        return recentAttendanceHistory.stream()
-                .mapToInt(Integer::intValue)
-                .average()
-                .orElse(RandomUtils.nextInt(0, bar.getTotalPopulation() + 1)) >= minAverage;
+    public boolean decideByAttendance(final Bar bar, final AttendanceWindowStatistics recentAttendance, final RandomStream random) {
+        if (recentAttendance.isEmpty()) {
+            return random.nextInt(0, bar.getTotalPopulation() + 1) >= minAverage;
+        }
+        return recentAttendance.average() >= minAverage;
     }
 
     @Override
@@ -2,6 +2,7 @@ package abm.elfarolbar.strategies.decision;
 
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 
@@ -9,10 +10,15 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 public class NeverDecisionStrategy extends DecisionStrategy {
     @Override
-    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps) {
+    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps, final RandomStream random) {
         return false;
     }
 
+    @Override
+    public boolean isPatronIndependent(final Bar bar, final PatronMemoryProps memoryProps) {
+        return true;
+    }
+
     @Override
     public String getName() {
         return "Never";
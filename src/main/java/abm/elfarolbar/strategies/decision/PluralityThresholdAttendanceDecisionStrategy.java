@@ -1,7 +1,9 @@
 package abm.elfarolbar.strategies.decision;
 
+import abm.elfarolbar.actors.bars.AttendanceWindowStatistics;
 import abm.elfarolbar.actors.bars.Bar;
-import java.util.List;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -15,16 +17,17 @@ public class PluralityThresholdAttendanceDecisionStrategy extends AttendanceDeci
     @Builder.Default
     private boolean reversed = false;
 
-    public boolean decideByAttendance(final Bar bar, final List<Integer> recentAttendanceHistory) {
-        final long countBelowThreshold = recentAttendanceHistory.stream()
-                .filter(value -> value <= threshold)
-                .count();
-        final long countAboveThreshold = recentAttendanceHistory.stream()
-                .filter(value -> value >= threshold)
-                .count();
+    public boolean decideByAttendance(final Bar bar, final AttendanceWindowStatistics recentAttendance, final RandomStream random) {
+        final int countBelowThreshold = recentAttendance.countAtOrBelow(threshold);
+        final int countAboveThreshold = recentAttendance.countAtOrAbove(threshold);
         return (countBelowThreshold <= countAboveThreshold) != reversed;
     }
 
+    @Override
+    public boolean isPatronIndependent(final Bar bar, final PatronMemoryProps memoryProps) {
+        return true;
+    }
+
     @Override
     public String getName() {
         return String.format("PluralityThreshold-%d-%b", threshold, reversed);
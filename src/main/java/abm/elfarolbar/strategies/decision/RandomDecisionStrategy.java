@@ -2,16 +2,16 @@ package abm.elfarolbar.strategies.decision;
 
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
-import org.apache.commons.lang3.RandomUtils;
 
 @Builder(toBuilder = true)
 @EqualsAndHashCode(callSuper = true)
 public class RandomDecisionStrategy extends DecisionStrategy {
     @Override
-    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps) {
-        return RandomUtils.nextInt(0, bar.getTotalPopulation() + 1) <= bar.getMaxCapacity();
+    public boolean decide(final Bar bar, final PatronMemoryProps memoryProps, final RandomStream random) {
+        return random.nextInt(0, bar.getTotalPopulation() + 1) <= bar.getMaxCapacity();
     }
 
     @Override
@@ -0,0 +1,121 @@
+package abm.elfarolbar.strategies.decision;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
+import abm.elfarolbar.strategies.StrategyCatalog;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decisions computed once per step for every strategy whose answer depends only on the bar state and the
+ * patron's memory, so patrons sharing the same {@link PatronMemoryProps} read one result instead of each
+ * evaluating the strategy. Strategies that are not patron-independent are evaluated per patron as before.
+ * Patron-independent decisions take no random draws, so computing them once keeps results reproducible.
+ *
+ * <p>Decisions are kept per strategy ordinal; callers indexing strategies by the same
+ * {@link DecisionStrategyOrdinals} read them without looking up any name.
+ */
+public class SharedDecisions {
+    private static final byte UNSHARED = 0;
+    private static final byte SHARED_FALSE = 1;
+    private static final byte SHARED_TRUE = 2;
+    private static final SharedDecisions NONE = new SharedDecisions(DecisionStrategyOrdinals.empty(), ImmutableMap.of());
+
+    private final DecisionStrategyOrdinals strategyOrdinals;
+    private final Map<PatronMemoryProps, byte[]> decisionsByMemoryProps;
+
+    private SharedDecisions(final DecisionStrategyOrdinals strategyOrdinals,
+                            final Map<PatronMemoryProps, byte[]> decisionsByMemoryProps) {
+        this.strategyOrdinals = strategyOrdinals;
+        this.decisionsByMemoryProps = decisionsByMemoryProps;
+    }
+
+    public static SharedDecisions none() {
+        return NONE;
+    }
+
+    public static SharedDecisions compute(final Bar bar,
+                                          final StrategyCatalog strategyCatalog,
+                                          final Collection<PatronMemoryProps> memoryPropsSet) {
+        final Map<PatronMemoryProps, byte[]> decisionsByMemoryProps = new HashMap<>();
+        memoryPropsSet.forEach(memoryProps -> {
+            final byte[] decisions = new byte[strategyCatalog.decisionStrategyCount()];
+            for (int ordinal = 0; ordinal < decisions.length; ordinal++) {
+                final DecisionStrategy strategy = strategyCatalog.decisionStrategy(ordinal);
+                if (strategy.isPatronIndependent(bar, memoryProps)) {
+                    decisions[ordinal] = strategy.decide(bar, memoryProps) ? SHARED_TRUE : SHARED_FALSE;
+                }
+            }
+            decisionsByMemoryProps.put(memoryProps, decisions);
+        });
+        return new SharedDecisions(strategyCatalog.getDecisionStrategyOrdinals(), decisionsByMemoryProps);
+    }
+
+    /**
+     * Computes the shared decisions of strategies that are not part of a catalog; only the strategies that
+     * are patron-independent for some memory props are named.
+     */
+    public static SharedDecisions compute(final Bar bar,
+                                          final Collection<DecisionStrategy> decisionStrategies,
+                                          final Collection<PatronMemoryProps> memoryPropsSet) {
+        final List<DecisionStrategy> patronIndependentStrategies = decisionStrategies.stream()
+                .filter(strategy -> memoryPropsSet.stream().anyMatch(memoryProps -> strategy.isPatronIndependent(bar, memoryProps)))
+                .toList();
+        return compute(bar, StrategyCatalog.of(patronIndependentStrategies, List.of()), memoryPropsSet);
+    }
+
+    /**
+     * The shared decision of the strategy, or its own decision for this patron drawing from {@code random}.
+     */
+    public boolean decide(final String strategyName,
+                          final DecisionStrategy strategy,
+                          final Bar bar,
+                          final PatronMemoryProps memoryProps,
+                          final RandomStream random) {
+        return this.decide(this.strategyOrdinals, this.strategyOrdinals.ordinalOf(strategyName), strategy, bar, memoryProps, random);
+    }
+
+    /**
+     * The shared decision of the strategy with the given ordinal among {@code strategyOrdinals}, or its own
+     * decision for this patron drawing from {@code random}.
+     */
+    public boolean decide(final DecisionStrategyOrdinals strategyOrdinals,
+                          final int ordinal,
+                          final DecisionStrategy strategy,
+                          final Bar bar,
+                          final PatronMemoryProps memoryProps,
+                          final RandomStream random) {
+        final byte sharedDecision = this.sharedDecisionOf(strategyOrdinals, ordinal, memoryProps);
+        return sharedDecision != UNSHARED ? sharedDecision == SHARED_TRUE : strategy.decide(bar, memoryProps, random);
+    }
+
+    /**
+     * The shared decision of a strategy for patrons with the given memory, or {@code null} when it must be
+     * evaluated per patron.
+     */
+    public Boolean get(final String strategyName, final PatronMemoryProps memoryProps) {
+        return this.get(this.strategyOrdinals, this.strategyOrdinals.ordinalOf(strategyName), memoryProps);
+    }
+
+    public Boolean get(final DecisionStrategyOrdinals strategyOrdinals, final int ordinal, final PatronMemoryProps memoryProps) {
+        final byte sharedDecision = this.sharedDecisionOf(strategyOrdinals, ordinal, memoryProps);
+        return sharedDecision == UNSHARED ? null : sharedDecision == SHARED_TRUE;
+    }
+
+    private byte sharedDecisionOf(final DecisionStrategyOrdinals strategyOrdinals, final int ordinal, final PatronMemoryProps memoryProps) {
+        final byte[] decisions = this.decisionsByMemoryProps.get(memoryProps);
+        if (decisions == null || ordinal < 0) {
+            return UNSHARED;
+        }
+        // Ordinals are interned, so callers over the same strategies pass this very instance
+        final int sharedOrdinal = strategyOrdinals == this.strategyOrdinals
+                ? ordinal
+                : this.strategyOrdinals.ordinalOf(strategyOrdinals.nameOf(ordinal));
+        return sharedOrdinal < 0 ? UNSHARED : decisions[sharedOrdinal];
+    }
+}
@@ -0,0 +1,177 @@
+package abm.elfarolbar.strategies.decision;
+
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * The strategy distribution of every recorded step of one simulation, as a steps by strategies matrix of
+ * users stored row by row in one growing int array, under a single header of strategy names. Serialized as
+ * {@code {"strategies": [...], "users": [[...], ...]}}; {@link #toDistributions()} gives the list of maps the
+ * reports held before.
+ *
+ * <p>Not thread-safe: rows are recorded by the simulation between the parallel phases of a step.
+ */
+@JsonSerialize(using = StrategyDistributions.Serializer.class)
+public class StrategyDistributions {
+    private static final int INITIAL_STEPS = 16;
+
+    @Getter
+    private final DecisionStrategyOrdinals strategyOrdinals;
+    private int[] users;
+    private int steps;
+
+    public StrategyDistributions(final DecisionStrategyOrdinals strategyOrdinals) {
+        this.strategyOrdinals = strategyOrdinals;
+        this.users = new int[INITIAL_STEPS * strategyOrdinals.size()];
+    }
+
+    /**
+     * Appends the users of every strategy in {@code strategyUsage} as the distribution of the next step.
+     */
+    public void record(final StrategyUsage strategyUsage) {
+        this.ensureCapacity(this.steps + 1);
+        strategyUsage.copyUsers(this.users, this.steps * this.strategyOrdinals.size());
+        this.steps++;
+    }
+
+    /**
+     * Overwrites the distribution of the last step, or records one when there is none.
+     */
+    public void replaceLast(final StrategyUsage strategyUsage) {
+        if (this.steps == 0) {
+            this.record(strategyUsage);
+        } else {
+            strategyUsage.copyUsers(this.users, (this.steps - 1) * this.strategyOrdinals.size());
+        }
+    }
+
+    /**
+     * Appends a distribution given as the users of every strategy in ordinal order.
+     */
+    public void add(final int[] distribution) {
+        if (distribution.length != this.strategyOrdinals.size()) {
+            throw new IllegalArgumentException(String.format("Distribution over %d strategies, not %d", distribution.length, this.strategyOrdinals.size()));
+        }
+        this.ensureCapacity(this.steps + 1);
+        System.arraycopy(distribution, 0, this.users, this.steps * distribution.length, distribution.length);
+        this.steps++;
+    }
+
+    public int size() {
+        return this.steps;
+    }
+
+    public boolean isEmpty() {
+        return this.steps == 0;
+    }
+
+    public int getUsers(final int step, final int ordinal) {
+        if (step < 0 || step >= this.steps) {
+            throw new IndexOutOfBoundsException(String.format("Step %d of %d", step, this.steps));
+        }
+        return this.users[step * this.strategyOrdinals.size() + ordinal];
+    }
+
+    /**
+     * The users of every strategy at {@code step}, keyed by strategy name.
+     */
+    public Map<String, Integer> toDistribution(final int step) {
+        final ImmutableMap.Builder<String, Integer> distribution = ImmutableMap.builderWithExpectedSize(this.strategyOrdinals.size());
+        for (int ordinal = 0; ordinal < this.strategyOrdinals.size(); ordinal++) {
+            distribution.put(this.strategyOrdinals.nameOf(ordinal), this.getUsers(step, ordinal));
+        }
+        return distribution.build();
+    }
+
+    /**
+     * The distribution of the last step, or an empty map when none was recorded.
+     */
+    public Map<String, Integer> last() {
+        return this.steps == 0 ? Map.of() : this.toDistribution(this.steps - 1);
+    }
+
+    /**
+     * A view of every step as a map of users by strategy name, each built when it is read.
+     */
+    public List<Map<String, Integer>> toDistributions() {
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Integer> get(final int step) {
+                return StrategyDistributions.this.toDistribution(step);
+            }
+
+            @Override
+            public int size() {
+                return StrategyDistributions.this.steps;
+            }
+        };
+    }
+
+    public void writeJson(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("strategies");
+        for (int ordinal = 0; ordinal < this.strategyOrdinals.size(); ordinal++) {
+            generator.writeString(this.strategyOrdinals.nameOf(ordinal));
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("users");
+        for (int step = 0; step < this.steps; step++) {
+            generator.writeArray(this.users, step * this.strategyOrdinals.size(), this.strategyOrdinals.size());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void ensureCapacity(final int steps) {
+        final int required = steps * this.strategyOrdinals.size();
+        if (required > this.users.length) {
+            this.users = Arrays.copyOf(this.users, Math.max(required, 2 * this.users.length));
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof StrategyDistributions distributions)) {
+            return false;
+        }
+        final int length = this.steps * this.strategyOrdinals.size();
+        return this.strategyOrdinals.equals(distributions.strategyOrdinals)
+                && this.steps == distributions.steps
+                && Arrays.equals(this.users, 0, length, distributions.users, 0, length);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.strategyOrdinals.hashCode();
+        for (int index = 0; index < this.steps * this.strategyOrdinals.size(); index++) {
+            hash = 31 * hash + this.users[index];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StrategyDistributions(strategies=%s, steps=%d)", this.strategyOrdinals, this.steps);
+    }
+
+    static class Serializer extends JsonSerializer<StrategyDistributions> {
+        @Override
+        public void serialize(final StrategyDistributions distributions, final JsonGenerator generator,
+                              final SerializerProvider serializers) throws IOException {
+            distributions.writeJson(generator);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package abm.elfarolbar.strategies.decision;
+
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * How many patrons used each decision strategy in the current step of one simulation, as a counter per
+ * strategy ordinal. Owned by the simulation rather than the strategies, so strategy instances stay immutable
+ * and can be shared by simulations running in parallel.
+ *
+ * <p>Not thread-safe: patrons deciding in parallel tally into partial usages that are merged afterwards.
+ */
+public class StrategyUsage {
+    @Getter
+    private final DecisionStrategyOrdinals strategyOrdinals;
+    private final int[] users;
+
+    public StrategyUsage(final DecisionStrategyOrdinals strategyOrdinals) {
+        this.strategyOrdinals = strategyOrdinals;
+        this.users = new int[strategyOrdinals.size()];
+    }
+
+    public static StrategyUsage of(final Collection<DecisionStrategy> decisionStrategies) {
+        return new StrategyUsage(DecisionStrategyOrdinals.of(decisionStrategies.stream()
+                .map(DecisionStrategy::getName)
+                .toList()));
+    }
+
+    /**
+     * An empty usage over the same strategies, to tally a share of the patrons into.
+     */
+    public StrategyUsage partial() {
+        return new StrategyUsage(this.strategyOrdinals);
+    }
+
+    public void select(final String strategyName) {
+        this.select(strategyName, 1);
+    }
+
+    /**
+     * Counts {@code count} more users of the strategy; strategies this simulation does not know are ignored.
+     */
+    public void select(final String strategyName, final int count) {
+        final int ordinal = this.strategyOrdinals.ordinalOf(strategyName);
+        if (ordinal >= 0) {
+            this.users[ordinal] += count;
+        }
+    }
+
+    /**
+     * Counts {@code count} more users of the strategy with the given ordinal among {@code strategyOrdinals},
+     * without a lookup by name when they are this usage's ordinals.
+     */
+    public void select(final DecisionStrategyOrdinals strategyOrdinals, final int ordinal, final int count) {
+        if (strategyOrdinals == this.strategyOrdinals) {
+            this.users[ordinal] += count;
+        } else {
+            this.select(strategyOrdinals.nameOf(ordinal), count);
+        }
+    }
+
+    public void merge(final StrategyUsage other) {
+        for (int ordinal = 0; ordinal < other.users.length; ordinal++) {
+            this.select(other.strategyOrdinals, ordinal, other.users[ordinal]);
+        }
+    }
+
+    public int getUsers(final String strategyName) {
+        final int ordinal = this.strategyOrdinals.ordinalOf(strategyName);
+        return ordinal >= 0 ? this.users[ordinal] : 0;
+    }
+
+    /**
+     * Copies the users of every strategy, in ordinal order, into {@code target} from {@code offset}.
+     */
+    void copyUsers(final int[] target, final int offset) {
+        System.arraycopy(this.users, 0, target, offset, this.users.length);
+    }
+
+    public void reset() {
+        Arrays.fill(this.users, 0);
+    }
+
+    /**
+     * The users of every strategy, keyed by strategy name.
+     */
+    public Map<String, Integer> toDistribution() {
+        final ImmutableMap.Builder<String, Integer> distribution = ImmutableMap.builderWithExpectedSize(this.users.length);
+        for (int ordinal = 0; ordinal < this.users.length; ordinal++) {
+            distribution.put(this.strategyOrdinals.nameOf(ordinal), this.users[ordinal]);
+        }
+        return distribution.build();
+    }
+}
@@ -2,26 +2,47 @@ package abm.elfarolbar.strategies.replacement;
 
 import abm.elfarolbar.agents.patron.PatronHistoryEvent;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
 import com.google.common.collect.Iterables;
 import java.util.List;
 
 public abstract class ReplacementStrategy {
-    protected abstract boolean decidePostCheck(final PatronMemoryProps props, final List<PatronHistoryEvent> historyEvent);
+    protected abstract boolean decidePostCheck(final PatronMemoryProps props,
+                                               final int recentSteps,
+                                               final int recentFailures,
+                                               final RandomStream random);
 
     public boolean decide(final PatronMemoryProps props, final List<PatronHistoryEvent> history) {
+        return this.decide(props, history, RandomStream.unseeded());
+    }
+
+    public boolean decide(final PatronMemoryProps props, final List<PatronHistoryEvent> history, final RandomStream random) {
         return !history.isEmpty()
-            && !Iterables.getLast(history).getCorrect()
-            && this.minRequirement(history)
-            && this.decidePostCheck(props, history);
+            && this.decide(props, history.size(), this.getFailedEvents(history).size(), Iterables.getLast(history).wasCorrect(), random);
+    }
+
+    /**
+     * Decides from a summary of the recent history: how many steps it covers, how many of them were
+     * incorrect decisions and whether the last one was correct.
+     */
+    public boolean decide(final PatronMemoryProps props,
+                          final int recentSteps,
+                          final int recentFailures,
+                          final boolean lastCorrect,
+                          final RandomStream random) {
+        return recentSteps > 0
+            && !lastCorrect
+            && this.minRequirement(recentSteps, recentFailures)
+            && this.decidePostCheck(props, recentSteps, recentFailures, random);
     }
 
-    protected boolean minRequirement(final List<PatronHistoryEvent> history) {
-        return this.getFailedEvents(history).size() * 2 >= history.size();
+    protected boolean minRequirement(final int recentSteps, final int recentFailures) {
+        return recentFailures * 2 >= recentSteps;
     }
 
     protected List<PatronHistoryEvent> getFailedEvents(final List<PatronHistoryEvent> history) {
         return history.stream()
-                .filter(historyEvent -> !historyEvent.getCorrect())
+                .filter(historyEvent -> !historyEvent.wasCorrect())
                 .toList();
     }
 
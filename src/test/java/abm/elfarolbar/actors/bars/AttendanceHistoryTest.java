@@ -0,0 +1,52 @@
+package abm.elfarolbar.actors.bars;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AttendanceHistoryTest {
+    @Test
+    public void of_copiesAttendances_andRecordsCrowdedness() {
+        final AttendanceHistory history = AttendanceHistory.of(5, ImmutableList.of(4, 5, 6));
+
+        assertAll("History is copied correctly",
+            () -> assertThat("Attendances are copied", history, is(ImmutableList.of(4, 5, 6))),
+            () -> assertThat("Crowdedness is recorded", history.crowdedView(), is(ImmutableList.of(false, false, true)))
+        );
+    }
+
+    @Test
+    public void add_growsPastInitialCapacity_andKeepsCrowdednessBits() {
+        final AttendanceHistory history = new AttendanceHistory(50, 1);
+        IntStream.range(0, 200).forEach(history::add);
+
+        final List<Boolean> expectedCrowdedHistory = IntStream.range(0, 200)
+            .mapToObj(attendance -> attendance > 50)
+            .toList();
+
+        assertAll("History grows correctly",
+            () -> assertThat("All attendances are recorded", history.size(), is(200)),
+            () -> assertThat("Last attendance is recorded", history.getAttendance(199), is(199)),
+            () -> assertThat("Crowdedness is recorded across words", history.crowdedView(), is(expectedCrowdedHistory))
+        );
+    }
+
+    @Test
+    public void windowStart_returnsStartOfRecentWindow() {
+        final AttendanceHistory history = AttendanceHistory.of(5, ImmutableList.of(1, 2, 3, 4, 5, 6, 7));
+
+        assertAll("Window start is bounded by history size",
+            () -> assertThat("Window covers memory length", history.windowStart(5), is(2)),
+            () -> assertThat("Window covers whole history when memory is longer", history.windowStart(10), is(0)),
+            () -> assertThat("Window is empty when memory length is zero", history.windowStart(0), is(7))
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package abm.elfarolbar.actors.bars;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.random.RandomStream;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AttendanceWindowStatisticsTest {
+    private static final long SEED = 42L;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5, 17, 100})
+    public void statistics_matchRecentWindow_asHistoryGrows(final int memoryLength) {
+        // Seeded per memory length, so a failing case replays the same attendances
+        final RandomStream random = CounterRandom.of(SEED, "window-statistics").atStep(0).stream(memoryLength, RandomPurpose.DECISION);
+        final AttendanceHistory history = AttendanceHistory.of(60, ImmutableList.of(random.nextInt(0, 101)));
+        final AttendanceWindowStatistics statistics = history.windowStatistics(memoryLength);
+
+        IntStream.range(0, 250).forEach(step -> {
+            history.add(random.nextInt(0, 101));
+            final List<Integer> window = history.subList(history.windowStart(memoryLength), history.size());
+            final int threshold = random.nextInt(0, 101);
+
+            assertAll("Statistics match a scan of the window",
+                () -> assertThat("Count matches", statistics.count(), is(window.size())),
+                () -> assertThat("Sum matches", statistics.sum(), is(window.stream().mapToLong(Integer::longValue).sum())),
+                () -> assertThat("Average matches", statistics.average(), closeTo(window.stream().mapToInt(Integer::intValue).average().orElseThrow(), 1e-9)),
+                () -> assertThat("Min matches", statistics.min(), is(window.stream().mapToInt(Integer::intValue).min().orElseThrow())),
+                () -> assertThat("Max matches", statistics.max(), is(window.stream().mapToInt(Integer::intValue).max().orElseThrow())),
+                () -> assertThat("Count at or below threshold matches", statistics.countAtOrBelow(threshold),
+                    is((int) window.stream().filter(value -> value <= threshold).count())),
+                () -> assertThat("Count at or above threshold matches", statistics.countAtOrAbove(threshold),
+                    is((int) window.stream().filter(value -> value >= threshold).count()))
+            );
+        });
+    }
+
+    @Test
+    public void windowStatistics_registeredMidHistory_startsFromExistingAttendances() {
+        final AttendanceHistory history = AttendanceHistory.of(60, ImmutableList.of(10, 90, 30, 70, 50));
+        final AttendanceWindowStatistics statistics = history.windowStatistics(3);
+
+        assertAll("Statistics cover the last three attendances",
+            () -> assertThat("Min is computed", statistics.min(), is(30)),
+            () -> assertThat("Max is computed", statistics.max(), is(70)),
+            () -> assertThat("Sum is computed", statistics.sum(), is(150L))
+        );
+        assertThat("Statistics are shared per memory length", history.windowStatistics(3), sameInstance(statistics));
+    }
+
+    @Test
+    public void windowStatistics_isEmpty_whenMemoryLengthIsZero() {
+        final AttendanceHistory history = AttendanceHistory.of(60, ImmutableList.of(10, 90));
+        final AttendanceWindowStatistics statistics = history.windowStatistics(0);
+        history.add(40);
+
+        assertAll("Zero-length window stays empty",
+            () -> assertThat("Window is empty", statistics.isEmpty(), is(true)),
+            () -> assertThat("No attendances at or below threshold", statistics.countAtOrBelow(100), is(0))
+        );
+    }
+}
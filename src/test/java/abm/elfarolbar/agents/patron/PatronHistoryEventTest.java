@@ -0,0 +1,67 @@
+package abm.elfarolbar.agents.patron;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PatronHistoryEventTest {
+    private final DecisionStrategyOrdinals strategyOrdinals = DecisionStrategyOrdinals.of(ImmutableList.of("Never", "Always", "LastCorrect"));
+
+    @Test
+    public void of_packsDecisionsByOrdinal_andRebuildsMapView() {
+        final long decisionBits = 1L << strategyOrdinals.ordinalOf("Always") | 1L << strategyOrdinals.ordinalOf("LastCorrect");
+        final PatronHistoryEvent event = PatronHistoryEvent.of(strategyOrdinals, decisionBits, true, "Always");
+
+        assertAll("Event exposes packed decisions",
+            () -> assertThat("Map view is rebuilt", event.getStrategyNameToDecisionMap(),
+                is(ImmutableMap.of("Always", true, "LastCorrect", true, "Never", false))),
+            () -> assertThat("Decision is stored", event.getDecision(), is(true)),
+            () -> assertThat("Overcrowded is unknown before recording", event.getOvercrowded(), nullValue()),
+            () -> assertThat("Correct is unknown before recording", event.getCorrect(), nullValue()),
+            () -> assertThat("Event equals one built from a map", event, is(PatronHistoryEvent.builder()
+                .strategyNameToDecisionMap(ImmutableMap.of("Never", false, "LastCorrect", true, "Always", true))
+                .decision(true)
+                .strategy("Always")
+                .build()))
+        );
+    }
+
+    @Test
+    public void record_setsOvercrowdedAndCorrectFlags() {
+        final PatronHistoryEvent event = PatronHistoryEvent.of(strategyOrdinals, 0L, false, "Never");
+
+        event.record(true);
+
+        assertAll("Outcome is recorded",
+            () -> assertThat("Overcrowded is recorded", event.getOvercrowded(), is(true)),
+            () -> assertThat("Staying home from an overcrowded bar is correct", event.wasCorrect(), is(true)),
+            () -> assertThat("Decision is unchanged", event.decided(), is(false))
+        );
+    }
+
+    @Test
+    public void of_sharesOrdinalsForEqualStrategySets() {
+        assertThat("Ordinals are interned", DecisionStrategyOrdinals.of(ImmutableList.of("LastCorrect", "Always", "Never")),
+            sameInstance(strategyOrdinals));
+    }
+
+    @Test
+    public void serialization_keepsReportSchema() throws Exception {
+        final PatronHistoryEvent event = PatronHistoryEvent.of(strategyOrdinals, 1L << strategyOrdinals.ordinalOf("Always"), true, "Always");
+        event.record(false);
+
+        assertThat("Event is serialized with the report fields", new ObjectMapper().writeValueAsString(event),
+            is("{\"strategyNameToDecisionMap\":{\"Always\":true,\"LastCorrect\":false,\"Never\":false},"
+                + "\"decision\":true,\"strategy\":\"Always\",\"overcrowded\":false,\"correct\":true}"));
+    }
+}
@@ -0,0 +1,68 @@
+package abm.elfarolbar.agents.patron;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PatronMemoryTest {
+    private final List<PatronHistoryEvent> events = IntStream.range(0, 8)
+        .mapToObj(idx -> PatronHistoryEvent.builder()
+            .decision(idx % 2 == 0)
+            .strategy(String.format("Strategy %d", idx))
+            .build())
+        .toList();
+
+    @Test
+    public void add_keepsOnlyTheLastMemoryLengthEvents() {
+        final PatronMemory memory = PatronMemory.of(3, ImmutableList.of());
+
+        events.forEach(memory::add);
+
+        assertAll("Memory is bounded",
+            () -> assertThat("Every step is counted", memory.getSteps(), is(8)),
+            () -> assertThat("Last three events are remembered in order", memory.recent(), is(events.subList(5, 8))),
+            () -> assertThat("Last event is the latest", memory.last(), is(events.get(7)))
+        );
+    }
+
+    @Test
+    public void of_remembersTheEndOfHistory() {
+        final PatronMemory memory = PatronMemory.of(3, events.subList(0, 5), 12);
+
+        assertAll("Memory starts from the end of the history",
+            () -> assertThat("Steps are kept", memory.getSteps(), is(12)),
+            () -> assertThat("Last three events are remembered", memory.recent(), is(events.subList(2, 5)))
+        );
+    }
+
+    @Test
+    public void recent_isEmpty_beforeFirstStep() {
+        final PatronMemory memory = PatronMemory.of(3, ImmutableList.of());
+
+        assertThat("Nothing is remembered", memory.recent(), is(ImmutableList.of()));
+        assertThat("There is no last event", memory.last(), is(nullValue()));
+    }
+
+    @Test
+    public void last_isKept_whenMemoryLengthIsZero() {
+        final PatronMemory memory = PatronMemory.of(0, events.subList(0, 2));
+
+        assertThat("Nothing is remembered", memory.recent(), is(ImmutableList.of()));
+        assertThat("Last event can still be recorded", memory.last(), is(events.get(1)));
+    }
+
+    @Test
+    public void of_throwsException_whenHistoryIsLongerThanSteps() {
+        assertThrows(IllegalArgumentException.class, () -> PatronMemory.of(3, events, 2));
+    }
+}
@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
@@ -12,7 +13,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.random.RandomStream;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -75,20 +79,46 @@ public class PatronTest {
         assertThat("Default value for lastStrategySwitchStep is 5", patron.getLastStrategySwitchStep(), is(0));
     }
 
+    @Test
+    public void decide_countsEveryAttendingPatron_whenPatronsDecideInParallel() {
+        final Bar sharedBar = Bar.builder()
+            .maxCapacity(60)
+            .build();
+        doReturn(true)
+            .when(activeDecisionStrategy)
+            .decide(eq(sharedBar), any(PatronMemoryProps.class), any(RandomStream.class));
+        doReturn(false)
+            .when(inactiveDecisionStrategy)
+            .decide(eq(sharedBar), any(PatronMemoryProps.class), any(RandomStream.class));
+        final List<Patron> patrons = IntStream.range(0, 10_000)
+            .mapToObj(patron -> Patron.builder()
+                .id(UUID.randomUUID().toString())
+                .decisionStrategies(ImmutableMap.of(
+                    "Active", activeDecisionStrategy,
+                    "Inactive", inactiveDecisionStrategy
+                ))
+                .decisionStrategyName("Active")
+                .replacementStrategy(replacementStrategy)
+                .memoryProps(PatronMemoryProps.builder().build())
+                .build())
+            .toList();
+
+        patrons.parallelStream().forEach(patron -> patron.decide(sharedBar));
+
+        assertThat("Every patron is counted", sharedBar.getAttendance(), is(10_000));
+    }
+
     @Test
     public void decide_updatesHistory_andAttendsBar_whenActiveDecisionStrategyReturnsTrue() {
         doReturn(true)
             .when(activeDecisionStrategy)
-            .decide(eq(bar), eq(testPatron.getMemoryProps()));
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
         doReturn(false)
             .when(inactiveDecisionStrategy)
-            .decide(eq(bar), eq(testPatron.getMemoryProps()));
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
 
         assertThat("Returns true decision", testPatron.decide(bar));
 
-        verify(activeDecisionStrategy).select();
-        verify(inactiveDecisionStrategy, never()).select();
-
         final PatronHistoryEvent expectedPatronHistoryEvent = PatronHistoryEvent.builder()
             .strategyNameToDecisionMap(
                 ImmutableMap.of(
@@ -112,16 +142,13 @@ public class PatronTest {
     public void decide_updatesHistory_andDoesNotAttendsBar_whenActiveDecisionStrategyReturnsFalse() {
         doReturn(false)
             .when(activeDecisionStrategy)
-            .decide(eq(bar), eq(testPatron.getMemoryProps()));
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
         doReturn(true)
             .when(inactiveDecisionStrategy)
-            .decide(eq(bar), eq(testPatron.getMemoryProps()));
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
 
         assertThat("Returns false decision", !testPatron.decide(bar));
 
-        verify(activeDecisionStrategy).select();
-        verify(inactiveDecisionStrategy, never()).select();
-
         final PatronHistoryEvent expectedPatronHistoryEvent = PatronHistoryEvent.builder()
             .strategyNameToDecisionMap(
                 ImmutableMap.of(
@@ -141,6 +168,21 @@ public class PatronTest {
         verify(bar, never()).addPatron();
     }
 
+    @Test
+    public void choose_updatesHistory_andLeavesAttendingToCaller() {
+        doReturn(true)
+            .when(activeDecisionStrategy)
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
+        doReturn(false)
+            .when(inactiveDecisionStrategy)
+            .decide(eq(bar), eq(testPatron.getMemoryProps()), any(RandomStream.class));
+
+        assertThat("Returns true decision", testPatron.choose(bar, SharedDecisions.none(), StepRandom.unseeded()));
+
+        assertThat("Patron history contains one event", testPatron.getHistory().size(), is(1));
+        verify(bar, never()).addPatron();
+    }
+
     @Test
     public void selectNewStrategy_picksStrategyWithTheMostCorrectDecisionsRecently_andUpdatesState() {
         final PatronMemoryProps memoryProps = PatronMemoryProps.builder().build();
@@ -278,6 +320,49 @@ public class PatronTest {
         );
     }
 
+    @Test
+    public void selectNewStrategy_keepsCurrentStrategy_whenNoAlternativeWasRecentlyCorrect() {
+        final PatronMemoryProps memoryProps = PatronMemoryProps.builder().build();
+        final List<PatronHistoryEvent> history = IntStream.range(0, memoryProps.getMemoryLength())
+            .boxed()
+            .map(idx ->
+                PatronHistoryEvent.builder()
+                    .decision(true)
+                    .strategy("Active")
+                    .strategyNameToDecisionMap(
+                        ImmutableMap.of(
+                            "Active", false,
+                            "Inactive", true,
+                            "Inactive 2", true
+                        )
+                    )
+                    .overcrowded(true)
+                    .build())
+            .collect(Collectors.toList());
+
+        final Patron patron = Patron.builder()
+            .id(UUID.randomUUID().toString())
+            .decisionStrategies(ImmutableMap.of(
+                "Active", activeDecisionStrategy,
+                "Inactive", inactiveDecisionStrategy,
+                "Inactive 2", inactiveDecisionStrategy
+            ))
+            .decisionStrategyName("Active")
+            .replacementStrategy(replacementStrategy)
+            .memoryProps(memoryProps)
+            .history(history)
+            .lastStrategySwitchStep(0)
+            .build();
+
+        final boolean switched = patron.selectNewStrategy();
+
+        assertAll("Current strategy is kept",
+            () -> assertThat("No switch is reported", switched, is(false)),
+            () -> assertThat("Decision strategy is unchanged", patron.getDecisionStrategyName(), is("Active")),
+            () -> assertThat("Last strategy switch step is updated", patron.getLastStrategySwitchStep(), is(5))
+        );
+    }
+
     @Test
     public void shouldReplaceStrategy_returnsFalse_whenHistoryIsEmpty() {
         final Patron patron = Patron.builder()
@@ -349,10 +434,10 @@ public class PatronTest {
 
         doReturn(false)
             .when(replacementStrategy)
-            .decide(eq(patron.getMemoryProps()), anyList());
+            .decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));
 
         assertThat("Decisions strategy should not be replaced", !patron.shouldReplaceStrategy());
-        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList());;
+        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));;
     }
 
     @Test
@@ -382,10 +467,10 @@ public class PatronTest {
 
         doReturn(false)
             .when(replacementStrategy)
-            .decide(eq(patron.getMemoryProps()), anyList());
+            .decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));
 
         assertThat("Decisions strategy should not be replaced", !patron.shouldReplaceStrategy());
-        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList());;
+        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));;
     }
 
     @Test
@@ -415,10 +500,10 @@ public class PatronTest {
 
         doReturn(true)
             .when(replacementStrategy)
-            .decide(eq(patron.getMemoryProps()), anyList());
+            .decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));
 
         assertThat("Decisions strategy should be replaced", patron.shouldReplaceStrategy());
-        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList());;
+        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));;
     }
 
     @Test
@@ -448,10 +533,10 @@ public class PatronTest {
 
         doReturn(true)
             .when(replacementStrategy)
-            .decide(eq(patron.getMemoryProps()), anyList());
+            .decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));
 
         assertThat("Decisions strategy should be replaced", patron.shouldReplaceStrategy());
-        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList());;
+        verify(replacementStrategy).decide(eq(patron.getMemoryProps()), anyList(), any(RandomStream.class));;
     }
 
     @Test
@@ -472,7 +557,7 @@ public class PatronTest {
                 .strategy("Active")
                 .build();
 
-        testPatron.getHistory().add(lastHistoryEvent);
+        testPatron.getMemory().add(lastHistoryEvent);
 
         testPatron.record(bar);
 
@@ -499,7 +584,7 @@ public class PatronTest {
                 .strategy("Active")
                 .build();
 
-        testPatron.getHistory().add(lastHistoryEvent);
+        testPatron.getMemory().add(lastHistoryEvent);
 
         testPatron.record(bar);
         assertThat("Test patron history has one event", testPatron.getHistory().size(), is(1));
@@ -527,7 +612,7 @@ public class PatronTest {
                 .strategy("Active")
                 .build();
 
-        testPatron.getHistory().add(lastHistoryEvent);
+        testPatron.getMemory().add(lastHistoryEvent);
 
         testPatron.record(bar);
 
@@ -554,7 +639,7 @@ public class PatronTest {
                 .strategy("Active")
                 .build();
 
-        testPatron.getHistory().add(lastHistoryEvent);
+        testPatron.getMemory().add(lastHistoryEvent);
 
         testPatron.record(bar);
 
@@ -582,4 +667,42 @@ public class PatronTest {
 
         assertThat("Report contains Patron state data", testPatron.generateReport(), is(expectedPatronReport));
     }
+
+    @Test
+    public void record_passesRecordedEventToHistorySink() {
+        doReturn(true)
+            .when(bar)
+            .isOvercrowded();
+        final RetainedPatronHistory historySink = new RetainedPatronHistory();
+        final Patron patron = Patron.builder()
+            .id(UUID.randomUUID().toString())
+            .decisionStrategies(testPatron.getDecisionStrategies())
+            .decisionStrategyName("Active")
+            .replacementStrategy(replacementStrategy)
+            .memoryProps(PatronMemoryProps.builder().memoryLength(2).build())
+            .historySink(historySink)
+            .build();
+
+        IntStream.range(0, 3).forEach(step -> {
+            patron.getMemory().add(PatronHistoryEvent.builder()
+                .decision(step % 2 == 0)
+                .strategy("Active")
+                .build());
+            patron.record(bar);
+        });
+
+        final List<PatronHistoryEvent> expectedHistory = IntStream.range(0, 3)
+            .mapToObj(step -> PatronHistoryEvent.builder()
+                .decision(step % 2 == 0)
+                .strategy("Active")
+                .overcrowded(true)
+                .correct(step % 2 != 0)
+                .build())
+            .toList();
+        assertAll("Patron remembers recent events and the sink retains all of them",
+            () -> assertThat("Patron counts every step", patron.getMemory().getSteps(), is(3)),
+            () -> assertThat("Patron remembers the last two events", patron.getHistory(), is(expectedHistory.subList(1, 3))),
+            () -> assertThat("Report contains the full history", patron.generateReport().getHistory(), is(expectedHistory))
+        );
+    }
 }
@@ -0,0 +1,250 @@
+package abm.elfarolbar.agents.population;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.PatronHistorySink;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.agents.patron.RetainedPatronHistory;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.simulations.PatronSetupDetails;
+import abm.elfarolbar.strategies.decision.AlwaysDecisionStrategy;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.decision.PureRandomDecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import abm.elfarolbar.strategies.replacement.ProgressiveIntoleranceReplacementStrategy;
+import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PatronArrayPopulationTest {
+    private final DecisionStrategy alwaysDecisionStrategy = AlwaysDecisionStrategy.builder().build();
+    private final DecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+    private final List<DecisionStrategy> decisionStrategies = ImmutableList.of(alwaysDecisionStrategy, neverDecisionStrategy);
+    private final ReplacementStrategy replacementStrategy = ProgressiveIntoleranceReplacementStrategy.builder().build();
+    // A tolerance of one makes any failure trigger replacement, so both layouts evolve deterministically
+    private final PatronMemoryProps memoryProps = PatronMemoryProps.builder()
+        .failureTolerance(1.0f)
+        .memoryLength(5)
+        .build();
+    private final List<PatronSetupDetails> patronSetupDetailsList = ImmutableList.of(
+        PatronSetupDetails.builder()
+            .decisionStrategyName(alwaysDecisionStrategy.getName())
+            .replacementStrategyName(replacementStrategy.getName())
+            .count(70)
+            .build(),
+        PatronSetupDetails.builder()
+            .decisionStrategyName(neverDecisionStrategy.getName())
+            .replacementStrategyName(replacementStrategy.getName())
+            .count(10)
+            .build()
+    );
+
+    private final CounterRandom random = CounterRandom.of(42L, "simulation");
+
+    @Test
+    public void simulation_matchesPatronListPopulation() {
+        final Bar listBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Bar arrayBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Population listPopulation = new PatronListPopulation(
+            this.createPatrons(decisionStrategies, replacementStrategy, patronSetupDetailsList, memoryProps, new RetainedPatronHistory()));
+        final Population arrayPopulation = PatronArrayPopulation.create(decisionStrategies,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), patronSetupDetailsList, memoryProps, 5, random,
+            new RetainedPatronHistory());
+
+        IntStream.range(1, 41).forEach(step -> {
+            this.step(listBar, listPopulation, decisionStrategies, step);
+            this.step(arrayBar, arrayPopulation, decisionStrategies, step);
+        });
+
+        this.assertPopulationsMatch(listBar, listPopulation, arrayBar, arrayPopulation, memoryProps);
+    }
+
+    @Test
+    public void simulation_matchesPatronListPopulation_whenStrategiesDrawRandomNumbers() {
+        final List<DecisionStrategy> randomDecisionStrategies = ImmutableList.of(alwaysDecisionStrategy, neverDecisionStrategy,
+            PureRandomDecisionStrategy.builder().build());
+        final ReplacementStrategy flatToleranceReplacementStrategy = FlatToleranceReplacementStrategy.builder().build();
+        final PatronMemoryProps randomMemoryProps = PatronMemoryProps.builder()
+            .failureTolerance(0.5f)
+            .memoryLength(5)
+            .build();
+        final List<PatronSetupDetails> randomSetupDetailsList = randomDecisionStrategies.stream()
+            .map(strategy -> PatronSetupDetails.builder()
+                .decisionStrategyName(strategy.getName())
+                .replacementStrategyName(flatToleranceReplacementStrategy.getName())
+                .count(30)
+                .build())
+            .toList();
+        final Bar listBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Bar arrayBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Population listPopulation = new PatronListPopulation(
+            this.createPatrons(randomDecisionStrategies, flatToleranceReplacementStrategy, randomSetupDetailsList, randomMemoryProps,
+                new RetainedPatronHistory()));
+        final Population arrayPopulation = PatronArrayPopulation.create(randomDecisionStrategies,
+            ImmutableMap.of(flatToleranceReplacementStrategy.getName(), flatToleranceReplacementStrategy), randomSetupDetailsList,
+            randomMemoryProps, 5, random, new RetainedPatronHistory());
+
+        IntStream.range(1, 41).forEach(step -> {
+            this.step(listBar, listPopulation, randomDecisionStrategies, step);
+            this.step(arrayBar, arrayPopulation, randomDecisionStrategies, step);
+        });
+
+        this.assertPopulationsMatch(listBar, listPopulation, arrayBar, arrayPopulation, randomMemoryProps);
+    }
+
+    @Test
+    public void simulation_matchesPatronListPopulation_whenNoAlternativeStrategyExists() {
+        final List<DecisionStrategy> singleDecisionStrategy = ImmutableList.of(alwaysDecisionStrategy);
+        final List<PatronSetupDetails> singleSetupDetailsList = ImmutableList.of(PatronSetupDetails.builder()
+            .decisionStrategyName(alwaysDecisionStrategy.getName())
+            .replacementStrategyName(replacementStrategy.getName())
+            .count(80)
+            .build());
+        final Bar listBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Bar arrayBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Population listPopulation = new PatronListPopulation(
+            this.createPatrons(singleDecisionStrategy, replacementStrategy, singleSetupDetailsList, memoryProps, new RetainedPatronHistory()));
+        final Population arrayPopulation = PatronArrayPopulation.create(singleDecisionStrategy,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), singleSetupDetailsList, memoryProps, 5, random,
+            new RetainedPatronHistory());
+
+        IntStream.range(1, 41).forEach(step -> {
+            this.step(listBar, listPopulation, singleDecisionStrategy, step);
+            this.step(arrayBar, arrayPopulation, singleDecisionStrategy, step);
+        });
+
+        this.assertPopulationsMatch(listBar, listPopulation, arrayBar, arrayPopulation, memoryProps);
+        assertAll("Every patron keeps the only strategy it has",
+            () -> assertThat("List patrons keep their strategy", listPopulation.getPatrons().stream()
+                .allMatch(patron -> patron.getDecisionStrategyName().equals(alwaysDecisionStrategy.getName())), is(true)),
+            () -> assertThat("Array patrons keep their strategy", arrayPopulation.getPatrons().stream()
+                .allMatch(patron -> patron.getDecisionStrategyName().equals(alwaysDecisionStrategy.getName())), is(true))
+        );
+    }
+
+    @Test
+    public void recordAndReplaceStrategies_matchesSeparatePasses() {
+        final Bar phasedBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Bar fusedBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Population phasedPopulation = PatronArrayPopulation.create(decisionStrategies,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), patronSetupDetailsList, memoryProps, 5, random,
+            new RetainedPatronHistory());
+        final Population fusedPopulation = PatronArrayPopulation.create(decisionStrategies,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), patronSetupDetailsList, memoryProps, 5, random,
+            new RetainedPatronHistory());
+
+        IntStream.range(1, 41).forEach(step -> {
+            this.step(phasedBar, phasedPopulation, decisionStrategies, step);
+            fusedPopulation.decide(fusedBar, SharedDecisions.compute(fusedBar, decisionStrategies, fusedPopulation.getMemoryPropsSet()),
+                StrategyUsage.of(decisionStrategies), random.atStep(step));
+            fusedBar.record();
+            fusedPopulation.recordAndReplaceStrategies(fusedBar, random.atStep(step));
+            fusedBar.reset();
+        });
+
+        this.assertPopulationsMatch(phasedBar, phasedPopulation, fusedBar, fusedPopulation, memoryProps);
+    }
+
+    private void assertPopulationsMatch(final Bar listBar, final Population listPopulation,
+                                        final Bar arrayBar, final Population arrayPopulation,
+                                        final PatronMemoryProps expectedMemoryProps) {
+        final List<PatronReport> listReports = listPopulation.generateReport();
+        final List<PatronReport> arrayReports = arrayPopulation.generateReport();
+        assertThat("Bar attendance histories match", arrayBar.getAttendanceHistory(), is(listBar.getAttendanceHistory()));
+        assertThat("Every patron is reported", arrayReports.size(), is(listReports.size()));
+        assertThat("Full histories are retained", arrayReports.get(0).getHistory().size(), is(40));
+        IntStream.range(0, listReports.size()).forEach(patron -> assertAll("Patron reports match",
+            () -> assertThat("Ids match", arrayReports.get(patron).getId(), is(listReports.get(patron).getId())),
+            () -> assertThat("Histories match", arrayReports.get(patron).getHistory(), is(listReports.get(patron).getHistory())),
+            () -> assertThat("Last strategy switch steps match", arrayReports.get(patron).getLastStrategySwitchStep(),
+                is(listReports.get(patron).getLastStrategySwitchStep())),
+            () -> assertThat("Memory props match", arrayReports.get(patron).getMemoryProps(), is(expectedMemoryProps)),
+            () -> assertThat("Patience matches", arrayReports.get(patron).getPatience(), is(5))
+        ));
+    }
+
+    @Test
+    public void getPatrons_returnsSnapshotsOfCurrentState() {
+        final Bar bar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Population population = PatronArrayPopulation.create(decisionStrategies,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), patronSetupDetailsList, memoryProps, 5, random,
+            PatronHistorySink.discard());
+
+        IntStream.range(1, 6).forEach(step -> this.step(bar, population, decisionStrategies, step));
+
+        final List<Patron> patrons = population.getPatrons();
+        final Patron patron = patrons.get(0);
+        assertAll("Patron snapshot reflects population state",
+            () -> assertThat("All patrons are returned", patrons.size(), is(80)),
+            () -> assertThat("Strategy was replaced after five overcrowded steps", patron.getDecisionStrategyName(), is(neverDecisionStrategy.getName())),
+            () -> assertThat("History is rebuilt", patron.getHistory().size(), is(5)),
+            () -> assertThat("Switch step is recorded", patron.getLastStrategySwitchStep(), is(5)),
+            () -> assertThat("Decision strategies are shared", patron.getDecisionStrategies(),
+                is(Map.of(alwaysDecisionStrategy.getName(), alwaysDecisionStrategy, neverDecisionStrategy.getName(), neverDecisionStrategy))),
+            () -> assertThat("Id is a UUID", UUID.fromString(patron.getId()).toString(), is(patron.getId()))
+        );
+    }
+
+    @Test
+    public void create_throwsException_whenStrategyIsUnknown() {
+        final List<PatronSetupDetails> unknownSetupDetails = ImmutableList.of(PatronSetupDetails.builder()
+            .decisionStrategyName("Unknown")
+            .replacementStrategyName(replacementStrategy.getName())
+            .count(1)
+            .build());
+
+        assertThrows(IllegalArgumentException.class, () -> PatronArrayPopulation.create(decisionStrategies,
+            ImmutableMap.of(replacementStrategy.getName(), replacementStrategy), unknownSetupDetails, memoryProps, 5, random,
+            PatronHistorySink.discard()));
+    }
+
+    private List<Patron> createPatrons(final List<DecisionStrategy> strategies,
+                                       final ReplacementStrategy patronReplacementStrategy,
+                                       final List<PatronSetupDetails> setupDetailsList,
+                                       final PatronMemoryProps patronMemoryProps,
+                                       final PatronHistorySink historySink) {
+        final Map<String, DecisionStrategy> decisionStrategiesMap = strategies.stream()
+            .collect(ImmutableMap.toImmutableMap(DecisionStrategy::getName, strategy -> strategy));
+        final List<String> strategyNames = setupDetailsList.stream()
+            .flatMap(patronSetupDetails -> IntStream.range(0, patronSetupDetails.getCount())
+                .mapToObj(count -> patronSetupDetails.getDecisionStrategyName()))
+            .toList();
+        return IntStream.range(0, strategyNames.size())
+            .mapToObj(patron -> Patron.builder()
+                .id(random.uuid(RandomPurpose.PATRON_ID, patron).toString())
+                .decisionStrategies(decisionStrategiesMap)
+                .decisionStrategyName(strategyNames.get(patron))
+                .replacementStrategy(patronReplacementStrategy)
+                .memoryProps(patronMemoryProps)
+                .historySink(historySink)
+                .build())
+            .toList();
+    }
+
+    private void step(final Bar bar, final Population population, final List<DecisionStrategy> strategies, final int step) {
+        population.decide(bar, SharedDecisions.compute(bar, strategies, population.getMemoryPropsSet()), StrategyUsage.of(strategies),
+            random.atStep(step));
+        bar.record();
+        population.record(bar);
+        population.replaceStrategies(random.atStep(step));
+        bar.reset();
+    }
+}
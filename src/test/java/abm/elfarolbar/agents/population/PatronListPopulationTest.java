@@ -0,0 +1,113 @@
+package abm.elfarolbar.agents.population;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.Patron;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.RetainedPatronHistory;
+import abm.elfarolbar.random.CounterRandom;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
+import abm.elfarolbar.random.RandomPurpose;
+import abm.elfarolbar.strategies.decision.AlwaysDecisionStrategy;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.decision.PureRandomDecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
+import abm.elfarolbar.strategies.decision.StrategyUsage;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PatronListPopulationTest {
+    private final DecisionStrategy alwaysDecisionStrategy = AlwaysDecisionStrategy.builder().build();
+    private final DecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+
+    @Test
+    public void decide_countsEveryAttendingPatronAndStrategyUser_whenDecidingInParallel() {
+        final Map<String, DecisionStrategy> decisionStrategies = ImmutableMap.of(
+            alwaysDecisionStrategy.getName(), alwaysDecisionStrategy,
+            neverDecisionStrategy.getName(), neverDecisionStrategy
+        );
+        final List<Patron> patrons = IntStream.range(0, 20_000)
+            .mapToObj(idx -> Patron.builder()
+                .id(UUID.randomUUID().toString())
+                .decisionStrategies(decisionStrategies)
+                .decisionStrategyName(idx % 4 == 0 ? neverDecisionStrategy.getName() : alwaysDecisionStrategy.getName())
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .memoryProps(PatronMemoryProps.builder().build())
+                .build())
+            .toList();
+        final Population population = new PatronListPopulation(patrons);
+        final Bar bar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+
+        final StrategyUsage strategyUsage = StrategyUsage.of(decisionStrategies.values());
+
+        population.decide(bar, SharedDecisions.compute(bar, decisionStrategies.values(), population.getMemoryPropsSet()), strategyUsage,
+            StepRandom.unseeded());
+
+        assertAll("Counts are reduced from every worker",
+            () -> assertThat("No attendance is lost", bar.getAttendance(), is(15_000)),
+            () -> assertThat("Always strategy users are tallied", strategyUsage.getUsers(alwaysDecisionStrategy.getName()), is(15_000)),
+            () -> assertThat("Never strategy users are tallied", strategyUsage.getUsers(neverDecisionStrategy.getName()), is(5_000))
+        );
+    }
+
+    @Test
+    public void recordAndReplaceStrategies_matchesSeparatePasses() {
+        final CounterRandom random = CounterRandom.of(42L, "simulation");
+        final List<DecisionStrategy> decisionStrategies = ImmutableList.of(alwaysDecisionStrategy, neverDecisionStrategy,
+            PureRandomDecisionStrategy.builder().build());
+        final Population phasedPopulation = new PatronListPopulation(this.createPatrons(decisionStrategies, random));
+        final Population fusedPopulation = new PatronListPopulation(this.createPatrons(decisionStrategies, random));
+        final Bar phasedBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+        final Bar fusedBar = Bar.builder().maxCapacity(60).attendanceHistory(ImmutableList.of(0)).build();
+
+        IntStream.range(1, 41).forEach(step -> {
+            phasedPopulation.decide(phasedBar, SharedDecisions.compute(phasedBar, decisionStrategies, phasedPopulation.getMemoryPropsSet()),
+                StrategyUsage.of(decisionStrategies), random.atStep(step));
+            phasedBar.record();
+            phasedPopulation.record(phasedBar);
+            phasedPopulation.replaceStrategies(random.atStep(step));
+            phasedBar.reset();
+
+            fusedPopulation.decide(fusedBar, SharedDecisions.compute(fusedBar, decisionStrategies, fusedPopulation.getMemoryPropsSet()),
+                StrategyUsage.of(decisionStrategies), random.atStep(step));
+            fusedBar.record();
+            fusedPopulation.recordAndReplaceStrategies(fusedBar, random.atStep(step));
+            fusedBar.reset();
+        });
+
+        assertAll("Fused pass gives the same results",
+            () -> assertThat("Attendance matches", fusedBar.getAttendanceHistory(), is(phasedBar.getAttendanceHistory())),
+            () -> assertThat("Patron reports match", fusedPopulation.generateReport(), is(phasedPopulation.generateReport())),
+            () -> assertThat("Histories are recorded", fusedPopulation.generateReport().get(0).getHistory().size(), is(40))
+        );
+    }
+
+    private List<Patron> createPatrons(final List<DecisionStrategy> decisionStrategies, final CounterRandom random) {
+        final Map<String, DecisionStrategy> decisionStrategiesMap = decisionStrategies.stream()
+            .collect(ImmutableMap.toImmutableMap(DecisionStrategy::getName, strategy -> strategy));
+        final RetainedPatronHistory historySink = new RetainedPatronHistory();
+        return IntStream.range(0, 90)
+            .mapToObj(idx -> Patron.builder()
+                .id(random.uuid(RandomPurpose.PATRON_ID, idx).toString())
+                .decisionStrategies(decisionStrategiesMap)
+                .decisionStrategyName(decisionStrategies.get(idx % decisionStrategies.size()).getName())
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .memoryProps(PatronMemoryProps.builder().failureTolerance(0.5f).build())
+                .historySink(historySink)
+                .build())
+            .toList();
+    }
+}
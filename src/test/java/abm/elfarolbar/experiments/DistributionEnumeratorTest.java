@@ -0,0 +1,111 @@
+package abm.elfarolbar.experiments;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DistributionEnumeratorTest {
+    private static final List<Integer> UNEVEN_GRID = ImmutableList.of(0, 3, 6, 10);
+
+    @ParameterizedTest
+    @MethodSource
+    public void count_matchesEnumeratedDistributions(final int totalPatrons, final List<Integer> gridPoints,
+                                                     final int strategies, final long expectedCount) {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(totalPatrons, gridPoints, strategies);
+
+        assertAll("Distributions are counted without enumerating them",
+                () -> assertThat("Count is correct", enumerator.count(), is(expectedCount)),
+                () -> assertThat("Stream has as many distributions as counted", enumerator.stream().count(), is(expectedCount)),
+                () -> assertThat("Every distribution sums to the total", enumerator.stream()
+                        .allMatch(distribution -> distribution.stream().mapToInt(Integer::intValue).sum() == totalPatrons), is(true))
+        );
+    }
+
+    private static Stream<Arguments> count_matchesEnumeratedDistributions() {
+        return Stream.of(
+                Arguments.of(10, UNEVEN_GRID, 1, 1L),
+                Arguments.of(10, UNEVEN_GRID, 2, 4L),
+                Arguments.of(10, UNEVEN_GRID, 3, 10L),
+                Arguments.of(4, ImmutableList.of(0, 1, 2, 3, 4), 3, 15L),
+                Arguments.of(100, ImmutableList.of(0, 50, 100), 4, 10L)
+        );
+    }
+
+    @Test
+    public void stream_enumeratesDistributionsInLexicographicOrder() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(10, UNEVEN_GRID, 3);
+
+        assertThat("Distributions follow the grid", enumerator.stream().limit(6).toList(), contains(
+                List.of(0, 0, 10),
+                List.of(0, 3, 7),
+                List.of(0, 6, 4),
+                List.of(0, 10, 0),
+                List.of(3, 0, 7),
+                List.of(3, 3, 4)
+        ));
+    }
+
+    @Test
+    public void unrank_andRank_areInverse() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(10, UNEVEN_GRID, 4);
+        final List<List<Integer>> distributions = enumerator.stream().toList();
+
+        assertAll("Ranks address distributions directly",
+                () -> assertThat("Unranking matches enumeration", LongStream.range(0, enumerator.count())
+                        .mapToObj(enumerator::unrank)
+                        .toList(), is(distributions)),
+                () -> assertThat("Ranking matches enumeration", distributions.stream()
+                        .map(enumerator::rank)
+                        .toList(), is(LongStream.range(0, enumerator.count()).boxed().toList()))
+        );
+    }
+
+    @Test
+    public void stream_ofRange_skipsToFirstIndex() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(10, UNEVEN_GRID, 4);
+
+        assertThat("Range matches the same slice of the enumeration", enumerator.stream(5, 12).toList(),
+                is(enumerator.stream().skip(5).limit(7).toList()));
+    }
+
+    @Test
+    public void stream_inParallel_matchesSequentialEnumeration() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(100, ImmutableList.of(0, 20, 40, 60, 80, 100), 5);
+
+        final List<List<Integer>> sequential = enumerator.stream().toList();
+
+        assertThat("Parallel enumeration is complete and ordered", enumerator.stream().parallel().toList(), is(sequential));
+    }
+
+    @Test
+    public void rank_throwsIllegalArgumentException_whenDistributionIsOffTheGrid() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(10, UNEVEN_GRID, 3);
+
+        assertAll("Only distributions of the grid are ranked",
+                () -> assertThrows(IllegalArgumentException.class, () -> enumerator.rank(List.of(1, 0, 9))),
+                () -> assertThrows(IllegalArgumentException.class, () -> enumerator.rank(List.of(0, 3, 6))),
+                () -> assertThrows(IllegalArgumentException.class, () -> enumerator.rank(List.of(0, 10)))
+        );
+    }
+
+    @Test
+    public void unrank_throwsIndexOutOfBoundsException_whenIndexIsOutOfRange() {
+        final DistributionEnumerator enumerator = new DistributionEnumerator(10, UNEVEN_GRID, 3);
+
+        assertAll("Only counted distributions are unranked",
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> enumerator.unrank(-1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> enumerator.unrank(enumerator.count()))
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package abm.elfarolbar.experiments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExperimentCheckpointTest {
+    private static final ExperimentParameters PARAMETERS = ExperimentParameters.builder()
+            .decisionStrategies(List.of("LastCorrect", "Never"))
+            .replacementStrategy("FlatTolerance")
+            .distributionSize(10)
+            .totalPatrons(100)
+            .barCapacity(60)
+            .simulationLength(50)
+            .initialBarAttendance(0)
+            .seed(42L)
+            .shardCount(1)
+            .build();
+
+    @TempDir
+    private Path outputPath;
+
+    @Test
+    public void resume_recallsSimulationsMarkedCompleted() throws IOException {
+        final ExperimentCheckpoint checkpoint = ExperimentCheckpoint.start(outputPath, ExperimentShard.whole(), PARAMETERS);
+        checkpoint.markCompleted("LastCorrect=0-Never=100");
+        checkpoint.markCompleted("LastCorrect=10-Never=90");
+
+        final ExperimentCheckpoint resumed = ExperimentCheckpoint.resume(outputPath, ExperimentShard.whole(), PARAMETERS);
+
+        assertAll("Completed simulations survive the process",
+                () -> assertThat("Started checkpoint remembers nothing", checkpoint.isCompleted("LastCorrect=0-Never=100"), is(false)),
+                () -> assertThat("Resumed checkpoint remembers completed simulations", resumed.isCompleted("LastCorrect=0-Never=100"), is(true)),
+                () -> assertThat("Resumed checkpoint remembers every completed simulation", resumed.isCompleted("LastCorrect=10-Never=90"), is(true)),
+                () -> assertThat("Resumed checkpoint knows what is left", resumed.isCompleted("LastCorrect=20-Never=80"), is(false)),
+                () -> assertThat("Parameters are recorded", ExperimentCheckpoint.readParameters(outputPath), is(PARAMETERS))
+        );
+    }
+
+    @Test
+    public void resume_ignoresLineTornByCrash() throws IOException {
+        ExperimentCheckpoint.start(outputPath, ExperimentShard.whole(), PARAMETERS).markCompleted("LastCorrect=0-Never=100");
+        Files.writeString(outputPath.resolve("shard-0-of-1.completed"), "LastCorrect=10-Ne", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        final ExperimentCheckpoint resumed = ExperimentCheckpoint.resume(outputPath, ExperimentShard.whole(), PARAMETERS);
+
+        assertAll("Torn lines are rerun",
+                () -> assertThat("Whole lines are completed", resumed.isCompleted("LastCorrect=0-Never=100"), is(true)),
+                () -> assertThat("Torn line is not completed", resumed.isCompleted("LastCorrect=10-Never=90"), is(false))
+        );
+    }
+
+    @Test
+    public void resume_keepsShardsApart() throws IOException {
+        ExperimentCheckpoint.start(outputPath, ExperimentShard.of(0, 2), PARAMETERS).markCompleted("LastCorrect=0-Never=100");
+
+        assertThat("Other shards do not see the completion",
+                ExperimentCheckpoint.resume(outputPath, ExperimentShard.of(1, 2), PARAMETERS).isCompleted("LastCorrect=0-Never=100"), is(false));
+    }
+
+    @Test
+    public void start_andResume_throwIllegalStateException_whenDesignDiffers() throws IOException {
+        ExperimentCheckpoint.start(outputPath, ExperimentShard.whole(), PARAMETERS);
+
+        assertAll("Only the recorded design continues the experiment",
+                () -> assertThrows(IllegalStateException.class, () -> ExperimentCheckpoint.resume(outputPath, ExperimentShard.whole(),
+                        ExperimentParameters.builder().seed(7L).build())),
+                () -> assertThrows(IllegalStateException.class, () -> ExperimentCheckpoint.start(outputPath, ExperimentShard.whole(),
+                        ExperimentParameters.builder().seed(7L).build()))
+        );
+    }
+
+    @Test
+    public void writeAtomically_leavesOnlyTheCompleteFile() throws IOException {
+        final Path target = outputPath.resolve("report.json");
+        ExperimentCheckpoint.writeAtomically(target.toFile(), new ObjectMapper().writer(), Map.of("step", 1));
+        ExperimentCheckpoint.writeAtomically(target.toFile(), new ObjectMapper().writer(), Map.of("step", 2));
+
+        try (final var files = Files.list(outputPath)) {
+            assertThat("Only the target remains", files.map(Path::getFileName).map(Path::toString).toList(), contains("report.json"));
+        }
+        assertThat("Target holds the last value", Files.readString(target), is("{\"step\":2}"));
+    }
+}
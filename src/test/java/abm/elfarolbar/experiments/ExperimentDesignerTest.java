@@ -8,29 +8,39 @@ import abm.elfarolbar.strategies.decision.LastIncorrectDecisionStrategy;
 import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
 import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
 public class ExperimentDesignerTest {
     private static final String UUID_FORMAT_REGEX =
             "[a-fA-F0-9]{8}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{4}-[a-fA-F0-9]{12}";
 
+    @TempDir
+    private Path outputRoot;
+
     @ParameterizedTest
     @MethodSource
     public void build_returnsCorrectNumberOfSimulations_onExperiment_with3strategies(final int totalPatrons,
@@ -49,6 +59,7 @@ public class ExperimentDesignerTest {
         final FlatToleranceReplacementStrategy flatToleranceReplacementStrategy = FlatToleranceReplacementStrategy.builder().build();
 
         final ExperimentDesigner experimentDesigner = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
                 .barCapacity(100)
                 .distributionSize(distributionSize)
                 .decisionStrategies(decisionStrategies)
@@ -60,7 +71,8 @@ public class ExperimentDesignerTest {
 
         final Experiment experiment = experimentDesigner.design();
 
-        assertThat("Expected number of simulations were created", experiment.getSimulations(), hasSize(expectedNumberOfSimulations));
+        assertThat("Expected number of simulations is counted", experiment.getSimulationCount(), is((long) expectedNumberOfSimulations));
+        assertThat("Expected number of simulations were created", Iterables.size(experiment.getSimulations()), is(expectedNumberOfSimulations));
     }
 
     @Test
@@ -78,6 +90,7 @@ public class ExperimentDesignerTest {
         final FlatToleranceReplacementStrategy flatToleranceReplacementStrategy = FlatToleranceReplacementStrategy.builder().build();
 
         final ExperimentDesigner experimentDesigner = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
                 .barCapacity(60)
                 .distributionSize(20)
                 .decisionStrategies(decisionStrategies)
@@ -90,10 +103,9 @@ public class ExperimentDesignerTest {
         final Experiment experiment = experimentDesigner.design();
 
         assertThat("Experiment ID is in UUID format", experiment.getId(), matchesPattern(UUID_FORMAT_REGEX));
-        assertThat("Experiment output path is to expected destination", experiment.getOutputPath(), is(String.format("./reports/%s", experiment.getId())));
+        assertThat("Experiment output path is to expected destination", experiment.getOutputPath(), is(outputRoot.resolve(experiment.getId()).toString()));
 
-        final List<Map<String, Integer>> strategyDistributions = experiment.getSimulations()
-                .stream()
+        final List<Map<String, Integer>> strategyDistributions = experiment.streamSimulations()
                 .map(Simulation::getInitialPatronSetupDetails)
                 .map(patronSetupDetailsList ->
                         patronSetupDetailsList.stream()
@@ -143,6 +155,155 @@ public class ExperimentDesignerTest {
                 });
     }
 
+    @Test
+    public void build_generatesSimulationsLazily_andAnewOnEveryIteration() throws IOException {
+        final ExperimentDesigner experimentDesigner = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
+                .barCapacity(60)
+                .distributionSize(20)
+                .decisionStrategies(ImmutableSet.of(
+                        LastCorrectDecisionStrategy.builder().build(),
+                        NeverDecisionStrategy.builder().build()))
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .simulationLength(50)
+                .totalPatrons(100)
+                .build();
+
+        final Experiment experiment = experimentDesigner.design();
+        final Simulation firstSimulation = experiment.getSimulations().iterator().next();
+        final Simulation firstSimulationAgain = experiment.getSimulations().iterator().next();
+
+        assertThat("Every iteration generates new simulations", firstSimulationAgain, not(sameInstance(firstSimulation)));
+        assertThat("Simulations are generated identically", firstSimulationAgain.getInitialPatronSetupDetails(),
+                is(firstSimulation.getInitialPatronSetupDetails()));
+    }
+
+    @Test
+    public void build_withShards_splitsDistributionsDisjointlyAcrossShards() throws IOException {
+        final ExperimentDesigner.ExperimentDesignerBuilder designerBuilder = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
+                .barCapacity(60)
+                .distributionSize(10)
+                .decisionStrategies(ImmutableSet.of(
+                        LastCorrectDecisionStrategy.builder().build(),
+                        LastIncorrectDecisionStrategy.builder().build(),
+                        NeverDecisionStrategy.builder().build()))
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .simulationLength(50)
+                .totalPatrons(100)
+                .seed(42L);
+        final String experimentId = String.format("sharded-%s", UUID.randomUUID());
+
+        final List<Experiment> shards = IntStream.range(0, 4)
+                .mapToObj(shard -> ExperimentShard.of(shard, 4))
+                .map(shard -> {
+                    try {
+                        return designerBuilder.experimentId(experimentId).shard(shard).build().design();
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .toList();
+        final List<String> shardedSimulationIds = shards.stream()
+                .flatMap(Experiment::streamSimulations)
+                .map(Simulation::getSimulationId)
+                .toList();
+        final List<String> simulationIds = designerBuilder.experimentId(null).shard(ExperimentShard.whole()).build().design()
+                .streamSimulations()
+                .map(Simulation::getSimulationId)
+                .toList();
+
+        assertAll("Shards cover the experiment once, in order",
+                () -> assertThat("Shards share an output path", shards.stream().map(Experiment::getOutputPath).distinct().toList(),
+                        contains(outputRoot.resolve(experimentId).toString())),
+                () -> assertThat("Shards split the simulations evenly", shards.stream().map(Experiment::getSimulationCount).toList(),
+                        contains(16L, 17L, 16L, 17L)),
+                () -> assertThat("Shards know the size of the experiment", shards.get(0).getExperimentSimulationCount(), is(66L)),
+                () -> assertThat("Shards together generate every simulation", shardedSimulationIds, is(simulationIds))
+        );
+    }
+
+    @Test
+    public void build_withShards_enumeratesTheSameSlice_whateverTheOrderOfTheStrategies() throws IOException {
+        final LastCorrectDecisionStrategy lastCorrectStrategy = LastCorrectDecisionStrategy.builder().build();
+        final LastIncorrectDecisionStrategy lastIncorrectStrategy = LastIncorrectDecisionStrategy.builder().build();
+        final NeverDecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+        final ExperimentDesigner.ExperimentDesignerBuilder designerBuilder = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
+                .barCapacity(60)
+                .distributionSize(10)
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .simulationLength(50)
+                .totalPatrons(100)
+                .seed(42L)
+                .experimentId(String.format("ordered-%s", UUID.randomUUID()))
+                .shard(ExperimentShard.of(1, 4));
+
+        final List<String> simulationIds = designerBuilder
+                .decisionStrategies(ImmutableSet.of(lastCorrectStrategy, lastIncorrectStrategy, neverDecisionStrategy))
+                .build()
+                .design()
+                .streamSimulations()
+                .map(Simulation::getSimulationId)
+                .toList();
+        final List<String> reorderedSimulationIds = designerBuilder
+                .decisionStrategies(ImmutableSet.of(neverDecisionStrategy, lastIncorrectStrategy, lastCorrectStrategy))
+                .build()
+                .design()
+                .streamSimulations()
+                .map(Simulation::getSimulationId)
+                .toList();
+
+        assertAll("Shards agree on their slice and reject another design",
+                () -> assertThat("Both orders give the same slice", reorderedSimulationIds, is(simulationIds)),
+                () -> assertThrows(IllegalStateException.class, () -> designerBuilder.seed(7L).shard(ExperimentShard.of(2, 4)).build().design())
+        );
+    }
+
+    @Test
+    public void build_withShards_throwsIllegalStateException_whenExperimentIdOrSeedIsUnset() {
+        final ExperimentDesigner experimentDesigner = ExperimentDesigner.builder()
+                .distributionSize(10)
+                .decisionStrategies(ImmutableSet.of(NeverDecisionStrategy.builder().build()))
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .totalPatrons(100)
+                .seed(42L)
+                .shard(ExperimentShard.of(1, 2))
+                .build();
+
+        assertThrows(IllegalStateException.class, experimentDesigner::design);
+    }
+
+    @Test
+    public void build_withResume_skipsReportedSimulations() throws IOException {
+        final ExperimentDesigner.ExperimentDesignerBuilder designerBuilder = ExperimentDesigner.builder()
+                .outputRoot(outputRoot)
+                .barCapacity(60)
+                .distributionSize(20)
+                .decisionStrategies(ImmutableSet.of(
+                        LastCorrectDecisionStrategy.builder().build(),
+                        NeverDecisionStrategy.builder().build()))
+                .replacementStrategy(FlatToleranceReplacementStrategy.builder().build())
+                .simulationLength(50)
+                .totalPatrons(100)
+                .experimentId(String.format("resumed-%s", UUID.randomUUID()));
+        final Experiment started = designerBuilder.seed(42L).build().design();
+        final List<String> simulationIds = started.streamSimulations().map(Simulation::getSimulationId).toList();
+        started.getCheckpoint().markCompleted(simulationIds.get(0));
+        started.getCheckpoint().markCompleted(simulationIds.get(3));
+
+        final Experiment resumed = designerBuilder.seed(null).resume(true).build().design();
+
+        assertAll("Resumed experiment runs the remainder",
+                () -> assertThat("Seed is recovered from the checkpoint", resumed.getSeed(), is(42L)),
+                () -> assertThat("Output path is shared", resumed.getOutputPath(), is(started.getOutputPath())),
+                () -> assertThat("Reported simulations are counted", resumed.getResumedSimulations(), is(2L)),
+                () -> assertThat("Reported simulations are skipped", resumed.streamSimulations().map(Simulation::getSimulationId).toList(),
+                        is(List.of(simulationIds.get(1), simulationIds.get(2), simulationIds.get(4), simulationIds.get(5))))
+        );
+        assertThrows(IllegalStateException.class, () -> designerBuilder.seed(7L).resume(true).build().design());
+    }
+
     private static Stream<Arguments> build_returnsCorrectNumberOfSimulations_onExperiment_with3strategies() {
         return Stream.of(
                 Arguments.of(100, 2, 1326),
@@ -2,19 +2,35 @@ package abm.elfarolbar.experiments;
 
 import abm.elfarolbar.exceptions.ExperimentFailureException;
 import abm.elfarolbar.simulations.Simulation;
-import abm.elfarolbar.simulations.reporting.SimulationReport;
+import abm.elfarolbar.simulations.reporting.PatronSetupDetailsReport;
+import abm.elfarolbar.simulations.reporting.ReportFormat;
+import abm.elfarolbar.simulations.reporting.SimulationInputDataset;
+import abm.elfarolbar.simulations.reporting.SimulationReportWriter;
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -36,9 +52,18 @@ public class ExperimentExecutorTest {
     @Mock
     private ObjectWriter objectWriter;
 
+    @Mock
+    private SimulationReportWriter reportWriter;
+
     @Mock
     private Experiment experiment;
 
+    @Mock
+    private ExperimentCheckpoint checkpoint;
+
+    @TempDir
+    private Path outputDirectory;
+
     @Test
     public void execute_completesAllSimulations() throws Exception {
         final List<Simulation> simulationList = List.of(
@@ -47,29 +72,81 @@ public class ExperimentExecutorTest {
                 simulation3
         );
         doReturn(experiment).when(experimentDesigner).design();
+        doReturn(ReportFormat.JSON).when(experiment).getReportFormat();
 
-        final String outputPath = "outputPath";
+        final String outputPath = outputDirectory.toString();
         doReturn(outputPath).when(experiment).getOutputPath();
         doReturn(simulationList).when(experiment).getSimulations();
+        doReturn(ExperimentShard.whole()).when(experiment).getShard();
+        doReturn(checkpoint).when(experiment).getCheckpoint();
+        doReturn("simulation1").when(simulation1).getSimulationId();
+        doReturn("simulation2").when(simulation2).getSimulationId();
+        doReturn("simulation3").when(simulation3).getSimulationId();
+        summarises(simulation1, simulation2, simulation3);
+        writesFiles();
+
+        try (final ExperimentScheduler experimentScheduler = ExperimentScheduler.forAvailableProcessors()) {
+            final ExperimentResults results = new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler, reportWriter).execute();
+
+            verify(experiment, atLeastOnce()).getOutputPath();
+            verify(simulation1).execute();
+            verify(simulation2).execute();
+            verify(simulation3).execute();
+            verify(reportWriter, times(3)).write(any(Simulation.class), anyLong(), any(OutputStream.class));
+            verify(reportWriter).write(eq(simulation1), anyLong(), any(OutputStream.class));
+            verify(objectWriter).writeValue(eq(outputDirectory.resolve("shard-0-of-1.manifest.json.tmp").toFile()), any(ShardManifest.class));
+            verify(checkpoint).markCompleted("simulation1");
+            verify(checkpoint).markCompleted("simulation2");
+            verify(checkpoint).markCompleted("simulation3");
+            verify(simulation1).discardSnapshot();
+            assertThat("Every simulation is indexed", SummaryIndex.read(outputDirectory).getEntries().stream()
+                    .map(SummaryIndexEntry::getSimulationId)
+                    .toList(), contains("simulation1", "simulation2", "simulation3"));
+
+            assertThat("Reports are renamed into place", Files.exists(outputDirectory.resolve("simulation1.json")), is(true));
+            assertThat("No temporary files are left behind", Files.exists(outputDirectory.resolve("simulation1.json.tmp")), is(false));
+            assertAll("Results are populated correctly",
+                    () -> assertThat("Results contains experiment", results.getExperiment(), is(experiment)),
+                    () -> assertThat("Results count completed simulations", results.getCompletedSimulations(), is(3L)),
+                    () -> assertThat("Results record execution time", results.getExecutionTime(), greaterThan(0L))
+            );
+        }
+    }
 
-        doReturn(SimulationReport.builder().build()).when(simulation1).generateReport();
-        doReturn(SimulationReport.builder().build()).when(simulation2).generateReport();
-        doReturn(SimulationReport.builder().build()).when(simulation3).generateReport();
-
-        final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, objectWriter);
-
-        final ExperimentResults results = experimentExecutor.execute();
-
-        verify(experiment, atLeastOnce()).getOutputPath();
-        verify(simulation1).execute();
-        verify(simulation2).execute();
-        verify(simulation3).execute();
-        verify(objectWriter, times(3)).writeValue(any(File.class), any(SimulationReport.class));
-
-        assertAll("Results are populated correctly",
-                () -> assertThat("Results contains experiment", results.getExperiment(), is(experiment)),
-                () -> assertThat("Results record execution time", results.getExecutionTime(), greaterThan(0L))
-        );
+    @Test
+    public void execute_generatesSimulationsOnlyAsSlotsFreeUp() throws Exception {
+        final AtomicInteger generatedSimulations = new AtomicInteger();
+        final AtomicInteger reportedSimulations = new AtomicInteger();
+        final AtomicInteger maxSimulationsInFlight = new AtomicInteger();
+        final Iterable<Simulation> simulations = () -> IntStream.range(0, 20)
+                .mapToObj(idx -> {
+                    final int inFlight = generatedSimulations.incrementAndGet() - reportedSimulations.get();
+                    maxSimulationsInFlight.accumulateAndGet(inFlight, Math::max);
+                    final Simulation simulation = mock(Simulation.class);
+                    doReturn(String.format("simulation%d", idx)).when(simulation).getSimulationId();
+                    summarises(simulation);
+                    return simulation;
+                })
+                .iterator();
+        doReturn(experiment).when(experimentDesigner).design();
+        doReturn(ReportFormat.JSON).when(experiment).getReportFormat();
+        doReturn(outputDirectory.toString()).when(experiment).getOutputPath();
+        doReturn(simulations).when(experiment).getSimulations();
+        doReturn(ExperimentShard.whole()).when(experiment).getShard();
+        doReturn(checkpoint).when(experiment).getCheckpoint();
+        writesFiles();
+        doAnswer(invocation -> reportedSimulations.incrementAndGet())
+                .when(reportWriter).write(any(Simulation.class), anyLong(), any(OutputStream.class));
+
+        try (final ExperimentScheduler experimentScheduler = new ExperimentScheduler(1, 1)) {
+            final ExperimentResults results = new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler, reportWriter).execute();
+
+            assertAll("Simulations are generated lazily",
+                    () -> assertThat("Every simulation is completed", results.getCompletedSimulations(), is(20L)),
+                    () -> assertThat("At most two simulations are held per slot, plus the queued and the written report",
+                            maxSimulationsInFlight.get(), lessThanOrEqualTo(4))
+            );
+        }
     }
 
     @Test
@@ -80,28 +157,99 @@ public class ExperimentExecutorTest {
                 simulation3
         );
         doReturn(experiment).when(experimentDesigner).design();
+        doReturn(ReportFormat.JSON).when(experiment).getReportFormat();
 
-        final String outputPath = "outputPath";
+        final String outputPath = outputDirectory.toString();
         doReturn(outputPath).when(experiment).getOutputPath();
         doReturn(simulationList).when(experiment).getSimulations();
+        doReturn(ExperimentShard.whole()).when(experiment).getShard();
+
+        doThrow(new RuntimeException()).when(reportWriter).write(any(Simulation.class), anyLong(), any(OutputStream.class));
 
-        doReturn(SimulationReport.builder().build()).when(simulation1).generateReport();
-        doReturn(SimulationReport.builder().build()).when(simulation2).generateReport();
-        doReturn(SimulationReport.builder().build()).when(simulation3).generateReport();
+        try (final ExperimentScheduler experimentScheduler = ExperimentScheduler.forAvailableProcessors()) {
+            final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler, reportWriter);
 
-        doThrow(new RuntimeException()).when(objectWriter).writeValue(any(File.class), any(SimulationReport.class));
+            assertThrows(ExperimentFailureException.class, experimentExecutor::execute);
+        }
+    }
 
-        final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, objectWriter);
+    @Test
+    public void execute_countsResumedSimulationsAsCompleted_inShardManifest() throws Exception {
+        doReturn(experiment).when(experimentDesigner).design();
+        doReturn(ReportFormat.JSON).when(experiment).getReportFormat();
+        doReturn(outputDirectory.toString()).when(experiment).getOutputPath();
+        doReturn(List.of(simulation1)).when(experiment).getSimulations();
+        doReturn(ExperimentShard.whole()).when(experiment).getShard();
+        doReturn(checkpoint).when(experiment).getCheckpoint();
+        doReturn(3L).when(experiment).getSimulationCount();
+        doReturn(2L).when(experiment).getResumedSimulations();
+        doReturn("simulation1").when(simulation1).getSimulationId();
+        summarises(simulation1);
+        writesFiles();
+
+        try (final ExperimentScheduler experimentScheduler = ExperimentScheduler.forAvailableProcessors()) {
+            final ExperimentResults results = new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler, reportWriter).execute();
+
+            verify(objectWriter).writeValue(any(File.class), argThat(value -> value instanceof ShardManifest manifest
+                    && manifest.getCompletedSimulations() == 3 && manifest.getEndSimulationIndex() == 3));
+            assertThat("Results count simulations completed by this run", results.getCompletedSimulations(), is(1L));
+        }
+    }
 
-        assertThrows(ExperimentFailureException.class, experimentExecutor::execute);
+    @Test
+    public void execute_compressesReports_whenFormatIsJsonGzip() throws Exception {
+        doReturn(experiment).when(experimentDesigner).design();
+        doReturn(ReportFormat.JSON_GZIP).when(experiment).getReportFormat();
+        doReturn(outputDirectory.toString()).when(experiment).getOutputPath();
+        doReturn(List.of(simulation1)).when(experiment).getSimulations();
+        doReturn(ExperimentShard.whole()).when(experiment).getShard();
+        doReturn(checkpoint).when(experiment).getCheckpoint();
+        doReturn("simulation1").when(simulation1).getSimulationId();
+        summarises(simulation1);
+        writesFiles();
+        doAnswer(invocation -> {
+            try (final OutputStream output = invocation.getArgument(2)) {
+                output.write("{}".getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(reportWriter).write(any(Simulation.class), anyLong(), any(OutputStream.class));
+
+        try (final ExperimentScheduler experimentScheduler = ExperimentScheduler.forAvailableProcessors()) {
+            new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler, reportWriter).execute();
+
+            try (final InputStream input = new GZIPInputStream(Files.newInputStream(outputDirectory.resolve("simulation1.json.gz")))) {
+                assertThat("Report is gzip compressed", new String(input.readAllBytes(), StandardCharsets.UTF_8), is("{}"));
+            }
+            verify(checkpoint).markCompleted("simulation1");
+        }
     }
 
     @Test
     public void execute_throwsExperimentFailureException_whenDesignFails() throws Exception {
         doThrow(new RuntimeException()).when(experimentDesigner).design();
 
-        final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, objectWriter);
+        try (final ExperimentScheduler experimentScheduler = new ExperimentScheduler(1, 1)) {
+            final ExperimentExecutor experimentExecutor = new ExperimentExecutor(experimentDesigner, objectWriter, experimentScheduler);
+
+            assertThrows(ExperimentFailureException.class, experimentExecutor::execute);
+        }
+    }
+
+    private static void summarises(final Simulation... simulations) {
+        for (final Simulation simulation : simulations) {
+            doReturn(SimulationInputDataset.builder()
+                    .barCapacity(60)
+                    .initialPatronSetupDetails(List.of(PatronSetupDetailsReport.builder().decisionStrategyName("strategy").count(100).build()))
+                    .build()).when(simulation).generateInputReport();
+            doReturn(SimulationSummary.builder().finalStrategyDistribution(Map.of()).build()).when(simulation).generateSummary();
+        }
+    }
 
-        assertThrows(ExperimentFailureException.class, experimentExecutor::execute);
+    /**
+     * Has the mocked object writer create the files it is asked to write, so they can be renamed into place.
+     */
+    private void writesFiles() throws Exception {
+        doAnswer(invocation -> Files.createFile(invocation.<File>getArgument(0).toPath()))
+                .when(objectWriter).writeValue(any(File.class), any());
     }
 }
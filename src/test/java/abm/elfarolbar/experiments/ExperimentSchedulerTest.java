@@ -0,0 +1,84 @@
+package abm.elfarolbar.experiments;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ExperimentSchedulerTest {
+    @Test
+    public void submit_runsParallelPatronWorkOnThePatronPool() throws Exception {
+        try (final ExperimentScheduler scheduler = new ExperimentScheduler(2, 4)) {
+            final Set<String> threadNames = scheduler.submit(() -> IntStream.range(0, 10_000)
+                    .parallel()
+                    .mapToObj(idx -> Thread.currentThread().getName())
+                    .collect(Collectors.toSet()))
+                .get();
+
+            assertThat("Only patron pool threads do the work", threadNames, everyItem(startsWith("patrons-")));
+        }
+    }
+
+    @Test
+    public void getStats_reportsQueueDepthAndUtilisation() throws Exception {
+        try (final ExperimentScheduler scheduler = new ExperimentScheduler(1, 2)) {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final Future<Boolean> running = scheduler.submit(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            });
+            final List<Future<Integer>> queued = IntStream.range(0, 3)
+                .mapToObj(idx -> scheduler.submit(() -> idx))
+                .toList();
+            started.await();
+
+            final ExperimentSchedulerStats stats = scheduler.getStats();
+            release.countDown();
+            running.get();
+            for (final Future<Integer> future : queued) {
+                future.get();
+            }
+
+            assertAll("Stats reflect the running and queued simulations",
+                () -> assertThat("Queued simulations are counted", stats.getQueuedSimulations(), is(3)),
+                () -> assertThat("Running simulation is counted", stats.getActiveSimulations(), is(1)),
+                () -> assertThat("Simulation pool is fully used", stats.getSimulationUtilisation(), is(1.0))
+            );
+        }
+    }
+
+    @Test
+    public void submit_failsWithTheTaskException() {
+        try (final ExperimentScheduler scheduler = new ExperimentScheduler(1, 1)) {
+            final Future<Object> future = scheduler.submit(() -> {
+                throw new IOException("Failed");
+            });
+
+            final ExecutionException ex = assertThrows(ExecutionException.class, future::get);
+            assertThat("Cause is the task exception", ex.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void constructor_throwsException_whenParallelismIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ExperimentScheduler(0, 1));
+    }
+}
@@ -0,0 +1,51 @@
+package abm.elfarolbar.experiments;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExperimentShardTest {
+    @Test
+    public void firstIndex_andEndIndex_tileTheExperiment() {
+        final long simulationCount = 1326;
+        final int shardCount = 7;
+
+        IntStream.range(0, shardCount - 1).forEach(shardIndex -> assertThat("Shards are contiguous",
+                ExperimentShard.of(shardIndex, shardCount).endIndex(simulationCount),
+                is(ExperimentShard.of(shardIndex + 1, shardCount).firstIndex(simulationCount))));
+        assertAll("Shards cover the experiment evenly",
+                () -> assertThat("First shard starts at zero", ExperimentShard.of(0, shardCount).firstIndex(simulationCount), is(0L)),
+                () -> assertThat("Last shard ends at the count", ExperimentShard.of(shardCount - 1, shardCount).endIndex(simulationCount), is(simulationCount)),
+                () -> assertThat("Shard sizes differ by at most one", IntStream.range(0, shardCount)
+                        .mapToObj(shardIndex -> ExperimentShard.of(shardIndex, shardCount))
+                        .map(shard -> shard.endIndex(simulationCount) - shard.firstIndex(simulationCount))
+                        .toList(), everyItem(either(is(189L)).or(is(190L))))
+        );
+    }
+
+    @Test
+    public void whole_coversEveryIndex() {
+        final ExperimentShard shard = ExperimentShard.whole();
+
+        assertAll("Whole shard covers the experiment",
+                () -> assertThat("Whole shard is whole", shard.isWhole(), is(true)),
+                () -> assertThat("Whole shard starts at zero", shard.firstIndex(66), is(0L)),
+                () -> assertThat("Whole shard ends at the count", shard.endIndex(66), is(66L)),
+                () -> assertThat("Whole shard is named", shard.getName(), is("shard-0-of-1"))
+        );
+    }
+
+    @Test
+    public void of_throwsIllegalArgumentException_whenShardIsOutOfRange() {
+        assertAll("Only shards within the count are created",
+                () -> assertThrows(IllegalArgumentException.class, () -> ExperimentShard.of(2, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> ExperimentShard.of(-1, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> ExperimentShard.of(0, 0))
+        );
+    }
+}
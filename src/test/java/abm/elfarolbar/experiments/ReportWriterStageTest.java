@@ -0,0 +1,171 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.exceptions.SimulationReportingFailureException;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.reporting.SimulationResultSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportWriterStageTest {
+    @Mock
+    private SimulationResultSink resultSink;
+
+    @Mock
+    private Simulation simulation1;
+
+    @Mock
+    private Simulation simulation2;
+
+    @Test
+    public void submit_writesReportsInOrder_andRunsCallbacksOnceWritten() throws Exception {
+        final List<String> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            written.add(invocation.getArgument(0) == simulation1 ? "report1" : "report2");
+            return 100L;
+        }).when(resultSink).accept(any(Simulation.class), anyLong());
+
+        final ReportWriterStage reportWriterStage = new ReportWriterStage(resultSink, 2);
+        reportWriterStage.submit(simulation1, 1L, () -> written.add("callback1"));
+        reportWriterStage.submit(simulation2, 2L, () -> written.add("callback2"));
+        reportWriterStage.close();
+
+        final ReportWriterStats stats = reportWriterStage.getStats();
+        verify(resultSink).accept(simulation1, 1L);
+        verify(resultSink).accept(simulation2, 2L);
+        verify(resultSink).close();
+        assertAll("Reports are written in order",
+                () -> assertThat("Callbacks follow their reports", written, contains("report1", "callback1", "report2", "callback2")),
+                () -> assertThat("Stats count reports", stats.getWrittenReports(), is(2L)),
+                () -> assertThat("Stats count bytes", stats.getWrittenBytes(), is(200L)),
+                () -> assertThat("Stats measure throughput", stats.getBytesPerSecond(), greaterThan(0.0)),
+                () -> assertThat("Queue is drained", stats.getQueuedReports(), is(0))
+        );
+    }
+
+    @Test
+    public void submit_waitsForRoom_whenWriterFallsBehind() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch disk = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            disk.await();
+            return 1L;
+        }).when(resultSink).accept(any(Simulation.class), anyLong());
+
+        final ReportWriterStage reportWriterStage = new ReportWriterStage(resultSink, 1);
+        reportWriterStage.submit(simulation1, 1L, () -> { });
+        writing.await();
+        reportWriterStage.submit(simulation1, 1L, () -> { });
+        final CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                reportWriterStage.submit(simulation2, 2L, () -> { });
+            } catch (final InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        while (reportWriterStage.getStats().getBlockedSubmissions() == 0) {
+            Thread.sleep(10);
+        }
+        assertAll("Hand-off waits for the writer",
+                () -> assertThat("Third report waits", blocked.isDone(), is(false)),
+                () -> assertThat("Queue is full", reportWriterStage.getStats().getQueuedReports(), is(1))
+        );
+
+        disk.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+        reportWriterStage.close();
+        assertThat("Every report is written", reportWriterStage.getStats().getWrittenReports(), is(3L));
+    }
+
+    @Test
+    public void submit_letsTheForkJoinPoolRunOtherTasks_whileWaitingForRoom() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch disk = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            disk.await();
+            return 1L;
+        }).when(resultSink).accept(any(Simulation.class), anyLong());
+        final ForkJoinPool pool = new ForkJoinPool(1);
+
+        try {
+            final ReportWriterStage reportWriterStage = new ReportWriterStage(resultSink, 1);
+            reportWriterStage.submit(simulation1, 1L, () -> { });
+            writing.await();
+            reportWriterStage.submit(simulation1, 1L, () -> { });
+            final ForkJoinTask<Void> blocked = pool.submit(() -> {
+                reportWriterStage.submit(simulation2, 2L, () -> { });
+                return null;
+            });
+            while (reportWriterStage.getStats().getBlockedSubmissions() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertThat("Another task runs while the hand-off waits", pool.submit(() -> "ran").get(10, TimeUnit.SECONDS), is("ran"));
+            disk.countDown();
+            blocked.get(10, TimeUnit.SECONDS);
+            reportWriterStage.close();
+            assertThat("Every report is written", reportWriterStage.getStats().getWrittenReports(), is(3L));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void close_throwsSimulationReportingFailureException_whenTheWriterThreadDies() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch disk = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            disk.await();
+            throw new StackOverflowError();
+        }).when(resultSink).accept(any(Simulation.class), anyLong());
+
+        final ReportWriterStage reportWriterStage = new ReportWriterStage(resultSink, 1);
+        reportWriterStage.submit(simulation1, 1L, () -> { });
+        writing.await();
+        reportWriterStage.submit(simulation2, 2L, () -> { });
+        disk.countDown();
+
+        final SimulationReportingFailureException ex = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(SimulationReportingFailureException.class, reportWriterStage::close));
+        verify(resultSink).close();
+        assertThat("Writer failure is the cause", ex.getCause().getCause(), instanceOf(StackOverflowError.class));
+    }
+
+    @Test
+    public void close_throwsSimulationReportingFailureException_whenAReportFails() throws Exception {
+        doThrow(new IOException()).when(resultSink).accept(any(Simulation.class), anyLong());
+        doReturn("simulation1").when(simulation1).getSimulationId();
+
+        final ReportWriterStage reportWriterStage = new ReportWriterStage(resultSink, 1);
+        reportWriterStage.submit(simulation1, 1L, () -> { throw new IllegalStateException("Not written"); });
+
+        assertThrows(SimulationReportingFailureException.class, reportWriterStage::close);
+        assertThrows(SimulationReportingFailureException.class, () -> reportWriterStage.submit(simulation2, 2L, () -> { }));
+    }
+}
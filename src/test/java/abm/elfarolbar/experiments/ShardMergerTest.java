@@ -0,0 +1,74 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.exceptions.ShardMergeFailureException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardMergerTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    private Path outputPath;
+
+    @Test
+    public void merge_summarisesEveryShard() throws IOException {
+        writeManifest(manifest(0, 0, 33).executionTime(100).build());
+        writeManifest(manifest(1, 33, 66).executionTime(250).build());
+
+        final ExperimentSummary summary = new ShardMerger(OBJECT_MAPPER).merge(outputPath);
+
+        assertThat("Shards are merged", summary, is(ExperimentSummary.builder()
+                .experimentId("experiment")
+                .seed(42L)
+                .shardCount(2)
+                .simulationCount(66)
+                .completedSimulations(66)
+                .totalExecutionTime(350)
+                .longestShardExecutionTime(250)
+                .build()));
+    }
+
+    @Test
+    public void merge_throwsShardMergeFailureException_whenShardIsMissing() throws IOException {
+        writeManifest(manifest(1, 33, 66).build());
+
+        assertThrows(ShardMergeFailureException.class, () -> new ShardMerger(OBJECT_MAPPER).merge(outputPath));
+    }
+
+    @Test
+    public void merge_throwsShardMergeFailureException_whenShardsBelongToDifferentExperiments() throws IOException {
+        writeManifest(manifest(0, 0, 33).build());
+        writeManifest(manifest(1, 33, 66).seed(7L).build());
+
+        assertAll("Only shards of one experiment are merged",
+                () -> assertThrows(ShardMergeFailureException.class, () -> new ShardMerger(OBJECT_MAPPER).merge(outputPath)),
+                () -> assertThrows(ShardMergeFailureException.class, () -> new ShardMerger(OBJECT_MAPPER).merge(outputPath.resolve("missing")))
+        );
+    }
+
+    private static ShardManifest.ShardManifestBuilder manifest(final int shardIndex, final long firstIndex, final long endIndex) {
+        return ShardManifest.builder()
+                .experimentId("experiment")
+                .seed(42L)
+                .shardIndex(shardIndex)
+                .shardCount(2)
+                .firstSimulationIndex(firstIndex)
+                .endSimulationIndex(endIndex)
+                .experimentSimulationCount(66)
+                .completedSimulations(endIndex - firstIndex);
+    }
+
+    private void writeManifest(final ShardManifest manifest) throws IOException {
+        final ExperimentShard shard = ExperimentShard.of(manifest.getShardIndex(), manifest.getShardCount());
+        OBJECT_MAPPER.writeValue(outputPath.resolve(ShardManifest.fileName(shard)).toFile(), manifest);
+    }
+}
@@ -0,0 +1,112 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SummaryIndexTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    private Path outputPath;
+
+    @Test
+    public void read_mergesTheIndexOfEveryShard_orderedBySimulationId() throws IOException {
+        writeIndex("shard-1-of-2", entry("c", 70, 62.0), entry("b", 30, 40.0));
+        writeIndex("shard-0-of-2", entry("a", 0, 58.5));
+
+        final SummaryIndex summaryIndex = SummaryIndex.read(outputPath);
+
+        assertAll("Shards are merged",
+                () -> assertThat("Every entry is read", summaryIndex.size(), is(3)),
+                () -> assertThat("Entries are ordered by simulation id", ids(summaryIndex.getEntries()), contains("a", "b", "c")),
+                () -> assertThat("Entries are read back", summaryIndex.getEntries().get(1), is(entry("b", 30, 40.0)))
+        );
+    }
+
+    @Test
+    public void read_keepsTheLastEntryOfASimulation_andSkipsATornLastLine() throws IOException {
+        writeIndex("shard-0-of-1", entry("a", 0, 10.0), entry("a", 0, 20.0));
+        Files.writeString(outputPath.resolve("shard-0-of-1" + SummaryIndex.FILE_SUFFIX), "{\"simulationId\":\"b\",\"exec",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        final SummaryIndex summaryIndex = SummaryIndex.read(outputPath);
+
+        assertThat("Only the last complete entry is kept", summaryIndex.getEntries(), contains(entry("a", 0, 20.0)));
+    }
+
+    @Test
+    public void filter_sorted_top_answerQueriesFromTheIndex() throws IOException {
+        writeIndex("shard-0-of-1", entry("a", 0, 58.5), entry("b", 30, 40.0), entry("c", 70, 64.0), entry("d", 100, 60.0));
+        final SummaryIndex summaryIndex = SummaryIndex.read(outputPath);
+        final Comparator<SummaryIndexEntry> byMeanAttendance = Comparator.comparingDouble(entry -> entry.getSummary().getMeanAttendance());
+
+        assertAll("Queries are answered from the index",
+                () -> assertThat("Mean attendance within 5% of capacity",
+                        ids(summaryIndex.filter(entry -> entry.isMeanAttendanceNearCapacity(0.05)).getEntries()), contains("a", "d")),
+                () -> assertThat("Sorted by mean attendance",
+                        ids(summaryIndex.sorted(byMeanAttendance).getEntries()), contains("b", "a", "d", "c")),
+                () -> assertThat("Top two by mean attendance", ids(summaryIndex.top(2, byMeanAttendance)), contains("c", "d")),
+                () -> assertThat("Queries chain", ids(summaryIndex.filter(entry -> entry.shareOf("first") >= 0.5).top(1, byMeanAttendance)),
+                        contains("c"))
+        );
+    }
+
+    @Test
+    public void groupByShare_bucketsEntriesByStrategyShare() throws IOException {
+        writeIndex("shard-0-of-1", entry("a", 0, 58.5), entry("b", 30, 40.0), entry("c", 70, 64.0), entry("d", 100, 60.0), entry("e", 39, 50.0));
+        final SummaryIndex summaryIndex = SummaryIndex.read(outputPath);
+
+        final SortedMap<Double, SummaryIndex> groups = summaryIndex.groupByShare("first", 0.1);
+
+        assertAll("Entries are grouped by share",
+                () -> assertThat("Buckets are ordered by share", List.copyOf(groups.keySet()), contains(0.0, 0.3, 0.7, 1.0)),
+                () -> assertThat("Shares on a bucket boundary fall in the bucket", ids(groups.get(0.3).getEntries()), contains("b", "e")),
+                () -> assertThrows(IllegalArgumentException.class, () -> summaryIndex.groupByShare("first", 0))
+        );
+    }
+
+    private static List<String> ids(final List<SummaryIndexEntry> entries) {
+        return entries.stream().map(SummaryIndexEntry::getSimulationId).toList();
+    }
+
+    private void writeIndex(final String shardName, final SummaryIndexEntry... entries) throws IOException {
+        final StringBuilder lines = new StringBuilder();
+        for (final SummaryIndexEntry entry : entries) {
+            lines.append(OBJECT_MAPPER.writeValueAsString(entry)).append('\n');
+        }
+        Files.writeString(outputPath.resolve(shardName + SummaryIndex.FILE_SUFFIX), lines, StandardCharsets.UTF_8);
+    }
+
+    private static SummaryIndexEntry entry(final String simulationId, final int firstStrategyCount, final double meanAttendance) {
+        return SummaryIndexEntry.builder()
+                .simulationId(simulationId)
+                .executionTime(5)
+                .barCapacity(60)
+                .distribution(new TreeMap<>(Map.of("first", firstStrategyCount, "second", 100 - firstStrategyCount)))
+                .summary(SimulationSummary.builder()
+                        .steps(100)
+                        .meanAttendance(meanAttendance)
+                        .finalStrategyDistribution(Map.of("first", firstStrategyCount, "second", 100 - firstStrategyCount))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package abm.elfarolbar.experiments;
+
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.reporting.PatronSetupDetailsReport;
+import abm.elfarolbar.simulations.reporting.SimulationInputDataset;
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+public class SummaryIndexWriterTest {
+    @Mock
+    private Simulation simulation1;
+
+    @Mock
+    private Simulation simulation2;
+
+    @TempDir
+    private Path outputPath;
+
+    @Test
+    public void close_sortsTheIndexBySimulationId_keepingTheLastEntryOfEachSimulation() throws Exception {
+        final Path indexFile = outputPath.resolve(SummaryIndexWriter.fileName(ExperimentShard.whole()));
+        summarises(simulation1, "simulation1", 40);
+        summarises(simulation2, "simulation2", 60);
+
+        try (final SummaryIndexWriter writer = SummaryIndexWriter.open(indexFile)) {
+            writer.append(simulation2, 10);
+            writer.append(simulation1, 20);
+        }
+        Files.writeString(indexFile, "{\"simulationId\":\"simulation1\",", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (final SummaryIndexWriter writer = SummaryIndexWriter.open(indexFile)) {
+            writer.append(simulation1, 30);
+        }
+
+        final List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        final SummaryIndex summaryIndex = SummaryIndex.read(outputPath);
+        assertAll("Index is sorted and holds one entry per simulation",
+                () -> assertThat("One line per simulation", lines, hasSize(2)),
+                () -> assertThat("Lines are ordered by simulation id", summaryIndex.getEntries().stream().map(SummaryIndexEntry::getSimulationId).toList(),
+                        contains("simulation1", "simulation2")),
+                () -> assertThat("Resumed simulation keeps its last entry", summaryIndex.getEntries().get(0).getExecutionTime(), is(30L)),
+                () -> assertThat("Distribution is indexed", summaryIndex.getEntries().get(1).getDistribution(), is(Map.of("strategy", 60))),
+                () -> assertThat("Summary is indexed", summaryIndex.getEntries().get(1).getSummary().getMeanAttendance(), is(60.0))
+        );
+    }
+
+    private static void summarises(final Simulation simulation, final String simulationId, final int count) {
+        doReturn(simulationId).when(simulation).getSimulationId();
+        doReturn(SimulationInputDataset.builder()
+                .barCapacity(60)
+                .initialPatronSetupDetails(List.of(PatronSetupDetailsReport.builder().decisionStrategyName("strategy").count(count).build()))
+                .build()).when(simulation).generateInputReport();
+        doReturn(SimulationSummary.builder().meanAttendance(count).finalStrategyDistribution(Map.of()).build()).when(simulation).generateSummary();
+    }
+}
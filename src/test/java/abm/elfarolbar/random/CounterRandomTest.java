@@ -0,0 +1,70 @@
+package abm.elfarolbar.random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CounterRandomTest {
+    private final CounterRandom random = CounterRandom.of(42L, "simulation");
+
+    @Test
+    public void stream_drawsTheSameNumbers_forTheSameAddress() {
+        final long patronKey = CounterRandom.keyOf("patron");
+
+        assertThat("Draws are reproducible",
+            this.draws(CounterRandom.of(42L, "simulation").atStep(3).stream(patronKey, RandomPurpose.DECISION, 1)),
+            is(this.draws(random.atStep(3).stream(patronKey, RandomPurpose.DECISION, 1))));
+    }
+
+    @Test
+    public void stream_drawsDifferentNumbers_forDifferentAddresses() {
+        final long patronKey = CounterRandom.keyOf("patron");
+        final List<Long> draws = this.draws(random.atStep(3).stream(patronKey, RandomPurpose.DECISION, 1));
+
+        assertAll("Every coordinate changes the draws",
+            () -> assertThat("Seed", this.draws(CounterRandom.of(43L, "simulation").atStep(3)
+                .stream(patronKey, RandomPurpose.DECISION, 1)), is(not(draws))),
+            () -> assertThat("Simulation", this.draws(CounterRandom.of(42L, "other simulation").atStep(3)
+                .stream(patronKey, RandomPurpose.DECISION, 1)), is(not(draws))),
+            () -> assertThat("Step", this.draws(random.atStep(4)
+                .stream(patronKey, RandomPurpose.DECISION, 1)), is(not(draws))),
+            () -> assertThat("Patron", this.draws(random.atStep(3)
+                .stream(CounterRandom.keyOf("other patron"), RandomPurpose.DECISION, 1)), is(not(draws))),
+            () -> assertThat("Purpose", this.draws(random.atStep(3)
+                .stream(patronKey, RandomPurpose.REPLACEMENT, 1)), is(not(draws))),
+            () -> assertThat("Index", this.draws(random.atStep(3)
+                .stream(patronKey, RandomPurpose.DECISION, 2)), is(not(draws)))
+        );
+    }
+
+    @Test
+    public void uuid_isReproducibleVersionFourUuid() {
+        final UUID uuid = random.uuid(RandomPurpose.PATRON_ID, 7);
+
+        assertAll("UUID is well formed and reproducible",
+            () -> assertThat("Version is 4", uuid.version(), is(4)),
+            () -> assertThat("Variant is IETF", uuid.variant(), is(2)),
+            () -> assertThat("Same index gives the same UUID", CounterRandom.of(42L, "simulation").uuid(RandomPurpose.PATRON_ID, 7), is(uuid)),
+            () -> assertThat("Other index gives another UUID", random.uuid(RandomPurpose.PATRON_ID, 8), is(not(uuid)))
+        );
+    }
+
+    @Test
+    public void keyOf_isStable() {
+        assertThat("Same value gives the same key", CounterRandom.keyOf("patron"), is(CounterRandom.keyOf("patron")));
+        assertThat("Other value gives another key", CounterRandom.keyOf("patron"), is(not(CounterRandom.keyOf("patron2"))));
+    }
+
+    private List<Long> draws(final RandomStream stream) {
+        return IntStream.range(0, 5).mapToObj(idx -> stream.nextLong()).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package abm.elfarolbar.random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RandomStreamTest {
+    private final RandomStream random = CounterRandom.of(42L, "simulation").atStep(1).stream(0L, RandomPurpose.DECISION);
+
+    @Test
+    public void nextDouble_isUniformWithinUnitInterval() {
+        final double[] draws = IntStream.range(0, 10000).mapToDouble(idx -> random.nextDouble()).toArray();
+
+        IntStream.range(0, draws.length)
+            .forEach(idx -> assertThat("Draw is within [0, 1)", draws[idx], allOf(greaterThanOrEqualTo(0.0), lessThan(1.0))));
+        assertThat("Mean is close to one half", IntStream.range(0, draws.length).mapToDouble(idx -> draws[idx]).average().orElseThrow(),
+            closeTo(0.5, 0.02));
+    }
+
+    @Test
+    public void nextInt_coversTheWholeRange() {
+        final int[] counts = new int[4];
+        IntStream.range(0, 4000).forEach(idx -> counts[random.nextInt(0, 4)]++);
+
+        IntStream.range(0, counts.length)
+            .forEach(value -> assertThat("Every value is drawn about equally often", (double) counts[value], closeTo(1000, 100)));
+    }
+
+    @Test
+    public void nextInt_isUniform_whenRangeDoesNotDivideTheDrawRange() {
+        // Three quarters of 2^32: reducing a 32-bit draw modulo the range would favour the lowest third twice over
+        final int third = 1 << 30;
+        final int[] counts = new int[3];
+        IntStream.range(0, 6000).forEach(idx -> counts[(int) (((long) random.nextInt(Integer.MIN_VALUE, Integer.MIN_VALUE + 3 * third) - Integer.MIN_VALUE) / third)]++);
+
+        IntStream.range(0, counts.length)
+            .forEach(value -> assertThat("Every third is drawn about equally often", (double) counts[value], closeTo(2000, 150)));
+    }
+
+    @Test
+    public void nextInt_returnsStart_whenRangeIsEmpty() {
+        assertThat("Start is returned", random.nextInt(3, 3), is(3));
+    }
+
+    @Test
+    public void nextInt_throwsException_whenRangeIsInverted() {
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(3, 2));
+    }
+}
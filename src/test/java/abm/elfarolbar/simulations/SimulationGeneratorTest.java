@@ -4,16 +4,29 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.in;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.Patron;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.agents.population.PatronArrayPopulation;
+import abm.elfarolbar.agents.population.PopulationLayout;
+import abm.elfarolbar.exceptions.SimulationSnapshotFailureException;
+import abm.elfarolbar.simulations.reporting.PatronHistoryRetention;
+import abm.elfarolbar.simulations.reporting.ReportDetail;
+import abm.elfarolbar.simulations.reporting.SimulationDataset;
+import abm.elfarolbar.simulations.reporting.SimulationReport;
 import abm.elfarolbar.strategies.decision.AlwaysDecisionStrategy;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
 import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
@@ -24,12 +37,18 @@ import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -79,6 +98,9 @@ public class SimulationGeneratorTest {
             progressiveIntoleranceReplacementStrategy
     );
 
+    @TempDir
+    private Path snapshotDirectory;
+
     private final SimulationGenerator testSimulationGenerator = SimulationGenerator.builder()
             .barCapacity(50)
             .simulationLength(200)
@@ -174,4 +196,270 @@ public class SimulationGeneratorTest {
         );
         assertThat("Strategy distributions list is empty", simulation.getStrategyDistributions().isEmpty());
     }
+
+    @Test
+    public void generate_returnsSimulationWithArrayPopulation_whenLayoutIsArrays() {
+        final Simulation simulation = testSimulationGenerator.toBuilder()
+            .populationLayout(PopulationLayout.ARRAYS)
+            .build()
+            .generate("simulation id");
+
+        final Map<String, List<Patron>> decisionStrategyToPatronMap = simulation.getPatrons().stream()
+                .collect(Collectors.groupingBy(Patron::getDecisionStrategyName));
+        assertAll("Simulation contains an array population of correctly setup patrons",
+            () -> assertThat("Population uses the array layout", simulation.getPopulation(), instanceOf(PatronArrayPopulation.class)),
+            () -> assertThat("Bar knows total population", simulation.getBar().getTotalPopulation(), is(150)),
+            () -> assertThat("Simulation contains correct number of patrons with Always decision strategy",
+                decisionStrategyToPatronMap.get(alwaysDecisionStrategy.getName()).size(), is(40)),
+            () -> assertThat("Simulation contains correct number of patrons with Never decision strategy",
+                decisionStrategyToPatronMap.get(neverDecisionStrategy.getName()).size(), is(50)),
+            () -> assertThat("Simulation contains correct number of patrons with Last Correct decision strategy",
+                decisionStrategyToPatronMap.get(lastCorrectDecisionStrategy.getName()).size(), is(60))
+        );
+    }
+
+    @Test
+    public void generate_givesPatronsTheConfiguredMemoryLength() {
+        final Simulation simulation = testSimulationGenerator.toBuilder()
+            .memoryLength(20)
+            .build()
+            .generate("simulation id");
+
+        assertThat("Every patron remembers the configured number of steps", simulation.getPatrons().stream()
+                .allMatch(patron -> patron.getMemoryProps().getMemoryLength() == 20));
+    }
+
+    @Test
+    public void generate_returnsReproducibleSimulations_whenSeedIsSet() {
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .historyRetention(PatronHistoryRetention.REPORT)
+            .build();
+        final Simulation simulation = seededSimulationGenerator.generate("simulation id");
+        final Simulation sameSimulation = seededSimulationGenerator.generate("simulation id");
+        final Simulation arraySimulation = seededSimulationGenerator.toBuilder()
+            .populationLayout(PopulationLayout.ARRAYS)
+            .build()
+            .generate("simulation id");
+        final Simulation phasedSimulation = seededSimulationGenerator.toBuilder()
+            .stepMode(StepMode.PHASED)
+            .build()
+            .generate("simulation id");
+
+        simulation.execute();
+        sameSimulation.execute();
+        arraySimulation.execute();
+        phasedSimulation.execute();
+
+        final SimulationReport report = simulation.generateReport();
+        assertAll("Simulations with the same seed and id produce the same results",
+            () -> assertThat("Same seed gives the same attendance", sameSimulation.generateReport().getDataset().getAttendanceHistory(),
+                is(report.getDataset().getAttendanceHistory())),
+            () -> assertThat("Full histories are reported", report.getDataset().getPatronReports().get(0).getHistory().size(), is(200)),
+            () -> assertThat("Same seed gives the same patrons", sameSimulation.generateReport().getDataset().getPatronReports(),
+                is(report.getDataset().getPatronReports())),
+            () -> assertThat("Array layout gives the same attendance", arraySimulation.generateReport().getDataset().getAttendanceHistory(),
+                is(report.getDataset().getAttendanceHistory())),
+            () -> assertThat("Array layout gives the same patrons", arraySimulation.generateReport().getDataset().getPatronReports(),
+                is(report.getDataset().getPatronReports())),
+            () -> assertThat("Phased steps give the same dataset", phasedSimulation.generateReport().getDataset(), is(report.getDataset()))
+        );
+    }
+
+    @Test
+    public void generate_retainsHistoriesForTheReport_whenRetentionIsUnset() {
+        final Simulation simulation = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .build()
+            .generate("simulation id");
+        simulation.execute();
+
+        final List<PatronReport> patronReports = simulation.generateReport().getDataset().getPatronReports();
+        assertAll("A default full report carries the history of every patron",
+            () -> assertThat("Every patron is reported", patronReports, hasSize(simulation.getPatrons().size())),
+            () -> assertThat("Every history holds an event per step", patronReports.stream()
+                .allMatch(patronReport -> patronReport.getHistory().size() == 200))
+        );
+    }
+
+    @Test
+    public void generate_throwsIllegalStateException_whenAReportWithPatronsDropsHistories() {
+        assertAll("Reports with patrons cannot drop their histories",
+            () -> assertThrows(IllegalStateException.class, () -> testSimulationGenerator.toBuilder()
+                .historyRetention(PatronHistoryRetention.NONE)
+                .build()
+                .generate("simulation id")),
+            () -> assertThrows(IllegalStateException.class, () -> testSimulationGenerator.toBuilder()
+                .historyRetention(PatronHistoryRetention.NONE)
+                .reportDetail(ReportDetail.SAMPLED_PATRONS)
+                .build()
+                .generate("simulation id")),
+            () -> assertThat("Reports without patrons can", testSimulationGenerator.toBuilder()
+                .historyRetention(PatronHistoryRetention.NONE)
+                .reportDetail(ReportDetail.DISTRIBUTIONS)
+                .build()
+                .generate("simulation id")
+                .getHistorySink()
+                .isEnabledFor("any patron"), is(false))
+        );
+    }
+
+    @Test
+    public void generate_collectsOnlyWhatTheReportDetailIncludes() {
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .historyRetention(PatronHistoryRetention.REPORT)
+            .build();
+        final Simulation fullSimulation = seededSimulationGenerator.generate("simulation id");
+        final Simulation summarySimulation = seededSimulationGenerator.toBuilder()
+            .reportDetail(ReportDetail.SUMMARY)
+            .build()
+            .generate("simulation id");
+        final Simulation distributionsSimulation = seededSimulationGenerator.toBuilder()
+            .reportDetail(ReportDetail.DISTRIBUTIONS)
+            .build()
+            .generate("simulation id");
+        fullSimulation.execute();
+        summarySimulation.execute();
+        distributionsSimulation.execute();
+
+        final SimulationDataset fullDataset = fullSimulation.generateReport().getDataset();
+        final SimulationDataset summaryDataset = summarySimulation.generateReport().getDataset();
+        final SimulationDataset distributionsDataset = distributionsSimulation.generateReport().getDataset();
+        assertAll("Report detail decides what is collected and reported",
+            () -> assertThat("Summary is the same at every level", summaryDataset.getSummary(), is(fullDataset.getSummary())),
+            () -> assertThat("Summary covers the simulated steps", fullDataset.getSummary().getSteps(), is(200)),
+            () -> assertThat("Summary ends with the last distribution", fullDataset.getSummary().getFinalStrategyDistribution(),
+                is(fullDataset.getStrategyDistributions().get(199))),
+            () -> assertThat("Summary keeps only the last distribution", summarySimulation.getStrategyDistributions().size(), is(1)),
+            () -> assertThat("Summary reports no series", summaryDataset.getAttendanceHistory(), is(nullValue())),
+            () -> assertThat("Summary reports no patrons", summaryDataset.getPatronReports(), is(nullValue())),
+            () -> assertThat("Distributions are reported in full", distributionsDataset.getStrategyDistributions(), is(fullDataset.getStrategyDistributions())),
+            () -> assertThat("Distributions report no patrons", distributionsDataset.getPatronReports(), is(nullValue())),
+            () -> assertThat("Distributions retain no histories", distributionsSimulation.getHistorySink().isEnabledFor(fullDataset.getPatronReports().get(0).getId()), is(false))
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(PopulationLayout.class)
+    public void generate_reportsTheSameSampleOfPatrons_inEitherLayout(final PopulationLayout populationLayout) {
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .historyRetention(PatronHistoryRetention.REPORT)
+            .build();
+        final Simulation fullSimulation = seededSimulationGenerator.generate("simulation id");
+        final Simulation sampledSimulation = seededSimulationGenerator.toBuilder()
+            .populationLayout(populationLayout)
+            .reportDetail(ReportDetail.SAMPLED_PATRONS)
+            .sampledPatrons(7)
+            .build()
+            .generate("simulation id");
+        fullSimulation.execute();
+        sampledSimulation.execute();
+
+        final Map<String, PatronReport> fullPatronReports = fullSimulation.generateReport().getDataset().getPatronReports().stream()
+            .collect(Collectors.toMap(PatronReport::getId, patronReport -> patronReport));
+        final List<PatronReport> sampledPatronReports = sampledSimulation.generateReport().getDataset().getPatronReports();
+        assertAll("A deterministic sample of patrons is reported with full histories",
+            () -> assertThat("Sample has the requested size", sampledPatronReports, hasSize(7)),
+            () -> assertThat("Sample is drawn from the seed", sampledSimulation.getSampledPatronIds(),
+                is(seededSimulationGenerator.toBuilder().reportDetail(ReportDetail.SAMPLED_PATRONS).sampledPatrons(7).build()
+                    .generate("simulation id").getSampledPatronIds())),
+            () -> assertThat("Sampled patrons match the full report", sampledPatronReports,
+                everyItem(is(in(fullPatronReports.values())))),
+            () -> assertThat("Sampled histories are complete", sampledPatronReports.get(0).getHistory(), hasSize(200))
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(PopulationLayout.class)
+    public void generate_continuesFromSnapshot_likeAnUninterruptedRun(final PopulationLayout populationLayout) throws IOException {
+        // Retained histories are not part of a snapshot, so stream them and compare the streamed files
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .populationLayout(populationLayout)
+            .historyRetention(PatronHistoryRetention.STREAM)
+            .historyOutputPath(snapshotDirectory.toString())
+            .build();
+        final Simulation uninterruptedSimulation = seededSimulationGenerator.generate("simulation id");
+        uninterruptedSimulation.execute();
+        final Path historyPath = snapshotDirectory.resolve("simulation id.history.jsonl");
+        final List<String> uninterruptedHistory = Files.readAllLines(historyPath).stream().sorted().toList();
+
+        final Simulation interruptedSimulation = seededSimulationGenerator.toBuilder()
+            .simulationLength(130)
+            .snapshotInterval(40)
+            .snapshotOutputPath(snapshotDirectory.toString())
+            .build()
+            .generate("simulation id");
+        interruptedSimulation.execute();
+        final Simulation resumedSimulation = seededSimulationGenerator.toBuilder()
+            .snapshotInterval(40)
+            .snapshotOutputPath(snapshotDirectory.toString())
+            .build()
+            .generate("simulation id");
+        resumedSimulation.execute();
+
+        final SimulationReport report = uninterruptedSimulation.generateReport();
+        final SimulationReport resumedReport = resumedSimulation.generateReport();
+        assertAll("Resumed simulation continues where the snapshot left off",
+            () -> assertThat("Interrupted simulation stops at its length", interruptedSimulation.getStrategyDistributions().size(), is(130)),
+            () -> assertThat("Resumed simulation gives the same attendance", resumedReport.getDataset().getAttendanceHistory(),
+                is(report.getDataset().getAttendanceHistory())),
+            () -> assertThat("Resumed simulation gives the same strategy distributions", resumedReport.getDataset().getStrategyDistributions(),
+                is(report.getDataset().getStrategyDistributions())),
+            () -> assertThat("Resumed simulation gives the same patrons", resumedReport.getDataset().getPatronReports(),
+                is(report.getDataset().getPatronReports())),
+            () -> assertThat("Resumed simulation gives the same summary", resumedReport.getDataset().getSummary(),
+                is(report.getDataset().getSummary())),
+            () -> assertThat("Resumed simulation streams the same history", Files.readAllLines(historyPath).stream().sorted().toList(),
+                is(uninterruptedHistory)),
+            () -> assertThat("Resumed simulation gives the same strategies", resumedSimulation.getPatrons().stream().map(Patron::getDecisionStrategyName).toList(),
+                is(uninterruptedSimulation.getPatrons().stream().map(Patron::getDecisionStrategyName).toList()))
+        );
+
+        resumedSimulation.discardSnapshot();
+        assertThat("Snapshot is discarded", Files.exists(snapshotDirectory.resolve("simulation id.snapshot")), is(false));
+    }
+
+    @Test
+    public void restore_throwsSimulationSnapshotFailureException_whenSnapshotIsOfAnotherSimulation() {
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .simulationLength(10)
+            .build();
+        final Simulation simulation = seededSimulationGenerator.generate("simulation id");
+        simulation.execute();
+        simulation.snapshot(snapshotDirectory.resolve("snapshot"));
+
+        assertAll("Snapshots are only restored into the simulation they were taken of",
+            () -> assertThrows(SimulationSnapshotFailureException.class,
+                () -> seededSimulationGenerator.generate("other simulation id").restore(snapshotDirectory.resolve("snapshot"))),
+            () -> assertThrows(IllegalStateException.class, () -> simulation.restore(snapshotDirectory.resolve("snapshot"))),
+            () -> assertThrows(IllegalStateException.class, () -> seededSimulationGenerator.toBuilder()
+                .snapshotInterval(5)
+                .build()
+                .generate("simulation id")
+                .execute())
+        );
+    }
+
+    @Test
+    public void restore_throwsSimulationSnapshotFailureException_whenSnapshotIsOfAnotherVersion() throws IOException {
+        final SimulationGenerator seededSimulationGenerator = testSimulationGenerator.toBuilder()
+            .seed(42L)
+            .simulationLength(10)
+            .build();
+        final Simulation simulation = seededSimulationGenerator.generate("simulation id");
+        simulation.execute();
+        final Path snapshot = snapshotDirectory.resolve("snapshot");
+        simulation.snapshot(snapshot);
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        // The version follows the four byte magic number
+        bytes[7]--;
+        Files.write(snapshot, bytes);
+
+        assertThrows(SimulationSnapshotFailureException.class,
+            () -> seededSimulationGenerator.generate("simulation id").restore(snapshot));
+    }
 }
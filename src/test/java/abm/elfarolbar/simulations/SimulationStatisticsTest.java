@@ -0,0 +1,78 @@
+package abm.elfarolbar.simulations;
+
+import abm.elfarolbar.simulations.reporting.SimulationSummary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class SimulationStatisticsTest {
+    @Test
+    public void toSummary_summarisesRecordedSteps() {
+        final SimulationStatistics statistics = new SimulationStatistics(50);
+        statistics.recordAttendance(40, false);
+        statistics.recordAttendance(46, false);
+        statistics.recordAttendance(55, true);
+        statistics.recordAttendance(71, true);
+        statistics.recordStrategySwitches(3);
+        statistics.recordStrategySwitches(0);
+        statistics.recordStrategySwitches(2);
+
+        final SimulationSummary summary = statistics.toSummary(Map.of("strategy", 10));
+
+        assertAll("Summary matches the recorded steps",
+                () -> assertThat("Steps are counted", summary.getSteps(), is(4)),
+                () -> assertThat("Mean attendance", summary.getMeanAttendance(), closeTo(53.0, 1e-9)),
+                () -> assertThat("Population variance of attendance", summary.getAttendanceVariance(), closeTo(136.5, 1e-9)),
+                () -> assertThat("Overcrowded steps", summary.getOvercrowdedSteps(), is(2)),
+                () -> assertThat("Overcrowding frequency", summary.getOvercrowdingFrequency(), closeTo(0.5, 1e-9)),
+                () -> assertThat("Steps within a tenth of capacity", summary.getStepsNearCapacity(), is(2)),
+                () -> assertThat("Strategy switches", summary.getStrategySwitches(), is(5L)),
+                () -> assertThat("Final distribution", summary.getFinalStrategyDistribution(), is(Map.of("strategy", 10)))
+        );
+    }
+
+    @Test
+    public void toSummary_isZero_whenNoStepIsRecorded() {
+        final SimulationSummary summary = new SimulationStatistics(50).toSummary(Map.of());
+
+        assertAll("Empty summary",
+                () -> assertThat("No steps", summary.getSteps(), is(0)),
+                () -> assertThat("No variance", summary.getAttendanceVariance(), is(0.0)),
+                () -> assertThat("No overcrowding", summary.getOvercrowdingFrequency(), is(0.0))
+        );
+    }
+
+    @Test
+    public void restoreState_continuesFromWrittenState() throws Exception {
+        final SimulationStatistics uninterrupted = new SimulationStatistics(60);
+        final SimulationStatistics interrupted = new SimulationStatistics(60);
+        IntStream.range(0, 100).forEach(step -> {
+            uninterrupted.recordAttendance(step, step > 60);
+            interrupted.recordAttendance(step, step > 60);
+        });
+        uninterrupted.recordStrategySwitches(7);
+        interrupted.recordStrategySwitches(7);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        interrupted.writeState(new DataOutputStream(bytes));
+        final SimulationStatistics restored = new SimulationStatistics(60);
+        restored.restoreState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        IntStream.range(100, 150).forEach(step -> {
+            uninterrupted.recordAttendance(step, true);
+            restored.recordAttendance(step, true);
+        });
+
+        assertThat("Restored statistics continue like uninterrupted ones",
+                restored.toSummary(Map.of()), is(uninterrupted.toSummary(Map.of())));
+    }
+}
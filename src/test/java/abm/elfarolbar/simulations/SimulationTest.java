@@ -1,14 +1,17 @@
 package abm.elfarolbar.simulations;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.Patron;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.random.CounterRandom.StepRandom;
 import abm.elfarolbar.simulations.reporting.PatronSetupDetailsReport;
 import abm.elfarolbar.simulations.reporting.SimulationDataset;
 import abm.elfarolbar.simulations.reporting.SimulationInputDataset;
 import abm.elfarolbar.simulations.reporting.SimulationReport;
 import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.SharedDecisions;
 import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
 import abm.elfarolbar.strategies.replacement.ProgressiveIntoleranceReplacementStrategy;
 import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
@@ -25,6 +28,7 @@ import java.util.stream.IntStream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
@@ -72,27 +76,26 @@ public class SimulationTest {
         );
         doReturn(false)
                 .when(neverChangesStrategyPatron)
-                .shouldReplaceStrategy();
+                .shouldReplaceStrategy(any(StepRandom.class));
         doReturn(true)
                 .when(alwaysChangesStrategyPatron)
-                .shouldReplaceStrategy();
+                .shouldReplaceStrategy(any(StepRandom.class));
 
         final List<Boolean> shouldReplaceStrategyBooleanList = IntStream.range(0, 99)
                 .mapToObj(idx -> RandomUtils.nextBoolean())
                 .toList();
         doReturn(false, shouldReplaceStrategyBooleanList.toArray())
                 .when(sometimesChangesStrategyPatron)
-                .shouldReplaceStrategy();
+                .shouldReplaceStrategy(any(StepRandom.class));
 
-        final Object[] alwaysDecisionStrategyUsers = IntStream.range(0, 99).map(idx -> RandomUtils.nextInt(0, 100)).boxed().toList().toArray();
-        final Object[] neverDecisionStrategyUsers = IntStream.range(0, 99).map(idx -> RandomUtils.nextInt(0, 100)).boxed().toList().toArray();
-        final Object[] lastCorrectDecisionStrategyUsers = IntStream.range(0, 99).map(idx -> RandomUtils.nextInt(0, 100)).boxed().toList().toArray();
-        doReturn(30, alwaysDecisionStrategyUsers).when(alwaysDecisionStrategy).getUsers();
+        doReturn("Always").when(alwaysChangesStrategyPatron).getDecisionStrategyName();
+        doReturn("Never").when(neverChangesStrategyPatron).getDecisionStrategyName();
+        doReturn("Last Correct").when(sometimesChangesStrategyPatron).getDecisionStrategyName();
         doReturn("Always").when(alwaysDecisionStrategy).getName();
-        doReturn(50, neverDecisionStrategyUsers).when(neverDecisionStrategy).getUsers();
         doReturn("Never").when(neverDecisionStrategy).getName();
-        doReturn(20, lastCorrectDecisionStrategyUsers).when(lastCorrectDecisionStrategy).getUsers();
         doReturn("Last Correct").when(lastCorrectDecisionStrategy).getName();
+        doReturn("FlatTolerance").when(flatToleranceReplacementStrategy).getName();
+        doReturn("ProgressiveIntolerance").when(progressiveIntoleranceReplacementStrategy).getName();
 
         final Simulation simulation = Simulation.builder()
                 .simulationId(UUID.randomUUID().toString())
@@ -103,39 +106,34 @@ public class SimulationTest {
                 .patrons(patrons)
                 .decisionStrategies(decisionStrategies)
                 .replacementStrategies(replacementStrategies)
-                .strategyDistributions(Lists.newArrayList())
                 .build();
 
         simulation.execute();
 
+        verify(bar, times(100)).addPatrons(eq(0));
         verify(bar, times(100)).record();
         verify(bar, times(100)).reset();
 
         patrons.forEach(patron -> {
-            verify(patron, times(100)).decide(eq(bar));
+            verify(patron, times(100)).choose(eq(bar), any(SharedDecisions.class), any(StepRandom.class));
             verify(patron, times(100)).record(eq(bar));
         });
 
-        verify(neverChangesStrategyPatron, never()).selectNewStrategy();
-        verify(alwaysChangesStrategyPatron, times(100)).selectNewStrategy();
+        verify(neverChangesStrategyPatron, never()).selectNewStrategy(any(StepRandom.class));
+        verify(alwaysChangesStrategyPatron, times(100)).selectNewStrategy(any(StepRandom.class));
 
         final int numStrategyReplacementsPatron3 = Math.toIntExact(shouldReplaceStrategyBooleanList.stream()
                 .filter(Boolean::booleanValue)
                 .count());
-        verify(sometimesChangesStrategyPatron, times(numStrategyReplacementsPatron3)).selectNewStrategy();
-
-        decisionStrategies.forEach(decisionStrategy -> {
-            verify(decisionStrategy, times(100)).getName();
-            verify(decisionStrategy, times(100)).getUsers();
-            verify(decisionStrategy, times(100)).reset();
-        });
+        verify(sometimesChangesStrategyPatron, times(numStrategyReplacementsPatron3)).selectNewStrategy(any(StepRandom.class));
 
         assertAll("Simulation distributions are accurate",
-                () -> assertThat("Correct number of strategy distributions are saved", simulation.getStrategyDistributions(), hasSize(100)),
-                () -> assertThat("Always strategy users is correctly recorded", getDistributionForStrategy(simulation, "Always"), contains(prependDistribution(alwaysDecisionStrategyUsers, 30))),
-                () -> assertThat("Never strategy users is correctly recorded", getDistributionForStrategy(simulation, "Never"), contains(prependDistribution(neverDecisionStrategyUsers, 50))),
-                () -> assertThat("Last Correct strategy users is correctly recorded", getDistributionForStrategy(simulation, "Last Correct"), contains(prependDistribution(lastCorrectDecisionStrategyUsers, 20)))
+                () -> assertThat("Correct number of strategy distributions are saved", simulation.getStrategyDistributions().toDistributions(), hasSize(100)),
+                () -> assertThat("Every step tallies the strategy of each patron", simulation.getStrategyDistributions().toDistributions(),
+                        everyItem(is(ImmutableMap.of("Always", 1, "Never", 1, "Last Correct", 1))))
         );
+        assertThat("Strategy usage is reset after the last step", simulation.getStrategyUsage().toDistribution(),
+                is(ImmutableMap.of("Always", 0, "Never", 0, "Last Correct", 0)));
     }
 
     @Test
@@ -160,11 +158,16 @@ public class SimulationTest {
                 neverChangesStrategyPatron,
                 sometimesChangesStrategyPatron
         );
-        final List<Integer> attendanceHistory = ImmutableList.of();
+        final AttendanceHistory attendanceHistory = new AttendanceHistory(100);
         doReturn(attendanceHistory)
                 .when(bar)
                 .getAttendanceHistory();
 
+        doReturn("Always").when(alwaysDecisionStrategy).getName();
+        doReturn("Never").when(neverDecisionStrategy).getName();
+        doReturn("Last Correct").when(lastCorrectDecisionStrategy).getName();
+        doReturn("FlatTolerance").when(flatToleranceReplacementStrategy).getName();
+        doReturn("ProgressiveIntolerance").when(progressiveIntoleranceReplacementStrategy).getName();
         final Set<DecisionStrategy> decisionStrategies = ImmutableSet.of(
                 alwaysDecisionStrategy,
                 neverDecisionStrategy,
@@ -198,7 +201,6 @@ public class SimulationTest {
                 .patrons(patrons)
                 .decisionStrategies(decisionStrategies)
                 .replacementStrategies(replacementStrategies)
-                .strategyDistributions(ImmutableList.of(ImmutableMap.of("Always", 35, "Never", 65)))
                 .build();
 
         final SimulationReport report = simulation.generateReport();
@@ -221,13 +223,14 @@ public class SimulationTest {
         assertThat("Simmulation input is reported correctly", report.getInput(), is(expectedInputDataset));
 
         final SimulationDataset expectedDataset = SimulationDataset.builder()
+                .summary(simulation.generateSummary())
                 .attendanceHistory(attendanceHistory)
                 .patronReports(ImmutableList.of(
                         alwaysChangesStrategyPatronReport,
                         neverChangesStrategyPatronReport,
                         sometimesChangesStrategyPatronReport)
                 )
-                .strategyDistributions(simulation.getStrategyDistributions())
+                .strategyDistributions(simulation.getStrategyDistributions().toDistributions())
                 .build();
         assertThat("Simmulation dataset is reported correctly", report.getDataset(), is(expectedDataset));
     }
@@ -239,14 +242,4 @@ public class SimulationTest {
                 .memoryProps(PatronMemoryProps.builder().build())
                 .build();
     }
-
-    private static List<Integer> getDistributionForStrategy(final Simulation simulation, final String strategyName) {
-        return simulation.getStrategyDistributions().stream()
-                .map(distribution -> distribution.get(strategyName))
-                .toList();
-    }
-
-    private static Object[] prependDistribution(final Object[] distributions, final int initialDistribution) {
-        return ObjectArrays.concat(initialDistribution, distributions);
-    }
 }
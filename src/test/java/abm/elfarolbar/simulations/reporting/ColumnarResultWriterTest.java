@@ -0,0 +1,204 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.agents.patron.PatronHistoryEvent;
+import abm.elfarolbar.agents.patron.PatronReport;
+import abm.elfarolbar.agents.population.PopulationLayout;
+import abm.elfarolbar.simulations.PatronSetupDetails;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.SimulationGenerator;
+import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+public class ColumnarResultWriterTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer(new MinimalPrettyPrinter());
+
+    @TempDir
+    private Path outputPath;
+
+    @ParameterizedTest
+    @EnumSource(PopulationLayout.class)
+    public void accept_writesColumnsReadableInPlace(final PopulationLayout populationLayout) throws IOException {
+        final Simulation simulation = executedSimulation("simulation", 70, populationLayout);
+        final Path dataFile = outputPath.resolve("shard-0-of-1.columns");
+        try (final ColumnarResultWriter writer = ColumnarResultWriter.open(dataFile)) {
+            writer.accept(simulation, 1234L);
+        }
+
+        try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+            final SimulationColumns columns = reader.get("simulation");
+            final List<PatronReport> patronReports = simulation.getPopulation().generateReport();
+            final PatronReport patronReport = patronReports.get(7);
+            final List<Map<String, Integer>> strategyDistributions = simulation.getStrategyDistributions().toDistributions();
+
+            assertAll("Columns match the simulation",
+                    () -> assertThat("Simulation is indexed", reader.getSimulationIds(), contains("simulation")),
+                    () -> assertThat("Execution time is kept", columns.getExecutionTime(), is(1234L)),
+                    () -> assertThat("Input is kept", columns.getInput(), is(OBJECT_MAPPER.<JsonNode>valueToTree(simulation.generateInputReport()))),
+                    () -> assertThat("Attendance column matches", toList(columns.attendanceHistory()), is(List.copyOf(simulation.getBar().getAttendanceHistory()))),
+                    () -> assertThat("Strategy column matches", toList(columns.strategyDistribution(LastCorrectDecisionStrategy.builder().build().getName())),
+                            is(strategyDistributions.stream().map(distribution -> distribution.get(LastCorrectDecisionStrategy.builder().build().getName())).toList())),
+                    () -> assertThat("Every patron is indexed", columns.getPatronIds(), is(patronReports.stream().map(PatronReport::getId).toList())),
+                    () -> assertThat("Decision column matches", IntStream.range(0, columns.getDecisionSteps()).mapToObj(step -> columns.patronDecision(7, step)).toList(),
+                            is(patronReport.getHistory().stream().map(PatronHistoryEvent::decided).toList())),
+                    () -> assertThat("Every step has a decision", columns.getDecisionSteps(), is(70))
+            );
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(StrategyDistributionFormat.class)
+    public void exportColumnarJson_writesTheColumnsAlongsideTheReportFields(final StrategyDistributionFormat distributionFormat) throws IOException {
+        final Simulation simulation = executedSimulation("simulation", 30, PopulationLayout.ARRAYS, distributionFormat);
+        final Path dataFile = outputPath.resolve("shard-0-of-1.columns");
+        try (final ColumnarResultWriter writer = ColumnarResultWriter.open(dataFile)) {
+            writer.accept(simulation, 1234L);
+        }
+        new StreamingSimulationReportWriter(OBJECT_WRITER).write(simulation, 1234L, Files.newOutputStream(outputPath.resolve("report.json")));
+
+        try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+            reader.exportColumnarJson(OBJECT_WRITER, outputPath);
+        }
+
+        final JsonNode report = OBJECT_MAPPER.readTree(outputPath.resolve("report.json").toFile());
+        final JsonNode exported = OBJECT_MAPPER.readTree(outputPath.resolve("simulation.columnar.json").toFile());
+        assertAll("Export matches the report",
+                () -> assertThat("Input matches", exported.get("input"), is(report.get("input"))),
+                () -> assertThat("Attendance matches", exported.at("/dataset/attendanceHistory"), is(report.at("/dataset/attendanceHistory"))),
+                () -> assertThat("Distributions match", exported.at("/dataset/strategyDistributions"), is(report.at("/dataset/strategyDistributions"))),
+                () -> assertThat("Distribution matrices match", exported.at("/dataset/strategyDistributionMatrix"), is(report.at("/dataset/strategyDistributionMatrix"))),
+                () -> assertThat("Distributions are exported in the report's format", exported.at(distributionFormat == StrategyDistributionFormat.MATRIX
+                        ? "/dataset/strategyDistributionMatrix/users/29" : "/dataset/strategyDistributions/29").isMissingNode(), is(false)),
+                () -> assertThat("Patron reports are not exported", exported.at("/dataset/patronReports").isMissingNode(), is(true)),
+                () -> assertThat("Patron decisions match", exported.at("/dataset/patronDecisions/3/decisions/5"), is(report.at("/dataset/patronReports/3/history/5/decision"))),
+                () -> assertThat("Execution time matches", exported.get("executionTime"), is(report.get("executionTime")))
+        );
+    }
+
+    @Test
+    public void open_appendsAfterAnIndexLineTornByACrash() throws IOException {
+        final Path dataFile = outputPath.resolve("shard-0-of-1.columns");
+        try (final ColumnarResultWriter writer = ColumnarResultWriter.open(dataFile)) {
+            writer.accept(executedSimulation("first", 10, PopulationLayout.OBJECTS), 1L);
+        }
+        Files.writeString(ColumnarResultWriter.indexOf(dataFile), "{\"simulationId\":\"torn", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+            assertThat("Torn line is ignored", reader.getSimulationIds(), contains("first"));
+        }
+        try (final ColumnarResultWriter writer = ColumnarResultWriter.open(dataFile)) {
+            writer.accept(executedSimulation("second", 20, PopulationLayout.OBJECTS), 2L);
+        }
+
+        try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+            assertAll("Both simulations are readable",
+                    () -> assertThat("Both are indexed", reader.getSimulationIds(), contains("first", "second")),
+                    () -> assertThat("First keeps its columns", reader.get("first").attendanceHistory().remaining(), is(11)),
+                    () -> assertThat("Second has its own columns", reader.get("second").attendanceHistory().remaining(), is(21))
+            );
+        }
+    }
+
+    @Test
+    public void accept_writesTheNextSimulationIntact_whenASimulationFailedPartWay() throws IOException {
+        final Simulation failing = spy(executedSimulation("failing", 10, PopulationLayout.ARRAYS));
+        doThrow(new IllegalStateException()).when(failing).streamPatronReports();
+        final Simulation simulation = executedSimulation("simulation", 20, PopulationLayout.ARRAYS);
+        final Path dataFile = outputPath.resolve("shard-0-of-1.columns");
+        try (final ColumnarResultWriter writer = ColumnarResultWriter.open(dataFile)) {
+            assertThrows(IllegalStateException.class, () -> writer.accept(failing, 1L));
+            writer.accept(simulation, 2L);
+        }
+
+        try (final ColumnarResultReader reader = ColumnarResultReader.open(dataFile)) {
+            final SimulationColumns columns = reader.get("simulation");
+            assertAll("Only the complete simulation is readable",
+                    () -> assertThat("Failed simulation is not indexed", reader.getSimulationIds(), contains("simulation")),
+                    () -> assertThat("Attendance column matches", toList(columns.attendanceHistory()), is(List.copyOf(simulation.getBar().getAttendanceHistory()))),
+                    () -> assertThat("Decision column matches", IntStream.range(0, columns.getDecisionSteps()).mapToObj(step -> columns.patronDecision(3, step)).toList(),
+                            is(simulation.getPopulation().generateReport().get(3).getHistory().stream().map(PatronHistoryEvent::decided).toList()))
+            );
+        }
+    }
+
+    @Test
+    public void open_throwsIllegalStateException_whenFileIsNotColumnar() throws IOException {
+        final Path dataFile = outputPath.resolve("report.json");
+        Files.writeString(dataFile, "{\"input\":{}}", StandardCharsets.UTF_8);
+
+        assertThrows(IllegalStateException.class, () -> ColumnarResultWriter.open(dataFile));
+    }
+
+    private static List<Integer> toList(final IntBuffer buffer) {
+        final int[] values = new int[buffer.remaining()];
+        buffer.get(values);
+        return IntStream.of(values).boxed().toList();
+    }
+
+    private static Simulation executedSimulation(final String simulationId, final int simulationLength, final PopulationLayout populationLayout) {
+        return executedSimulation(simulationId, simulationLength, populationLayout, StrategyDistributionFormat.MAPS);
+    }
+
+    private static Simulation executedSimulation(final String simulationId, final int simulationLength, final PopulationLayout populationLayout,
+                                                 final StrategyDistributionFormat distributionFormat) {
+        final LastCorrectDecisionStrategy lastCorrectDecisionStrategy = LastCorrectDecisionStrategy.builder().build();
+        final NeverDecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+        final FlatToleranceReplacementStrategy replacementStrategy = FlatToleranceReplacementStrategy.builder().build();
+        final Simulation simulation = SimulationGenerator.builder()
+                .barCapacity(20)
+                .simulationLength(simulationLength)
+                .barPreviousHistory(ImmutableList.of(0))
+                .patronSetupDetailsList(ImmutableList.of(
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(lastCorrectDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(25)
+                                .build(),
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(neverDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(15)
+                                .build()))
+                .decisionStrategies(ImmutableSet.of(lastCorrectDecisionStrategy, neverDecisionStrategy))
+                .replacementStrategies(ImmutableSet.of(replacementStrategy))
+                .populationLayout(populationLayout)
+                .historyRetention(PatronHistoryRetention.REPORT)
+                .distributionFormat(distributionFormat)
+                .seed(42L)
+                .build()
+                .generate(simulationId);
+        simulation.execute();
+        return simulation;
+    }
+}
@@ -0,0 +1,117 @@
+package abm.elfarolbar.simulations.reporting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import abm.elfarolbar.agents.patron.PatronHistoryEvent;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JsonLinesPatronHistorySinkTest {
+    @TempDir
+    Path outputPath;
+
+    @Test
+    public void accept_writesOneLinePerEvent() throws IOException {
+        final Path path = outputPath.resolve("simulation.history.jsonl");
+        final JsonLinesPatronHistorySink sink = new JsonLinesPatronHistorySink(path);
+
+        sink.accept("patron", 1, PatronHistoryEvent.builder()
+            .strategyNameToDecisionMap(ImmutableMap.of("Always", true, "Never", false))
+            .decision(true)
+            .strategy("Always")
+            .overcrowded(true)
+            .correct(false)
+            .build());
+        sink.accept("patron", 2, PatronHistoryEvent.builder()
+            .decision(false)
+            .strategy("Never")
+            .build());
+        sink.close();
+
+        assertThat("Events are written as JSON lines", Files.readAllLines(path), is(ImmutableList.of(
+            "{\"patronId\":\"patron\",\"step\":1,\"event\":{\"strategyNameToDecisionMap\":{\"Always\":true,\"Never\":false},"
+                + "\"decision\":true,\"strategy\":\"Always\",\"overcrowded\":true,\"correct\":false}}",
+            "{\"patronId\":\"patron\",\"step\":2,\"event\":{\"strategyNameToDecisionMap\":{},"
+                + "\"decision\":false,\"strategy\":\"Never\",\"overcrowded\":null,\"correct\":null}}"
+        )));
+    }
+
+    @Test
+    public void accept_writesEveryEvent_whenPatronsRecordInParallel() throws IOException {
+        final Path path = outputPath.resolve("simulation.history.jsonl");
+        final JsonLinesPatronHistorySink sink = new JsonLinesPatronHistorySink(path);
+
+        for (int step = 1; step <= 3; step++) {
+            final int recordedStep = step;
+            IntStream.range(0, 5_000)
+                .parallel()
+                .forEach(patron -> sink.accept(String.valueOf(patron), recordedStep, PatronHistoryEvent.builder()
+                    .decision(true)
+                    .strategy("Always")
+                    .build()));
+            sink.endStep(step);
+        }
+        sink.close();
+
+        final List<Integer> steps = Files.readAllLines(path).stream()
+            .map(line -> Integer.valueOf(line.replaceAll(".*\"step\":(\\d+).*", "$1")))
+            .toList();
+        assertAll("Every event is written once, step after step",
+            () -> assertThat("Every event is written", steps, hasSize(15_000)),
+            () -> assertThat("Steps are written in order", steps, is(steps.stream().sorted().toList()))
+        );
+    }
+
+    @Test
+    public void resume_keepsTheStepsBeforeTheSnapshot_andAppendsTheRest() throws IOException {
+        final Path path = outputPath.resolve("simulation.history.jsonl");
+        final JsonLinesPatronHistorySink interruptedSink = new JsonLinesPatronHistorySink(path);
+        for (int step = 1; step <= 3; step++) {
+            interruptedSink.accept("patron", step, PatronHistoryEvent.builder().decision(true).strategy("Always").build());
+            interruptedSink.endStep(step);
+        }
+        interruptedSink.close();
+        Files.writeString(path, "{\"patronId\":\"pat", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        final JsonLinesPatronHistorySink resumedSink = new JsonLinesPatronHistorySink(path);
+        final boolean resumed = resumedSink.resume(2);
+        for (int step = 3; step <= 4; step++) {
+            resumedSink.accept("patron", step, PatronHistoryEvent.builder().decision(false).strategy("Never").build());
+            resumedSink.endStep(step);
+        }
+        resumedSink.close();
+
+        final List<String> lines = Files.readAllLines(path);
+        assertAll("History continues from the snapshot",
+            () -> assertThat("History is resumed", resumed, is(true)),
+            () -> assertThat("Every step is written once", lines, hasSize(4)),
+            () -> assertThat("Steps before the snapshot are kept", lines.get(1), containsString("\"step\":2,\"event\":{\"strategyNameToDecisionMap\":{},\"decision\":true")),
+            () -> assertThat("Steps after the snapshot are appended", lines.get(2), containsString("\"step\":3,\"event\":{\"strategyNameToDecisionMap\":{},\"decision\":false"))
+        );
+    }
+
+    @Test
+    public void close_createsNoFile_whenNoEventWasAccepted() {
+        final Path path = outputPath.resolve("simulation.history.jsonl");
+
+        new JsonLinesPatronHistorySink(path).close();
+
+        assertThat("No file is created", Files.exists(path), is(false));
+    }
+}
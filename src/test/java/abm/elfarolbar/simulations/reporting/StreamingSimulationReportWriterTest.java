@@ -0,0 +1,155 @@
+package abm.elfarolbar.simulations.reporting;
+
+import abm.elfarolbar.agents.population.PopulationLayout;
+import abm.elfarolbar.simulations.PatronSetupDetails;
+import abm.elfarolbar.simulations.Simulation;
+import abm.elfarolbar.simulations.SimulationGenerator;
+import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class StreamingSimulationReportWriterTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer(new MinimalPrettyPrinter());
+
+    @TempDir
+    private Path outputPath;
+
+    @ParameterizedTest
+    @MethodSource
+    public void write_writesTheSameJsonAsTheReportObject(final PopulationLayout populationLayout,
+                                                         final PatronHistoryRetention historyRetention,
+                                                         final ReportDetail reportDetail,
+                                                         final StrategyDistributionFormat distributionFormat) throws IOException {
+        final LastCorrectDecisionStrategy lastCorrectDecisionStrategy = LastCorrectDecisionStrategy.builder().build();
+        final NeverDecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+        final FlatToleranceReplacementStrategy replacementStrategy = FlatToleranceReplacementStrategy.builder().build();
+        final Simulation simulation = SimulationGenerator.builder()
+                .barCapacity(20)
+                .simulationLength(30)
+                .patronSetupDetailsList(ImmutableList.of(
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(lastCorrectDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(25)
+                                .build(),
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(neverDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(15)
+                                .build()))
+                .decisionStrategies(ImmutableSet.of(lastCorrectDecisionStrategy, neverDecisionStrategy))
+                .replacementStrategies(ImmutableSet.of(replacementStrategy))
+                .populationLayout(populationLayout)
+                .historyRetention(historyRetention)
+                .reportDetail(reportDetail)
+                .distributionFormat(distributionFormat)
+                .sampledPatrons(5)
+                .seed(42L)
+                .build()
+                .generate("simulation id");
+        simulation.execute();
+
+        final File objectReport = outputPath.resolve("object.json").toFile();
+        final File streamedReport = outputPath.resolve("streamed.json").toFile();
+        new ObjectSimulationReportWriter(OBJECT_WRITER).write(simulation, 1234L, Files.newOutputStream(objectReport.toPath()));
+        new StreamingSimulationReportWriter(OBJECT_WRITER).write(simulation, 1234L, Files.newOutputStream(streamedReport.toPath()));
+
+        assertThat("Streamed report is identical to the serialized report object",
+                Files.readString(streamedReport.toPath()), is(Files.readString(objectReport.toPath())));
+    }
+
+    @Test
+    public void write_keepsTheBaselineSchema_withAddedSummary_whenDefaultsAreUsed() throws IOException {
+        final LastCorrectDecisionStrategy lastCorrectDecisionStrategy = LastCorrectDecisionStrategy.builder().build();
+        final NeverDecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+        final FlatToleranceReplacementStrategy replacementStrategy = FlatToleranceReplacementStrategy.builder().build();
+        final Simulation simulation = SimulationGenerator.builder()
+                .barCapacity(20)
+                .simulationLength(30)
+                .patronSetupDetailsList(ImmutableList.of(
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(neverDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(15)
+                                .build(),
+                        PatronSetupDetails.builder()
+                                .decisionStrategyName(lastCorrectDecisionStrategy.getName())
+                                .replacementStrategyName(replacementStrategy.getName())
+                                .count(25)
+                                .build()))
+                .decisionStrategies(ImmutableSet.of(neverDecisionStrategy, lastCorrectDecisionStrategy))
+                .replacementStrategies(ImmutableSet.of(replacementStrategy))
+                .seed(42L)
+                .build()
+                .generate("simulation id");
+        simulation.execute();
+        final Path reportFile = outputPath.resolve("report.json");
+        new StreamingSimulationReportWriter(OBJECT_WRITER).write(simulation, 1234L, Files.newOutputStream(reportFile));
+
+        final JsonNode report = OBJECT_MAPPER.readTree(reportFile.toFile());
+        final JsonNode dataset = report.get("dataset");
+        final List<String> strategyNames = Stream.of(lastCorrectDecisionStrategy.getName(), neverDecisionStrategy.getName()).sorted().toList();
+        assertAll("Default reports keep the baseline fields; the summary is added and distribution keys are sorted",
+                () -> assertThat("Report fields match the baseline", fieldNames(report), contains("input", "dataset", "executionTime")),
+                () -> assertThat("Input keeps the baseline fields", fieldNames(report.get("input")),
+                        hasItems("barCapacity", "simulationLength", "barPreviousHistory", "initialPatronSetupDetails")),
+                () -> assertThat("Dataset fields are the baseline ones after the summary", fieldNames(dataset),
+                        contains("summary", "attendanceHistory", "strategyDistributions", "patronReports")),
+                () -> assertThat("A distribution is reported per step", dataset.get("strategyDistributions").size(), is(30)),
+                () -> assertThat("Distributions are keyed by strategy name in sorted order", fieldNames(dataset.at("/strategyDistributions/29")),
+                        is(strategyNames)),
+                () -> assertThat("Patron report fields match the baseline", fieldNames(dataset.at("/patronReports/0")),
+                        containsInAnyOrder("id", "history", "memoryProps", "patience", "lastStrategySwitchStep")),
+                () -> assertThat("History event fields match the baseline", fieldNames(dataset.at("/patronReports/0/history/0")),
+                        containsInAnyOrder("strategyNameToDecisionMap", "decision", "strategy", "overcrowded", "correct"))
+        );
+    }
+
+    private static List<String> fieldNames(final JsonNode node) {
+        final List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static Stream<Arguments> write_writesTheSameJsonAsTheReportObject() {
+        return Stream.of(
+                Arguments.of(PopulationLayout.OBJECTS, null, ReportDetail.FULL, StrategyDistributionFormat.MATRIX),
+                Arguments.of(PopulationLayout.OBJECTS, PatronHistoryRetention.REPORT, ReportDetail.FULL, StrategyDistributionFormat.MATRIX),
+                Arguments.of(PopulationLayout.ARRAYS, PatronHistoryRetention.REPORT, ReportDetail.FULL, StrategyDistributionFormat.MATRIX),
+                Arguments.of(PopulationLayout.ARRAYS, PatronHistoryRetention.REPORT, ReportDetail.FULL, StrategyDistributionFormat.MAPS),
+                Arguments.of(PopulationLayout.ARRAYS, PatronHistoryRetention.REPORT, ReportDetail.SAMPLED_PATRONS, StrategyDistributionFormat.MATRIX),
+                Arguments.of(PopulationLayout.OBJECTS, PatronHistoryRetention.REPORT, ReportDetail.DISTRIBUTIONS, StrategyDistributionFormat.MATRIX),
+                Arguments.of(PopulationLayout.OBJECTS, PatronHistoryRetention.REPORT, ReportDetail.DISTRIBUTIONS, StrategyDistributionFormat.MAPS),
+                Arguments.of(PopulationLayout.OBJECTS, PatronHistoryRetention.NONE, ReportDetail.SUMMARY, StrategyDistributionFormat.MATRIX)
+        );
+    }
+}
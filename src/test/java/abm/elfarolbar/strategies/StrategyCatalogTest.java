@@ -0,0 +1,67 @@
+package abm.elfarolbar.strategies;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.strategies.decision.AlwaysDecisionStrategy;
+import abm.elfarolbar.strategies.decision.DecisionStrategy;
+import abm.elfarolbar.strategies.decision.NeverDecisionStrategy;
+import abm.elfarolbar.strategies.replacement.FlatToleranceReplacementStrategy;
+import abm.elfarolbar.strategies.replacement.ProgressiveIntoleranceReplacementStrategy;
+import abm.elfarolbar.strategies.replacement.ReplacementStrategy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class StrategyCatalogTest {
+    private final DecisionStrategy alwaysDecisionStrategy = AlwaysDecisionStrategy.builder().build();
+    private final DecisionStrategy neverDecisionStrategy = NeverDecisionStrategy.builder().build();
+    private final ReplacementStrategy progressiveIntoleranceReplacementStrategy = ProgressiveIntoleranceReplacementStrategy.builder().build();
+    private final ReplacementStrategy flatToleranceReplacementStrategy = FlatToleranceReplacementStrategy.builder().build();
+
+    @Test
+    public void of_numbersStrategiesBySortedName() {
+        final StrategyCatalog strategyCatalog = StrategyCatalog.of(
+                List.of(neverDecisionStrategy, alwaysDecisionStrategy),
+                List.of(progressiveIntoleranceReplacementStrategy, flatToleranceReplacementStrategy));
+
+        assertAll("Strategies are numbered by sorted name",
+                () -> assertThat("Decision strategies are in ordinal order", strategyCatalog.getDecisionStrategies(),
+                        contains(alwaysDecisionStrategy, neverDecisionStrategy)),
+                () -> assertThat("Decision strategy ordinal is looked up by name", strategyCatalog.decisionStrategyOrdinalOf("Never"), is(1)),
+                () -> assertThat("Decision strategy name is looked up by ordinal", strategyCatalog.decisionStrategyName(0), is("Always")),
+                () -> assertThat("Unknown decision strategies have no ordinal", strategyCatalog.decisionStrategyOrdinalOf("Unknown"), is(-1)),
+                () -> assertThat("Replacement strategies are in ordinal order", strategyCatalog.getReplacementStrategyNames(),
+                        contains("FlatTolerance", "ProgressiveIntolerance")),
+                () -> assertThat("Replacement strategy ordinal is looked up by name",
+                        strategyCatalog.replacementStrategyOrdinalOf("ProgressiveIntolerance"), is(1)),
+                () -> assertThat("Replacement strategy is looked up by ordinal", strategyCatalog.replacementStrategy(0),
+                        is(flatToleranceReplacementStrategy))
+        );
+    }
+
+    @Test
+    public void of_sharesDecisionStrategyOrdinalsOfTheSameNames() {
+        final StrategyCatalog strategyCatalog = StrategyCatalog.of(List.of(alwaysDecisionStrategy, neverDecisionStrategy), List.of());
+
+        assertThat("Ordinals are the interned ordinals of the strategy names", strategyCatalog.getDecisionStrategyOrdinals(),
+                sameInstance(DecisionStrategyOrdinals.of(List.of("Never", "Always"))));
+    }
+
+    @Test
+    public void of_keepsFirstStrategy_whenNamesCollide() {
+        final DecisionStrategy otherAlwaysDecisionStrategy = AlwaysDecisionStrategy.builder().build();
+
+        final StrategyCatalog strategyCatalog = StrategyCatalog.of(List.of(alwaysDecisionStrategy, otherAlwaysDecisionStrategy), List.of());
+
+        assertAll("First strategy of a name is kept",
+                () -> assertThat("One strategy is catalogued", strategyCatalog.decisionStrategyCount(), is(1)),
+                () -> assertThat("First strategy is kept", strategyCatalog.decisionStrategy(0), sameInstance(alwaysDecisionStrategy)),
+                () -> assertThat("Strategies are mapped by name", strategyCatalog.decisionStrategiesByName().get("Always"),
+                        sameInstance(alwaysDecisionStrategy))
+        );
+    }
+}
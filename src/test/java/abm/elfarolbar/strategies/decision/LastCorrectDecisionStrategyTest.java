@@ -6,10 +6,11 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.strategies.decision.LastCorrectDecisionStrategy;
-import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -29,9 +30,9 @@ public class LastCorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenLastDecisionIsNotCrowded() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(false))
+        doReturn(crowdedHistory(false))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns true, if last bar attendance was not crowded", strategy.decide(bar, memoryProps));
     }
@@ -39,9 +40,9 @@ public class LastCorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenLastDecisionIsNotCrowdedWithPreviousCrowdedHistory() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(true, true, true, true, true, false))
+        doReturn(crowdedHistory(true, true, true, true, true, false))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns true, if last bar attendance was not crowded", strategy.decide(bar, memoryProps));
     }
@@ -49,9 +50,9 @@ public class LastCorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenLastDecisionIsCrowded() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(true))
+        doReturn(crowdedHistory(true))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns false, if last bar attendance was crowded", !strategy.decide(bar, memoryProps));
     }
@@ -59,9 +60,9 @@ public class LastCorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenLastDecisionIsCrowdedWithPreviousNotCrowdedHistory() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(false, false, false, false, false, true))
+        doReturn(crowdedHistory(false, false, false, false, false, true))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns false, if last bar attendance was crowded", !strategy.decide(bar, memoryProps));
     }
@@ -69,9 +70,9 @@ public class LastCorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrueOrFalse_whenNoHistory() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of())
+        doReturn(crowdedHistory())
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         final Map<Boolean, List<Integer>> mapResults = IntStream.range(0, 50)
             .boxed()
@@ -81,6 +82,17 @@ public class LastCorrectDecisionStrategyTest {
         assertThat("Can return false if bar has no history", not(mapResults.get(Boolean.FALSE).isEmpty()));
     }
 
+    @Test
+    public void isPatronIndependent_returnsTrue_onlyWhenRecentHistoryIsNotEmpty() {
+        final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
+        doReturn(crowdedHistory(), crowdedHistory(true))
+            .when(bar)
+            .getAttendanceHistory();
+
+        assertThat("Decision is drawn per patron without history", !strategy.isPatronIndependent(bar, memoryProps));
+        assertThat("Decision is shared with history", strategy.isPatronIndependent(bar, memoryProps));
+    }
+
     @Test
     public void getName_returnsCorrectName() {
         final LastCorrectDecisionStrategy strategy = LastCorrectDecisionStrategy.builder().build();
@@ -95,4 +107,10 @@ public class LastCorrectDecisionStrategyTest {
         assertThat("Clone is different object", strategy.clone(), not(strategy));
         assertThat("Clone has same properties as original", strategy.clone(), samePropertyValuesAs(strategy));
     }
+
+    private static AttendanceHistory crowdedHistory(final Boolean... crowded) {
+        final AttendanceHistory history = new AttendanceHistory(0);
+        Arrays.stream(crowded).forEach(isCrowded -> history.add(isCrowded ? 1 : 0));
+        return history;
+    }
 }
@@ -6,10 +6,11 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.strategies.decision.LastIncorrectDecisionStrategy;
-import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -29,9 +30,9 @@ public class LastIncorrectDecisionStrategyTest {
     @Test
     public void decide_returnsFalse_whenLastDecisionIsNotCrowded() {
         final LastIncorrectDecisionStrategy strategy = LastIncorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(false))
+        doReturn(crowdedHistory(false))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns false, if last bar attendance was not crowded", !strategy.decide(bar, memoryProps));
     }
@@ -39,9 +40,9 @@ public class LastIncorrectDecisionStrategyTest {
     @Test
     public void decide_returnsFalse_whenLastDecisionIsNotCrowdedWithPreviousCrowdedHistory() {
         final LastIncorrectDecisionStrategy strategy = LastIncorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(true, true, true, true, true, false))
+        doReturn(crowdedHistory(true, true, true, true, true, false))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns false, if last bar attendance was not crowded", !strategy.decide(bar, memoryProps));
     }
@@ -49,9 +50,9 @@ public class LastIncorrectDecisionStrategyTest {
     @Test
     public void decide_returnsFalse_whenLastDecisionIsCrowded() {
         final LastIncorrectDecisionStrategy strategy = LastIncorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(true))
+        doReturn(crowdedHistory(true))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns true, if last bar attendance was crowded", strategy.decide(bar, memoryProps));
     }
@@ -59,9 +60,9 @@ public class LastIncorrectDecisionStrategyTest {
     @Test
     public void decide_returnsFalse_whenLastDecisionIsCrowdedWithPreviousNotCrowdedHistory() {
         final LastIncorrectDecisionStrategy strategy = LastIncorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(false, false, false, false, false, true))
+        doReturn(crowdedHistory(false, false, false, false, false, true))
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         assertThat("Returns true, if last bar attendance was crowded", strategy.decide(bar, memoryProps));
     }
@@ -69,9 +70,9 @@ public class LastIncorrectDecisionStrategyTest {
     @Test
     public void decide_returnsTrueOrFalse_whenNoHistory() {
         final LastIncorrectDecisionStrategy strategy = LastIncorrectDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of())
+        doReturn(crowdedHistory())
             .when(bar)
-            .crowdedHistory();
+            .getAttendanceHistory();
 
         final Map<Boolean, List<Integer>> mapResults = IntStream.range(0, 50)
             .boxed()
@@ -95,4 +96,10 @@ public class LastIncorrectDecisionStrategyTest {
         assertThat("Clone is different object", strategy.clone(), not(strategy));
         assertThat("Clone has same properties as original", strategy.clone(), samePropertyValuesAs(strategy));
     }
+
+    private static AttendanceHistory crowdedHistory(final Boolean... crowded) {
+        final AttendanceHistory history = new AttendanceHistory(0);
+        Arrays.stream(crowded).forEach(isCrowded -> history.add(isCrowded ? 1 : 0));
+        return history;
+    }
 }
@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.strategies.decision.MaxAttendanceDecisionStrategy;
@@ -30,6 +31,9 @@ public class MaxAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrueOrFalse_whenNoHistory() {
         final MaxAttendanceDecisionStrategy strategy = MaxAttendanceDecisionStrategy.builder().build();
+        doReturn(new AttendanceHistory(100))
+            .when(bar)
+            .getAttendanceHistory();
         doReturn(100)
             .when(bar)
             .getTotalPopulation();
@@ -49,11 +53,11 @@ public class MaxAttendanceDecisionStrategyTest {
             .localMax(localMax)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(localMax + 1, 101))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -67,11 +71,11 @@ public class MaxAttendanceDecisionStrategyTest {
             .localMax(localMax)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> localMax)
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -85,17 +89,28 @@ public class MaxAttendanceDecisionStrategyTest {
             .localMax(localMax)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(0, localMax))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
         assertThat("Strategy returns false", !strategy.decide(bar, memoryProps));
     }
 
+    @Test
+    public void isPatronIndependent_returnsTrue_onlyWhenRecentHistoryIsNotEmpty() {
+        final MaxAttendanceDecisionStrategy strategy = MaxAttendanceDecisionStrategy.builder().build();
+        doReturn(new AttendanceHistory(100), AttendanceHistory.of(100, List.of(40)))
+            .when(bar)
+            .getAttendanceHistory();
+
+        assertThat("Decision is drawn per patron without history", !strategy.isPatronIndependent(bar, memoryProps));
+        assertThat("Decision is shared with history", strategy.isPatronIndependent(bar, memoryProps));
+    }
+
     @Test
     public void default_setsThresholdTo60() {
         final MaxAttendanceDecisionStrategy strategy = MaxAttendanceDecisionStrategy.builder().build();
@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.strategies.decision.MaxAverageAttendanceDecisionStrategy;
@@ -30,6 +31,9 @@ public class MaxAverageAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrueOrFalse_whenNoHistory() {
         final MaxAverageAttendanceDecisionStrategy strategy = MaxAverageAttendanceDecisionStrategy.builder().build();
+        doReturn(new AttendanceHistory(100))
+            .when(bar)
+            .getAttendanceHistory();
         doReturn(100)
             .when(bar)
             .getTotalPopulation();
@@ -49,11 +53,11 @@ public class MaxAverageAttendanceDecisionStrategyTest {
             .maxAverage(maxAverage)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(maxAverage, 101))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -67,11 +71,11 @@ public class MaxAverageAttendanceDecisionStrategyTest {
             .maxAverage(maxAverage)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> maxAverage)
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -85,11 +89,11 @@ public class MaxAverageAttendanceDecisionStrategyTest {
             .maxAverage(maxAverage)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(0, maxAverage + 1))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
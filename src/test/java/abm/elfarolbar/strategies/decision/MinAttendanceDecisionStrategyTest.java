@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import abm.elfarolbar.strategies.decision.MinAttendanceDecisionStrategy;
@@ -30,6 +31,9 @@ public class MinAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrueOrFalse_whenNoHistory() {
         final MinAttendanceDecisionStrategy strategy = MinAttendanceDecisionStrategy.builder().build();
+        doReturn(new AttendanceHistory(100))
+            .when(bar)
+            .getAttendanceHistory();
         doReturn(100)
             .when(bar)
             .getTotalPopulation();
@@ -49,11 +53,11 @@ public class MinAttendanceDecisionStrategyTest {
             .localMin(localMin)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(localMin + 1, 101))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -67,11 +71,11 @@ public class MinAttendanceDecisionStrategyTest {
             .localMin(localMin)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> localMin)
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -85,11 +89,11 @@ public class MinAttendanceDecisionStrategyTest {
             .localMin(localMin)
             .build();
 
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             IntStream.range(0, RandomUtils.nextInt(1, 20))
                 .map(idx -> RandomUtils.nextInt(0, localMin))
                 .boxed()
-                .toList())
+                .toList()))
             .when(bar)
             .getAttendanceHistory();
 
@@ -6,6 +6,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.mockito.Mockito.doReturn;
 
+import abm.elfarolbar.actors.bars.AttendanceHistory;
 import abm.elfarolbar.actors.bars.Bar;
 import abm.elfarolbar.agents.patron.PatronMemoryProps;
 import com.google.common.collect.ImmutableList;
@@ -27,7 +28,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenOnlyAttendanceMatchesThreshold() {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of(strategy.getThreshold()))
+        doReturn(AttendanceHistory.of(100, ImmutableList.of(strategy.getThreshold())))
             .when(bar)
             .getAttendanceHistory();
 
@@ -39,7 +40,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder()
             .reversed(true)
             .build();
-        doReturn(ImmutableList.of(strategy.getThreshold()))
+        doReturn(AttendanceHistory.of(100, ImmutableList.of(strategy.getThreshold())))
             .when(bar)
             .getAttendanceHistory();
 
@@ -49,7 +50,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenNoHistory() {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder().build();
-        doReturn(ImmutableList.of())
+        doReturn(new AttendanceHistory(100))
             .when(bar)
             .getAttendanceHistory();
 
@@ -61,7 +62,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder()
             .reversed(true)
             .build();
-        doReturn(ImmutableList.of())
+        doReturn(new AttendanceHistory(100))
             .when(bar)
             .getAttendanceHistory();
 
@@ -71,7 +72,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsFalse_whenRecentHistory_isAtOrBelowThreshold() {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder().build();
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             new ImmutableList.Builder<Integer>()
                 .addAll(
                     IntStream.range(0, memoryProps.getMemoryLength())
@@ -86,7 +87,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
                         .collect(Collectors.toList())
                 )
                 .build()
-        )
+        ))
             .when(bar)
             .getAttendanceHistory();
 
@@ -98,7 +99,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder()
             .reversed(true)
             .build();
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             new ImmutableList.Builder<Integer>()
                 .addAll(
                     IntStream.range(0, memoryProps.getMemoryLength())
@@ -113,7 +114,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
                         .collect(Collectors.toList())
                 )
                 .build()
-        )
+        ))
             .when(bar)
             .getAttendanceHistory();
 
@@ -123,7 +124,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
     @Test
     public void decide_returnsTrue_whenRecentHistory_isAtOrAboveThreshold() {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder().build();
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             new ImmutableList.Builder<Integer>()
                 .addAll(
                     IntStream.range(0, memoryProps.getMemoryLength())
@@ -138,7 +139,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
                         .collect(Collectors.toList())
                 )
                 .build()
-        )
+        ))
             .when(bar)
             .getAttendanceHistory();
 
@@ -150,7 +151,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
         final PluralityThresholdAttendanceDecisionStrategy strategy = PluralityThresholdAttendanceDecisionStrategy.builder()
             .reversed(true)
             .build();
-        doReturn(
+        doReturn(AttendanceHistory.of(100,
             new ImmutableList.Builder<Integer>()
                 .addAll(
                     IntStream.range(0, memoryProps.getMemoryLength())
@@ -165,7 +166,7 @@ public class PluralityThresholdAttendanceDecisionStrategyTest {
                         .collect(Collectors.toList())
                 )
                 .build()
-        )
+        ))
             .when(bar)
             .getAttendanceHistory();
 
@@ -0,0 +1,99 @@
+package abm.elfarolbar.strategies.decision;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import abm.elfarolbar.actors.bars.Bar;
+import abm.elfarolbar.agents.patron.DecisionStrategyOrdinals;
+import abm.elfarolbar.agents.patron.PatronMemoryProps;
+import abm.elfarolbar.random.RandomStream;
+import abm.elfarolbar.strategies.StrategyCatalog;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class SharedDecisionsTest {
+    @Mock
+    private Bar bar;
+
+    @Mock
+    private DecisionStrategy independentStrategy;
+
+    @Mock
+    private DecisionStrategy dependentStrategy;
+
+    private final PatronMemoryProps memoryProps = PatronMemoryProps.builder().build();
+
+    @Test
+    public void decide_computesPatronIndependentStrategyOncePerMemoryProps() {
+        doReturn(true).when(independentStrategy).isPatronIndependent(eq(bar), eq(memoryProps));
+        doReturn("Independent").when(independentStrategy).getName();
+        doReturn(true).when(independentStrategy).decide(eq(bar), eq(memoryProps));
+
+        final SharedDecisions sharedDecisions = SharedDecisions.compute(bar, ImmutableList.of(independentStrategy), ImmutableSet.of(memoryProps));
+
+        IntStream.range(0, 10)
+            .forEach(idx -> assertThat("Shared decision is returned",
+                sharedDecisions.decide("Independent", independentStrategy, bar, memoryProps, RandomStream.unseeded())));
+        verify(independentStrategy, times(1)).decide(eq(bar), eq(memoryProps));
+    }
+
+    @Test
+    public void decide_readsSharedDecisionByOrdinal() {
+        doReturn(true).when(independentStrategy).isPatronIndependent(eq(bar), eq(memoryProps));
+        doReturn("Independent").when(independentStrategy).getName();
+        doReturn(true).when(independentStrategy).decide(eq(bar), eq(memoryProps));
+        doReturn(false).when(dependentStrategy).isPatronIndependent(eq(bar), eq(memoryProps));
+        doReturn("Dependent").when(dependentStrategy).getName();
+        final StrategyCatalog strategyCatalog = StrategyCatalog.of(ImmutableList.of(independentStrategy, dependentStrategy), ImmutableList.of());
+        final DecisionStrategyOrdinals strategyOrdinals = strategyCatalog.getDecisionStrategyOrdinals();
+
+        final SharedDecisions sharedDecisions = SharedDecisions.compute(bar, strategyCatalog, ImmutableSet.of(memoryProps));
+
+        assertAll("Shared decisions are read by ordinal",
+            () -> assertThat("Shared decision is read by ordinal",
+                sharedDecisions.get(strategyOrdinals, strategyOrdinals.ordinalOf("Independent"), memoryProps), is(true)),
+            () -> assertThat("Patron-dependent strategy has no shared decision",
+                sharedDecisions.get(strategyOrdinals, strategyOrdinals.ordinalOf("Dependent"), memoryProps), nullValue()),
+            () -> assertThat("Ordinals of other strategies are mapped by name",
+                sharedDecisions.get(DecisionStrategyOrdinals.of(ImmutableList.of("Independent")), 0, memoryProps), is(true))
+        );
+    }
+
+    @Test
+    public void decide_evaluatesPatronDependentStrategyForEveryPatron() {
+        doReturn(false).when(dependentStrategy).isPatronIndependent(eq(bar), eq(memoryProps));
+        doReturn(true).when(dependentStrategy).decide(eq(bar), eq(memoryProps), any(RandomStream.class));
+
+        final SharedDecisions sharedDecisions = SharedDecisions.compute(bar, ImmutableList.of(dependentStrategy), ImmutableSet.of(memoryProps));
+
+        IntStream.range(0, 10)
+            .forEach(idx -> assertThat("Strategy decision is returned",
+                sharedDecisions.decide("Dependent", dependentStrategy, bar, memoryProps, RandomStream.unseeded())));
+        verify(dependentStrategy, times(10)).decide(eq(bar), eq(memoryProps), any(RandomStream.class));
+    }
+
+    @Test
+    public void decide_evaluatesStrategy_whenMemoryPropsWereNotShared() {
+        final PatronMemoryProps otherMemoryProps = PatronMemoryProps.builder().memoryLength(10).build();
+        doReturn(false).when(independentStrategy).decide(eq(bar), eq(otherMemoryProps), any(RandomStream.class));
+
+        final SharedDecisions sharedDecisions = SharedDecisions.compute(bar, ImmutableList.of(independentStrategy), ImmutableSet.of());
+
+        assertThat("Strategy decision is returned",
+            !sharedDecisions.decide("Independent", independentStrategy, bar, otherMemoryProps, RandomStream.unseeded()));
+        verify(independentStrategy).decide(eq(bar), eq(otherMemoryProps), any(RandomStream.class));
+    }
+}
@@ -0,0 +1,78 @@
+package abm.elfarolbar.strategies.decision;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class StrategyDistributionsTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<DecisionStrategy> decisionStrategies = ImmutableList.of(
+        AlwaysDecisionStrategy.builder().build(),
+        NeverDecisionStrategy.builder().build()
+    );
+
+    @Test
+    public void record_appendsARowPerStep_growingPastTheInitialCapacity() {
+        final StrategyUsage strategyUsage = StrategyUsage.of(decisionStrategies);
+        final StrategyDistributions strategyDistributions = new StrategyDistributions(strategyUsage.getStrategyOrdinals());
+
+        IntStream.range(0, 100).forEach(step -> {
+            strategyUsage.select("Always", step);
+            strategyUsage.select("Never", 100 - step);
+            strategyDistributions.record(strategyUsage);
+            strategyUsage.reset();
+        });
+
+        assertAll("Every step is kept",
+            () -> assertThat("A row per step", strategyDistributions.size(), is(100)),
+            () -> assertThat("Users are read by step and ordinal", strategyDistributions.getUsers(42, 0), is(42)),
+            () -> assertThat("Rows read as maps", strategyDistributions.toDistribution(99), is(ImmutableMap.of("Always", 99, "Never", 1))),
+            () -> assertThat("Every row reads as a map", strategyDistributions.toDistributions().get(3), is(ImmutableMap.of("Always", 3, "Never", 97))),
+            () -> assertThat("Last row", strategyDistributions.last(), is(ImmutableMap.of("Always", 99, "Never", 1))),
+            () -> assertThrows(IndexOutOfBoundsException.class, () -> strategyDistributions.getUsers(100, 0))
+        );
+    }
+
+    @Test
+    public void replaceLast_keepsOnlyTheLatestRow() {
+        final StrategyUsage strategyUsage = StrategyUsage.of(decisionStrategies);
+        final StrategyDistributions strategyDistributions = new StrategyDistributions(strategyUsage.getStrategyOrdinals());
+
+        assertThat("No row yet", strategyDistributions.last(), is(Map.of()));
+        strategyUsage.select("Always", 2);
+        strategyDistributions.replaceLast(strategyUsage);
+        strategyUsage.select("Never", 5);
+        strategyDistributions.replaceLast(strategyUsage);
+
+        assertAll("Only the latest row is kept",
+            () -> assertThat("One row", strategyDistributions.size(), is(1)),
+            () -> assertThat("Latest users", strategyDistributions.last(), is(ImmutableMap.of("Always", 2, "Never", 5)))
+        );
+    }
+
+    @Test
+    public void serialize_writesOneHeaderAndARowPerStep() throws Exception {
+        final StrategyDistributions strategyDistributions = new StrategyDistributions(StrategyUsage.of(decisionStrategies).getStrategyOrdinals());
+        strategyDistributions.add(new int[]{3, 7});
+        strategyDistributions.add(new int[]{4, 6});
+
+        assertAll("Distributions serialize as a matrix",
+            () -> assertThat("Header and rows", OBJECT_MAPPER.writeValueAsString(strategyDistributions),
+                is("{\"strategies\":[\"Always\",\"Never\"],\"users\":[[3,7],[4,6]]}")),
+            () -> assertThat("Compatible rows", strategyDistributions.toDistributions(),
+                contains(ImmutableMap.of("Always", 3, "Never", 7), ImmutableMap.of("Always", 4, "Never", 6))),
+            () -> assertThrows(IllegalArgumentException.class, () -> strategyDistributions.add(new int[]{1}))
+        );
+    }
+}
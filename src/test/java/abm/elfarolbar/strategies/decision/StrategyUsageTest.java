@@ -0,0 +1,64 @@
+package abm.elfarolbar.strategies.decision;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StrategyUsageTest {
+    private final List<DecisionStrategy> decisionStrategies = ImmutableList.of(
+        AlwaysDecisionStrategy.builder().build(),
+        NeverDecisionStrategy.builder().build()
+    );
+
+    @Test
+    public void select_incrementsNumberOfUsers_then_reset_setsUsersToZero() {
+        final StrategyUsage strategyUsage = StrategyUsage.of(decisionStrategies);
+
+        final int numberOfSelections = RandomUtils.nextInt(10, 100);
+        IntStream.range(0, numberOfSelections)
+            .forEach(idx -> strategyUsage.select("Always"));
+        strategyUsage.select("Never", 3);
+        strategyUsage.select("Unknown");
+
+        assertThat("Users are tallied per strategy", strategyUsage.toDistribution(),
+            is(ImmutableMap.of("Always", numberOfSelections, "Never", 3)));
+        strategyUsage.reset();
+        assertThat("Number of users is reset", strategyUsage.getUsers("Always"), is(0));
+    }
+
+    @Test
+    public void merge_addsPartialUsage() {
+        final StrategyUsage strategyUsage = StrategyUsage.of(decisionStrategies);
+        final StrategyUsage partial = strategyUsage.partial();
+        strategyUsage.select("Always", 2);
+        partial.select("Always", 5);
+        partial.select("Never", 1);
+
+        strategyUsage.merge(partial);
+
+        assertAll("Partial usage is merged",
+            () -> assertThat("Always users are summed", strategyUsage.getUsers("Always"), is(7)),
+            () -> assertThat("Never users are summed", strategyUsage.getUsers("Never"), is(1))
+        );
+    }
+
+    @Test
+    public void usage_isIsolatedPerSimulation_whenStrategiesAreShared() {
+        final StrategyUsage firstSimulationUsage = StrategyUsage.of(decisionStrategies);
+        final StrategyUsage secondSimulationUsage = StrategyUsage.of(decisionStrategies);
+
+        firstSimulationUsage.select("Always", 10);
+
+        assertThat("Other simulation is unaffected", secondSimulationUsage.getUsers("Always"), is(0));
+    }
+}